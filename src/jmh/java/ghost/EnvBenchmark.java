@@ -0,0 +1,72 @@
+package ghost;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+Benchmarks stepping the reinforcement learning environments on map.txt, counting one operation per step
+of a single environment, or per step of the whole batch for the vectorised environment.
+<p>
+Must be run from the project root so config.json and the map can be found.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EnvBenchmark {
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private WakaEnv env;
+    private WakaVecEnv vecEnv;
+    private int[] actions;
+    private int steps;
+
+    /**
+    Builds a single environment and a batch of 256, and resets them.
+    */
+    @Setup(Level.Trial)
+    public void setup() {
+        GameConfig config = GameConfig.load("config.json");
+        this.env = new WakaEnv(config, 1, 0);
+        this.env.reset(1);
+        this.vecEnv = new WakaVecEnv(config, 256, 1, 0, this.threads);
+        this.vecEnv.reset(1);
+        this.actions = new int[256];
+        this.steps = 0;
+    }
+
+    /**
+    Shuts down the batch's threads.
+    */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.vecEnv.close();
+    }
+
+    /**
+    Steps the single environment, turning to a new direction every 64 steps and starting a new
+    episode whenever one ends.
+    */
+    @Benchmark
+    public void step() {
+        this.env.step((this.steps >> 6) & 3);
+        this.steps++;
+        if (this.env.isDone()) {
+            this.env.reset(this.env.nextSeed());
+        }
+    }
+
+    /**
+    Steps every environment in the batch once.
+    */
+    @Benchmark
+    public void vecStep() {
+        int action = (this.steps >> 6) & 3;
+        this.steps++;
+        for (int i = 0; i < this.actions.length; i++) {
+            this.actions[i] = (action + i) & 3;
+        }
+        this.vecEnv.step(this.actions);
+    }
+}
@@ -0,0 +1,101 @@
+package ghost;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+Benchmarks the per tick hot paths of a headless game on map.txt.
+<p>
+The game is played for ten seconds before measuring so the Ghosts have left their starting spaces.
+That state is kept in a snapshot and restored before every iteration, and whenever the tick benchmark
+reaches the end screen, so every measurement is of live play.
+Must be run from the project root so config.json and the map can be found.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GameBenchmark {
+
+    private GameManager gameManager;
+    private Waka waka;
+    private Ghost ghost;
+    private GameSnapshot warm;
+    private int ticks;
+
+    /**
+    Builds the game and plays it from the start with the Waka heading left.
+    */
+    @Setup(Level.Trial)
+    public void setup() {
+        this.gameManager = new GameManager("config.json");
+        for (int i = 0; i < 600; i++) {
+            this.gameManager.tick(37);
+        }
+        this.waka = this.gameManager.getWaka();
+        this.ghost = this.gameManager.getGhosts().get(0);
+        this.warm = this.gameManager.snapshot();
+    }
+
+    /**
+    Puts the game back to its state after warming up.
+    */
+    @Setup(Level.Iteration)
+    public void restore() {
+        this.gameManager.restore(this.warm);
+        this.ticks = 0;
+    }
+
+    /**
+    Runs a full game tick, turning the Waka to a new direction every 64 ticks.
+    <p>
+    Starts again from the warmed up state once the game is won or lost.
+    */
+    @Benchmark
+    public void tick() {
+        if (this.gameManager.isEndGame()) {
+            this.restore();
+        }
+        int key = 37 + ((this.ticks >> 6) & 3);
+        this.ticks++;
+        this.gameManager.tick(key);
+    }
+
+    /**
+    Moves every Ghost by one step.
+    */
+    @Benchmark
+    public void moveGhosts() {
+        this.gameManager.moveGhosts();
+    }
+
+    /**
+    Checks the Waka against every Ghost for a collision.
+    */
+    @Benchmark
+    public void checkCollision() {
+        this.gameManager.checkCollision();
+    }
+
+    /**
+    Looks up the possible moves for a single Ghost.
+
+    @return The mask of possible moves.
+    */
+    @Benchmark
+    public int intersectionDirection() {
+        return this.ghost.intersectionDirection(this.gameManager);
+    }
+
+    /**
+    Checks whether the Waka can move in each of the four directions.
+
+    @param blackhole Consumes the results so they are not optimised away.
+    */
+    @Benchmark
+    public void wakaCanMove(Blackhole blackhole) {
+        for (int direction = 37; direction <= 40; direction++) {
+            blackhole.consume(this.waka.canMove(direction, this.gameManager));
+        }
+    }
+}
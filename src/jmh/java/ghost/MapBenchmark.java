@@ -0,0 +1,65 @@
+package ghost;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+Benchmarks reading map.txt, from text and from its ".wmap" cache, and building its MapPieces.
+<p>
+Must be run from the project root so the map can be found.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MapBenchmark {
+
+    private Map map;
+    private String cachePath;
+
+    /**
+    Loads the map once for the MapPiece benchmark and writes its cache to a temporary file.
+
+    @throws IOException If the cache cannot be written.
+    */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.map = new Map("map.txt");
+        Path cache = Files.createTempFile("map", MapData.CACHE_EXTENSION);
+        cache.toFile().deleteOnExit();
+        this.cachePath = cache.toString();
+        this.map.getMapData().save(this.cachePath);
+    }
+
+    /**
+    Parses the map's text file.
+
+    @return The map's codes.
+    */
+    @Benchmark
+    public MapData loadText() {
+        return MapData.load("map.txt");
+    }
+
+    /**
+    Loads the map's ".wmap" cache.
+
+    @return The map's codes.
+    */
+    @Benchmark
+    public MapData loadCache() {
+        return MapData.load(this.cachePath);
+    }
+
+    /**
+    Builds the MapPieces and TileGrid from an already read map.
+
+    @return The list of MapPieces.
+    */
+    @Benchmark
+    public ArrayList<MapPiece> makeMapPieces() {
+        return this.map.makeMapPieces();
+    }
+}
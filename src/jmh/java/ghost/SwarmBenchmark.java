@@ -0,0 +1,43 @@
+package ghost;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+Benchmarks moving a large population of Ghosts in swarm mode on map.txt.
+<p>
+Must be run from the project root so config.json and the map can be found.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SwarmBenchmark {
+
+    @Param({"4", "1000", "10000"})
+    public int swarmSize;
+
+    private GameManager gameManager;
+
+    /**
+    Builds a game whose Ghosts are a swarm of the benchmark's size, and plays it for ten seconds.
+    */
+    @Setup(Level.Trial)
+    public void setup() {
+        GameConfig config = GameConfig.load("config.json");
+        config = new GameConfig(config.getMapFilePath(), config.getLives(), config.getSpeed(),
+            config.getFrightenedLength(), config.getModeLengths(), config.getPathfinding(), config.getTickRate(),
+            config.getFrameRate(), config.isUncapped(), null, this.swarmSize, null, 10);
+        this.gameManager = new GameManager(config, 1);
+        for (int i = 0; i < 600; i++) {
+            this.gameManager.moveGhosts();
+        }
+    }
+
+    /**
+    Steers, moves and checks every Ghost in the swarm against the Waka.
+    */
+    @Benchmark
+    public void moveGhosts() {
+        this.gameManager.moveGhosts();
+    }
+}
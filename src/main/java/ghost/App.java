@@ -1,69 +1,476 @@
 package ghost;
 
 import processing.core.PApplet;
+import processing.core.PGraphics;
 import processing.core.PImage;
+import java.io.*;
 import java.util.*;
 
 /**
-The main class for the game. 
+The main class for the game.
 <p>
-Will control the generating of the game window and creating the instances of each 
-element within the system.
+Will control the generating of the game window and drawing each element within the system.
 Extends from PApplet and utilises the Processing library.
+All of the game's rules live in the GameManager, which this class advances once per frame
+with the player's input before drawing the resulting state.
 The goal of the player is to collect all of the fruit in the map without losing all of their lives.
 The player will lose a life if it collides with a ghost.
 The game ends if the player loses all of their lives.
 */
 public class App extends PApplet {
 
-    public static final int WIDTH = 448;
-    public static final int HEIGHT = 576;
+    public static final int MAX_TICKS_PER_FRAME = 8;
 
+    private SpriteAtlas sprites;
+    private ConfigService configService;
     private GameManager gameManager;
-    private Waka waka;
-    private Map map;
-    private ArrayList<Ghost> ghosts;
-    private ArrayList<MapPiece> mapPieces;
+    private FixedTimestep timestep;
+    private int wakaCounter;
+    private boolean debug;
+    private boolean firstPress;
+    private ReplayRecorder recorder;
+    private MetricsReporter metricsReporter;
+    private DebugOverlay overlay;
+    private PGraphics mazeLayer;
+    private ArrayList<MapPiece> mazeLayerPieces;
+    private InputPolicy autoplayer;
+    private GameConfig appliedConfig;
+    private int tickRate;
+    private int framesPerSecond;
 
     /**
     Constructs a new App instance.
     */
     public App() {
-        this.gameManager = new GameManager(this);
-        this.map = new Map(this.gameManager.getMapFilePath());
-        this.ghosts = new ArrayList<Ghost>();
+        this.sprites = new SpriteAtlas();
+        this.configService = new ConfigService("config.json");
+        this.gameManager = new GameManager(this.configService.get(), System.nanoTime());
+        this.wakaCounter = 0;
+        this.debug = false;
+        this.firstPress = false;
+        this.recorder = null;
+        this.metricsReporter = null;
+        this.overlay = new DebugOverlay();
+        this.mazeLayer = null;
+        this.mazeLayerPieces = null;
+        this.autoplayer = null;
+        this.appliedConfig = null;
+        this.tickRate = 0;
+        this.framesPerSecond = 0;
     }
 
     /**
     Loads all images required for the game to be played.
     <p>
     Will be called before the draw loop begins.
-    Outlines the framerate for the game.
+    Every sprite is decoded once here and shared through the SpriteAtlas.
+    Outlines the framerate for the game, which is independent of the rate the game is simulated at.
+    Starts recording the game if the config gives a replay directory, and otherwise starts
+    watching the config file for changes. Starts recording metrics if the config gives a metrics file.
     */
     public void setup() {
-        frameRate(60);
-        this.mapPieces = this.map.makeMapPieces(this.map.getMapList(), this);
-        Coordinate playerStart = this.map.getPlayerStart();
-        PImage wakaLeft = this.loadImage("src/main/resources/playerLeft.png");
-        PImage wakaClosed = this.loadImage("src/main/resources/playerClosed.png");
-        this.waka = new Waka(wakaLeft, wakaClosed, playerStart.getX(), playerStart.getY());
-        this.ghosts = this.map.getGhosts(this);        
+        this.framesPerSecond = this.gameManager.getFrameRate();
+        frameRate(this.framesPerSecond);
+        this.appliedConfig = this.gameManager.getConfig();
+        if (this.gameManager.getConfig().getReplayDirectory() != null) {
+            this.startRecording();
+        } else {
+            this.startConfigWatch();
+        }
+        if (this.gameManager.getConfig().getMetricsFile() != null) {
+            this.startMetrics();
+        }
+        this.tickRate = this.gameManager.getTickRate();
+        this.timestep = new FixedTimestep(this.tickRate, MAX_TICKS_PER_FRAME);
+        this.sprites.load(this);
+        this.buildMazeLayer();
     }
 
     /**
     Outlines the settings for the App.
+    <p>
+    The window is sized to fit the map.
     */
     public void settings() {
-        size(WIDTH, HEIGHT);
+        TileGrid tileGrid = this.gameManager.getTileGrid();
+        size(tileGrid.pixelWidth(), tileGrid.pixelHeight());
     }
 
     /**
-    Displays the images of each element created by the App within the application window.
+    Advances the game and displays the images of each element within the application window.
+    <p>
+    Runs however many ticks are due since the last frame, so the game keeps to its tick rate
+    even when frames are dropped. In uncapped mode, ticks are run back to back for the length 
+    of a frame instead.
+    Shows the win or lose screen instead of the map once the game has ended.
+    Every frame is recorded in the debug overlay, whether or not it is showing.
     */
     public void draw() {
+        GameMetrics metrics = this.gameManager.getMetrics();
+        long frameStart = metrics.start();
+        long overlayStart = System.nanoTime();
+        long allocated = GameMetrics.threadAllocatedBytes();
+        int ticks = 0;
         background(0, 0, 0);
-        this.gameManager.draw();
-        
+        if (this.gameManager.isUncapped()) {
+            long deadline = overlayStart + (1000000000L / this.gameManager.getFrameRate());
+            do {
+                this.step();
+                ticks++;
+            } while (System.nanoTime() < deadline);
+        } else {
+            ticks = this.timestep.advance(overlayStart);
+            for (int i = 0; i < ticks; i++) {
+                this.step();
+            }
+        }
+        this.applySettings();
+        if (this.gameManager.isEndGame()) {
+            if (this.gameManager.hasWon()) {
+                this.winner();
+            } else {
+                this.loser();
+            }
+        } else {
+            long phaseStart = metrics.start();
+            this.drawMap();
+            phaseStart = metrics.lap(GameMetrics.DRAW_MAP, phaseStart);
+            this.drawWaka();
+            phaseStart = metrics.lap(GameMetrics.DRAW_WAKA, phaseStart);
+            this.drawGhosts();
+            metrics.lap(GameMetrics.DRAW_GHOSTS, phaseStart);
+            this.drawLives();
+        }
+        this.wakaCounter++;
+        if (allocated >= 0) {
+            allocated = GameMetrics.threadAllocatedBytes() - allocated;
+        }
+        this.overlay.recordFrame(overlayStart, ticks, allocated);
+        this.debuggerCheck(this.keyCode);
+        metrics.lap(GameMetrics.FRAME, frameStart);
+    }
+
+    /**
+    Advances the game by a single tick with the key currently held, or the autoplayer's key if one is set,
+    recording it if replays are being saved.
+    <p>
+    A recording is saved as soon as its game ends, and a new one is started once the next game begins.
+    The next game's seed is the state the random number generator was left in, as a reset game plays
+    out the same as a new game made with that seed.
+    */
+    public void step() {
+        boolean wasEndGame = this.gameManager.isEndGame();
+        int key = (this.autoplayer != null) ? this.autoplayer.nextKey(this.gameManager) : this.keyCode;
+        this.gameManager.tick(key);
+        if (this.recorder == null) {
+            return;
+        }
+        if (!wasEndGame) {
+            this.recorder.record(key);
+            if (this.gameManager.isEndGame()) {
+                this.saveRecording();
+            }
+        } else if (!this.gameManager.isEndGame()) {
+            this.startRecording();
+        }
+    }
+
+    /**
+    Sets something to play the game in place of the keyboard, such as an MctsInputPolicy for an attract
+    mode demo.
+
+    @param autoplayer The policy to take each tick's key from, or null to go back to the keyboard.
+    */
+    public void setAutoplayer(InputPolicy autoplayer) {
+        this.autoplayer = autoplayer;
+    }
+
+    /**
+    Starts recording the current game from its random number generator's current state.
+    */
+    public void startRecording() {
+        this.recorder = new ReplayRecorder(this.gameManager.getRandom().getState(), this.gameManager.getConfig());
+    }
+
+    /**
+    Starts watching the config file, so that saving a change to it changes the running game.
+    <p>
+    Not used while recording, as a replay holds the single config its game was played with.
+    */
+    public void startConfigWatch() {
+        this.configService.addListener(this.gameManager::updateConfig);
+        if (!this.configService.start()) {
+            System.err.println("Could not watch config file for changes");
+        }
+    }
+
+    /**
+    Brings the window, timing and metrics in line with the game's settings once its config has changed.
+    <p>
+    Checked once a frame. The tick rate, frame rate and map only change when the game is reset, at which
+    point the timestep is rebuilt, the frame rate set and the window resized to fit the new map. A new
+    metrics file or interval restarts the metrics reporter as soon as the config is swapped in. A new replay
+    directory is only used from the next start of the program, as replays are never recorded while the
+    config file is watched.
+    */
+    public void applySettings() {
+        if (this.gameManager.getTickRate() != this.tickRate) {
+            this.tickRate = this.gameManager.getTickRate();
+            this.timestep = new FixedTimestep(this.tickRate, MAX_TICKS_PER_FRAME);
+        }
+        if (this.gameManager.getFrameRate() != this.framesPerSecond) {
+            this.framesPerSecond = this.gameManager.getFrameRate();
+            frameRate(this.framesPerSecond);
+        }
+        TileGrid tileGrid = this.gameManager.getTileGrid();
+        if (this.mazeLayer != null && (tileGrid.pixelWidth() != this.mazeLayer.width
+                || tileGrid.pixelHeight() != this.mazeLayer.height)) {
+            this.surface.setSize(tileGrid.pixelWidth(), tileGrid.pixelHeight());
+            this.mazeLayer = null;
+            this.buildMazeLayer();
+        }
+        GameConfig config = this.gameManager.getConfig();
+        GameConfig applied = this.appliedConfig;
+        if (config == applied) {
+            return;
+        }
+        this.appliedConfig = config;
+        if (!Objects.equals(config.getMetricsFile(), applied.getMetricsFile())
+                || config.getMetricsInterval() != applied.getMetricsInterval()) {
+            this.stopMetrics();
+            if (config.getMetricsFile() != null) {
+                this.startMetrics();
+            }
+        }
+        if (!Objects.equals(config.getReplayDirectory(), applied.getReplayDirectory())) {
+            System.err.println("The \"replayDirectory\" setting is only used from the next start of the game");
+        }
+    }
+
+    /**
+    Starts recording the game's metrics, publishes them over JMX and writes them to the config's
+    metrics file every metrics interval.
+    <p>
+    Metrics already being recorded carry on into the new file, rather than starting again.
+    */
+    public void startMetrics() {
+        GameConfig config = this.gameManager.getConfig();
+        GameMetrics metrics = this.gameManager.getMetrics();
+        if (!metrics.isEnabled()) {
+            metrics = new GameMetrics();
+            this.gameManager.setMetrics(metrics);
+            if (!metrics.register()) {
+                System.err.println("Could not publish metrics over JMX");
+            }
+        }
+        this.metricsReporter = new MetricsReporter(metrics, config.getMetricsFile());
+        this.metricsReporter.start(Math.max(1, config.getMetricsInterval()));
+    }
+
+    /**
+    Stops writing the metrics to file, writing them one last time, if they are being written.
+    */
+    public void stopMetrics() {
+        if (this.metricsReporter != null) {
+            this.metricsReporter.stop();
+            this.metricsReporter = null;
+        }
+    }
+
+    /**
+    Stops watching the config file, stops the autoplayer's search threads and writes the metrics one
+    last time, if they are being recorded, before the window closes.
+    */
+    @Override
+    public void dispose() {
+        this.configService.stop();
+        if (this.autoplayer instanceof MctsInputPolicy) {
+            ((MctsInputPolicy) this.autoplayer).close();
+        }
+        this.stopMetrics();
+        super.dispose();
+    }
+
+    /**
+    Saves the current recording to a new file in the config's replay directory.
+    <p>
+    The game carries on if the file cannot be written.
+    */
+    public void saveRecording() {
+        File directory = new File(this.gameManager.getConfig().getReplayDirectory());
+        File file = new File(directory, "replay-" + System.currentTimeMillis() + ".wrp");
+        try {
+            directory.mkdirs();
+            this.recorder.save(file.getPath());
+        } catch (IOException e) {
+            System.err.println("Could not save replay " + file.getPath() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+    Draws all elements of the map to the window.
+    <p>
+    The walls never change during a game, so they are drawn once to an offscreen layer which is then
+    copied to the window in a single call. The layer is redrawn whenever the game builds a new level.
+    Only the fruit, super fruit and soda cans left to collect are drawn each frame.
+    */
+    public void drawMap() {
+        ArrayList<MapPiece> mapPieces = this.gameManager.getMapPieces();
+        if (this.mazeLayerPieces != mapPieces) {
+            this.buildMazeLayer();
+        }
+        this.image(this.mazeLayer, 0, 0);
+        CollectibleSet collectibles = this.gameManager.getCollectibles();
+        for (int i = 0; i < collectibles.size(); i++) {
+            mapPieces.get(collectibles.get(i)).draw(this.g, this.sprites);
+        }
+    }
+
+    /**
+    Draws every wall of the current level to the offscreen maze layer.
+    */
+    public void buildMazeLayer() {
+        TileGrid tileGrid = this.gameManager.getTileGrid();
+        if (this.mazeLayer == null) {
+            this.mazeLayer = this.createGraphics(tileGrid.pixelWidth(), tileGrid.pixelHeight());
+        }
+        ArrayList<MapPiece> mapPieces = this.gameManager.getMapPieces();
+        this.mazeLayer.beginDraw();
+        this.mazeLayer.clear();
+        for (int i = 0; i < mapPieces.size(); i++) {
+            if (mapPieces.get(i) != null && tileGrid.isWall(i)) {
+                mapPieces.get(i).draw(this.mazeLayer, this.sprites);
+            }
+        }
+        this.mazeLayer.endDraw();
+        this.mazeLayerPieces = mapPieces;
+    }
+
+    /**
+    Draws the Waka to the window.
+    <p>
+    Changes between the open and closed image of the Waka every 8 frames.
+    */
+    public void drawWaka() {
+        Waka waka = this.gameManager.getWaka();
+        if (this.wakaCounter <= 8) {
+            waka.changeToClosed();
+        } else if (this.wakaCounter > 8 && this.wakaCounter <= 16) {
+            waka.setSprite(waka.getDirection());
+        } else {
+            waka.setSprite(waka.getDirection());
+            this.wakaCounter = 0;
+        }
+        waka.draw(this, this.sprites);
+    }
+
+    /**
+    Draws all of the Ghosts to the game window.
+    */
+    public void drawGhosts() {
+        ArrayList<Ghost> ghosts = this.gameManager.getGhosts();
+        for (int i = 0; i < ghosts.size(); i++) {
+            if (ghosts.get(i) == null) {
+                continue;
+            } else {
+                ghosts.get(i).draw(this, this.sprites);
+            }
+        }
+        GhostSwarm swarm = this.gameManager.getSwarm();
+        if (swarm != null) {
+            for (int i = 0; i < swarm.size(); i++) {
+                this.image(this.sprites.get(swarm.sprite(i)), swarm.getX(i), swarm.getY(i));
+            }
+        }
+    }
+
+    /**
+    Draws the player's remaining lives along the bottom of the game window.
+    */
+    public void drawLives() {
+        PImage life = this.sprites.get(SpriteAtlas.PLAYER_RIGHT);
+        for (int i = 0; i < this.gameManager.getLives(); i++) {
+            this.image(life, (8 + (i * 28)), this.height - 32);
+        }
+    }
+
+    /**
+    Draws the win screen to the window.
+    */
+    public void winner() {
+        this.endScreen(this.sprites.get(SpriteAtlas.YOU_WIN));
+    }
+
+    /**
+    Draws the lose screen to the window.
+    */
+    public void loser() {
+        this.endScreen(this.sprites.get(SpriteAtlas.GAME_OVER));
+    }
+
+    /**
+    Covers the window and draws the image provided in its centre.
+
+    @param message The image to show.
+    */
+    public void endScreen(PImage message) {
+        this.fill(0, 0, 0);
+        this.rect(-1, -1, this.width + 2, this.height + 2);
+        this.image(message, (this.width - message.width) / 2, (this.height - message.height) / 2);
+    }
+
+    /**
+    Checks if Debug Mode has been activated and calls the debug method if so.
+
+    @param key The most recent key pressed by the user.
+    */
+    public void debuggerCheck(int key) {
+        if (key == 0 && !this.debug) {
+            this.firstPress = true;
+        } else if (key == 0 && this.debug) {
+            this.firstPress = false;
+        }
+        if (key == 32 && this.firstPress) {
+            this.debug = true;
+        } else if (key == 32 && !this.firstPress) {
+            this.debug = false;
+        }
+        this.gameManager.setDecisionTiming(this.debug);
+        if (this.debug) {
+            this.debugMode();
+        }
+    }
+
+    /**
+    Draws a debug line from each Ghost to their current target, and the performance overlay.
+    <p>
+    Will not draw line if the ghost is dead or frightened.
+    */
+    public void debugMode() {
+        this.overlay.draw(this, this.gameManager);
+        if (this.gameManager.getFrightened()) {
+            return;
+        }
+        this.stroke(256, 256, 256);
+        ArrayList<Ghost> ghosts = this.gameManager.getGhosts();
+        for (int i = 0; i < ghosts.size(); i++) {
+            Ghost ghost = ghosts.get(i);
+            if (ghost.canGhostMove()) {
+                int ghostX = ghost.getCoord().getX() + 8;
+                int ghostY = ghost.getCoord().getY() + 8;
+                int targetX = ghost.getTarget().getX() + 8;
+                int targetY = ghost.getTarget().getY() + 8;
+                this.line(ghostX, ghostY, targetX, targetY);
+            }
+        }
+        GhostSwarm swarm = this.gameManager.getSwarm();
+        if (swarm != null) {
+            for (int i = 0; i < swarm.size(); i++) {
+                if (swarm.getState(i) != GhostSwarm.JAILED) {
+                    this.line(swarm.getX(i) + 14, swarm.getY(i) + 14, swarm.getTargetX(i) + 8, swarm.getTargetY(i) + 8);
+                }
+            }
+        }
     }
 
     /**
@@ -72,7 +479,7 @@ public class App extends PApplet {
     @return The app's Waka.
     */
     public Waka getWaka() {
-        return this.waka;
+        return this.gameManager.getWaka();
     }
 
     /**
@@ -81,7 +488,7 @@ public class App extends PApplet {
     @return The total number of fruit originally on the map.
     */
     public int getFruitCount() {
-        return this.map.getFruitCount();
+        return this.gameManager.getMap().getFruitCount();
     }
 
     /**
@@ -90,7 +497,7 @@ public class App extends PApplet {
     @return The list of Ghosts in the app.
     */
     public ArrayList<Ghost> getGhosts() {
-        return this.ghosts;
+        return this.gameManager.getGhosts();
     }
 
     /**
@@ -99,7 +506,7 @@ public class App extends PApplet {
     @return The list of MapPieces for the Map.
     */
     public ArrayList<MapPiece> getMapPieces() {
-        return this.mapPieces;
+        return this.gameManager.getMapPieces();
     }
 
     /**
@@ -108,7 +515,16 @@ public class App extends PApplet {
     @return The Map object for this instance.
     */
     public Map getMap() {
-        return this.map;
+        return this.gameManager.getMap();
+    }
+
+    /**
+    Returns the atlas holding every image used by the game.
+
+    @return The SpriteAtlas for this instance.
+    */
+    public SpriteAtlas getSprites() {
+        return this.sprites;
     }
 
     /**
@@ -124,21 +540,24 @@ public class App extends PApplet {
     Resets the current instances Map, Waka, Ghosts and Fruit.
     */
     public void resetGame() {
-        this.mapPieces = this.map.makeMapPieces(this.map.getMapList(), this);
-        Coordinate playerStart = this.map.getPlayerStart();
-        PImage wakaLeft = this.loadImage("src/main/resources/playerLeft.png");
-        PImage wakaClosed = this.loadImage("src/main/resources/playerClosed.png");
-        this.waka = new Waka(wakaLeft, wakaClosed, playerStart.getX(), playerStart.getY());
-        this.ghosts = this.map.getGhosts(this); 
+        this.gameManager.resetGame();
     }
 
     /**
     The main method of the App program.
-    
+    <p>
+    Given "autoplay", the game plays itself with an MctsInputPolicy, as an attract mode demo.
+
     @param args Command line arguments.
     */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("autoplay")) {
+            App app = new App();
+            app.setAutoplayer(MctsInputPolicy.forFrames(app.gameManager.getConfig(), System.nanoTime()));
+            PApplet.runSketch(new String[] {"ghost.App"}, app);
+            return;
+        }
         PApplet.main("ghost.App");
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,194 @@
+package ghost;
+
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+Totals gathered from a batch of headless games.
+<p>
+Results from separate batches can be added together, so games can be split across threads
+and their results combined afterwards. Games recorded with their config are also totalled per config,
+keyed by the config's JSON text, so the settings of a sweep can be compared with each other.
+*/
+public class BatchResult {
+
+    private int games;
+    private int wins;
+    private int finished;
+    private long fruitCollected;
+    private long ticksToFinish;
+    private TreeMap<String, BatchResult> configs;
+    private GameConfig lastConfig;
+    private String lastConfigJson;
+
+    /**
+    Constructs a new, empty BatchResult.
+    */
+    public BatchResult() {
+        this.games = 0;
+        this.wins = 0;
+        this.finished = 0;
+        this.fruitCollected = 0;
+        this.ticksToFinish = 0;
+        this.configs = new TreeMap<String, BatchResult>();
+        this.lastConfig = null;
+        this.lastConfigJson = null;
+    }
+
+    /**
+    Records the outcome of a single game.
+
+    @param won Whether the player collected every fruit.
+    @param fruit The number of fruit the player collected.
+    @param finished Whether the game was won or lost before the tick limit.
+    @param ticks The number of ticks the game was played for.
+    */
+    public void addGame(boolean won, int fruit, boolean finished, int ticks) {
+        this.games++;
+        if (won) {
+            this.wins++;
+        }
+        this.fruitCollected += fruit;
+        if (finished) {
+            this.finished++;
+            this.ticksToFinish += ticks;
+        }
+    }
+
+    /**
+    Records the outcome of a single game, in the totals and in the totals of the config it was played with.
+
+    @param config The settings the game was played with.
+    @param won Whether the player collected every fruit.
+    @param fruit The number of fruit the player collected.
+    @param finished Whether the game was won or lost before the tick limit.
+    @param ticks The number of ticks the game was played for.
+    */
+    public void addGame(GameConfig config, boolean won, int fruit, boolean finished, int ticks) {
+        this.addGame(won, fruit, finished, ticks);
+        if (config != this.lastConfig) {
+            this.lastConfig = config;
+            this.lastConfigJson = config.toJson();
+        }
+        BatchResult configResult = this.configs.get(this.lastConfigJson);
+        if (configResult == null) {
+            configResult = new BatchResult();
+            this.configs.put(this.lastConfigJson, configResult);
+        }
+        configResult.addGame(won, fruit, finished, ticks);
+    }
+
+    /**
+    Adds the totals of another result to this one, including its totals per config.
+
+    @param other The result to add.
+    */
+    public void add(BatchResult other) {
+        this.games += other.games;
+        this.wins += other.wins;
+        this.finished += other.finished;
+        this.fruitCollected += other.fruitCollected;
+        this.ticksToFinish += other.ticksToFinish;
+        for (String configJson : other.configs.keySet()) {
+            BatchResult configResult = this.configs.get(configJson);
+            if (configResult == null) {
+                configResult = new BatchResult();
+                this.configs.put(configJson, configResult);
+            }
+            configResult.add(other.configs.get(configJson));
+        }
+    }
+
+    /**
+    Returns the totals of each config games were recorded with.
+
+    @return The results, keyed by the JSON text of their config, in the order of that text.
+    */
+    public SortedMap<String, BatchResult> getConfigResults() {
+        return Collections.unmodifiableSortedMap(this.configs);
+    }
+
+    /**
+    Returns the totals of the games played with the config provided.
+
+    @param config The settings the games were played with.
+    @return The results of those games, or null if none were recorded.
+    */
+    public BatchResult getConfigResult(GameConfig config) {
+        return this.configs.get(config.toJson());
+    }
+
+    /**
+    Returns the number of games played.
+
+    @return The number of games.
+    */
+    public int getGames() {
+        return this.games;
+    }
+
+    /**
+    Returns the number of games the player won.
+
+    @return The number of wins.
+    */
+    public int getWins() {
+        return this.wins;
+    }
+
+    /**
+    Returns the number of games that were won or lost before the tick limit.
+
+    @return The number of finished games.
+    */
+    public int getFinished() {
+        return this.finished;
+    }
+
+    /**
+    Returns the fraction of games the player won.
+
+    @return The win rate, from 0 to 1.
+    */
+    public double getWinRate() {
+        if (this.games == 0) {
+            return 0;
+        }
+        return (double) this.wins / this.games;
+    }
+
+    /**
+    Returns the average number of fruit collected per game.
+
+    @return The average fruit collected.
+    */
+    public double getAverageFruit() {
+        if (this.games == 0) {
+            return 0;
+        }
+        return (double) this.fruitCollected / this.games;
+    }
+
+    /**
+    Returns the average number of ticks taken by the games that finished.
+
+    @return The average ticks to completion.
+    */
+    public double getAverageTicks() {
+        if (this.finished == 0) {
+            return 0;
+        }
+        return (double) this.ticksToFinish / this.finished;
+    }
+
+    /**
+    Returns a one line summary of the results.
+
+    @return The summary.
+    */
+    public String toString() {
+        return String.format("games=%d wins=%d winRate=%.4f avgFruit=%.2f finished=%d avgTicks=%.1f",
+            this.games, this.wins, this.getWinRate(), this.getAverageFruit(), this.finished, this.getAverageTicks());
+    }
+}
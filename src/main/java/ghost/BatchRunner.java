@@ -0,0 +1,190 @@
+package ghost;
+
+import java.util.concurrent.*;
+import java.util.function.IntFunction;
+import java.util.function.LongFunction;
+
+/**
+Plays many independent headless games at once across every available core.
+<p>
+Each game gets its own seed, GameConfig and InputPolicy, so a batch can sweep settings such as the mode
+lengths or frightened length, and games never interfere with each other: a batch run with the same seed
+gives the same results. Each thread keeps a single GameManager and resets it in place between games, only
+building a new one when the next game's config is different, so the map is not read again for every game.
+Games are split between threads by a fork join pool and their outcomes combined into a BatchResult,
+which also keeps the outcomes of each config apart.
+*/
+public class BatchRunner {
+
+    private static final int GAMES_PER_TASK = 16;
+
+    private IntFunction<GameConfig> configs;
+    private LongFunction<InputPolicy> policies;
+    private int maxTicks;
+
+    /**
+    Constructs a new BatchRunner that plays every game with the same settings.
+
+    @param config The settings every game is played with.
+    @param policies Creates the InputPolicy for a game from that game's seed.
+    @param maxTicks The most ticks to play a game for before giving up on it.
+    */
+    public BatchRunner(GameConfig config, LongFunction<InputPolicy> policies, int maxTicks) {
+        this(game -> config, policies, maxTicks);
+    }
+
+    /**
+    Constructs a new BatchRunner that plays each game with its own settings.
+    <p>
+    Games given the same GameConfig instance in a row on a thread share its GameManager, so a sweep
+    should hand out one instance per setting rather than a new one per game.
+
+    @param configs Gives the settings for a game from that game's number within the batch.
+    @param policies Creates the InputPolicy for a game from that game's seed.
+    @param maxTicks The most ticks to play a game for before giving up on it.
+    */
+    public BatchRunner(IntFunction<GameConfig> configs, LongFunction<InputPolicy> policies, int maxTicks) {
+        this.configs = configs;
+        this.policies = policies;
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+    Returns the seed for a single game within a batch.
+
+    @param seed The seed of the batch.
+    @param game The number of the game within the batch.
+    @return The game's seed.
+    */
+    public static long gameSeed(long seed, int game) {
+        return seed + (game * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+    Plays a single game until it is won or lost, or the tick limit is reached.
+    <p>
+    The game provided is reset in place with the seed if it was made with the same config, as a reset
+    game plays out the same as a new one; otherwise a new GameManager is built.
+
+    @param game The game played by the last call on this thread, or null if there was none.
+    @param config The settings for the game.
+    @param seed The seed for the game.
+    @param result The result to record the game's outcome in.
+    @return The game that was played, to be handed to the next call on this thread.
+    */
+    public GameManager playGame(GameManager game, GameConfig config, long seed, BatchResult result) {
+        if (game != null && game.getConfig() == config) {
+            game.resetGame(seed);
+        } else {
+            game = new GameManager(config, seed);
+        }
+        InputPolicy policy = this.policies.apply(seed);
+        int ticks = 0;
+        while (!game.isEndGame() && ticks < this.maxTicks) {
+            game.tick(policy.nextKey(game));
+            ticks++;
+        }
+        result.addGame(config, game.hasWon(), game.getFruitCount(), game.isEndGame(), ticks);
+        return game;
+    }
+
+    /**
+    Plays a batch of games spread across the number of threads provided.
+
+    @param games The number of games to play.
+    @param seed The seed of the batch; game i is played with gameSeed(seed, i).
+    @param threads The number of threads to play on.
+    @return The combined results of every game.
+    */
+    public BatchResult run(int games, long seed, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new BatchTask(seed, 0, games, new ThreadLocal<GameManager>()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+    Plays a range of games in a batch, splitting the range in half until it is small enough to play directly.
+    */
+    private class BatchTask extends RecursiveTask<BatchResult> {
+
+        private static final long serialVersionUID = 1L;
+
+        private long seed;
+        private int from;
+        private int to;
+        private ThreadLocal<GameManager> games;
+
+        /**
+        Constructs a new BatchTask.
+
+        @param seed The seed of the batch.
+        @param from The first game to play.
+        @param to The game after the last one to play.
+        @param games The game each thread of the batch last played, to be reset for its next game.
+        */
+        BatchTask(long seed, int from, int to, ThreadLocal<GameManager> games) {
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+            this.games = games;
+        }
+
+        /**
+        Plays the task's games, or splits them between two smaller tasks.
+
+        @return The combined results of the task's games.
+        */
+        protected BatchResult compute() {
+            if (this.to - this.from <= GAMES_PER_TASK) {
+                BatchResult result = new BatchResult();
+                GameManager game = this.games.get();
+                for (int i = this.from; i < this.to; i++) {
+                    GameConfig config = BatchRunner.this.configs.apply(i);
+                    game = BatchRunner.this.playGame(game, config, BatchRunner.gameSeed(this.seed, i), result);
+                }
+                this.games.set(game);
+                return result;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            BatchTask left = new BatchTask(this.seed, this.from, middle, this.games);
+            BatchTask right = new BatchTask(this.seed, middle, this.to, this.games);
+            left.fork();
+            BatchResult result = right.compute();
+            result.add(left.join());
+            return result;
+        }
+    }
+
+    /**
+    The main method of the BatchRunner program.
+    <p>
+    Plays games with the RandomInputPolicy and prints the combined results.
+    Arguments, all optional: config file path (config.json), number of games (1000),
+    number of threads (all cores), batch seed (0) and tick limit (36000, ten minutes at 60 ticks per second).
+
+    @param args Command line arguments.
+    */
+    public static void main(String[] args) {
+        String configFilePath = (args.length > 0) ? args[0] : "config.json";
+        int games = (args.length > 1) ? Integer.parseInt(args[1]) : 1000;
+        int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long seed = (args.length > 3) ? Long.parseLong(args[3]) : 0;
+        int maxTicks = (args.length > 4) ? Integer.parseInt(args[4]) : 36000;
+        GameConfig config;
+        try {
+            config = GameConfig.read(configFilePath);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+        BatchRunner runner = new BatchRunner(config, policySeed -> new RandomInputPolicy(~policySeed), maxTicks);
+        long start = System.nanoTime();
+        BatchResult result = runner.run(games, seed, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(result);
+        System.out.printf("%.2f seconds, %.1f games per second on %d threads%n", seconds, games / seconds, threads);
+    }
+}
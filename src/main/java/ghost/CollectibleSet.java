@@ -0,0 +1,316 @@
+package ghost;
+
+import java.util.Arrays;
+
+/**
+The set of tiles that still hold a fruit, super fruit or soda can.
+<p>
+Kept as a packed array of tile indices with a slot for each tile, so a collectible is removed in
+constant time by swapping the last one into its place, and looping over the remaining collectibles
+only visits the tiles that still hold one. Shrinks as the Waka collects them.
+<p>
+Alongside the packed array, a bitset with a bit for each tile and a count for each square region of
+REGION_SIZE by REGION_SIZE tiles are kept up to date, so the nearest remaining collectible can be found
+by searching outwards region by region, skipping every empty region, instead of checking them all.
+The nearest by walking distance is found with a breadth first search that stops at the first one reached.
+*/
+public class CollectibleSet {
+
+    public static final int REGION_SIZE = 8;
+
+    private int[] tiles;
+    private int[] slots;
+    private int size;
+    private long[] bits;
+    private int width;
+    private int height;
+    private int regionColumns;
+    private int regionRows;
+    private int[] regionCounts;
+    private int[] queue;
+    private int[] marks;
+    private int mark;
+
+    /**
+    Constructs a new CollectibleSet holding every collectible tile in the grid provided.
+
+    @param tileGrid The grid of tile types to read collectibles from.
+    */
+    public CollectibleSet(TileGrid tileGrid) {
+        int tileCount = tileGrid.size();
+        this.tiles = new int[tileCount];
+        this.slots = new int[tileCount];
+        this.size = 0;
+        this.bits = new long[(tileCount + 63) >>> 6];
+        this.width = Math.max(1, tileGrid.getWidth());
+        this.height = (tileCount + this.width - 1) / this.width;
+        this.regionColumns = (this.width + REGION_SIZE - 1) / REGION_SIZE;
+        this.regionRows = (this.height + REGION_SIZE - 1) / REGION_SIZE;
+        this.regionCounts = new int[this.regionColumns * this.regionRows];
+        this.queue = new int[tileCount];
+        this.marks = new int[tileCount];
+        this.mark = 0;
+        for (int i = 0; i < tileCount; i++) {
+            this.slots[i] = -1;
+            if (tileGrid.isCollectable(i)) {
+                this.add(i);
+            }
+        }
+    }
+
+    /**
+    Makes this set hold the same collectibles as another set over the same grid, without allocating.
+
+    @param other The set to copy.
+    */
+    public void copyFrom(CollectibleSet other) {
+        System.arraycopy(other.tiles, 0, this.tiles, 0, other.size);
+        System.arraycopy(other.slots, 0, this.slots, 0, this.slots.length);
+        System.arraycopy(other.bits, 0, this.bits, 0, this.bits.length);
+        System.arraycopy(other.regionCounts, 0, this.regionCounts, 0, this.regionCounts.length);
+        this.size = other.size;
+    }
+
+    /**
+    Returns the number of collectibles remaining.
+
+    @return The number of collectibles.
+    */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+    Returns the tile index of a remaining collectible.
+    <p>
+    The order of the collectibles changes as they are removed.
+
+    @param i The position of the collectible, from 0 to size() - 1.
+    @return The tile index of the collectible.
+    */
+    public int get(int i) {
+        return this.tiles[i];
+    }
+
+    /**
+    Checks whether the tile provided still holds a collectible.
+
+    @param index The tile index.
+    @return True if the tile holds a collectible, False otherwise.
+    */
+    public boolean contains(int index) {
+        return index >= 0 && index < this.slots.length && this.slots[index] >= 0;
+    }
+
+    /**
+    Adds a collectible at the tile provided.
+
+    @param index The tile index.
+    @return True if the tile did not already hold a collectible, False otherwise.
+    */
+    public boolean add(int index) {
+        if (this.contains(index)) {
+            return false;
+        }
+        this.tiles[this.size] = index;
+        this.slots[index] = this.size;
+        this.size++;
+        this.bits[index >>> 6] |= 1L << index;
+        this.regionCounts[this.regionOf(index)]++;
+        return true;
+    }
+
+    /**
+    Removes every collectible.
+    */
+    public void clear() {
+        for (int i = 0; i < this.size; i++) {
+            this.slots[this.tiles[i]] = -1;
+        }
+        this.size = 0;
+        Arrays.fill(this.bits, 0);
+        Arrays.fill(this.regionCounts, 0);
+    }
+
+    /**
+    Removes the collectible at the tile provided.
+
+    @param index The tile index.
+    @return True if the tile held a collectible, False otherwise.
+    */
+    public boolean remove(int index) {
+        if (!this.contains(index)) {
+            return false;
+        }
+        int slot = this.slots[index];
+        int last = this.tiles[this.size - 1];
+        this.tiles[slot] = last;
+        this.slots[last] = slot;
+        this.slots[index] = -1;
+        this.size--;
+        this.bits[index >>> 6] &= ~(1L << index);
+        this.regionCounts[this.regionOf(index)]--;
+        return true;
+    }
+
+    /**
+    Returns one word of the bitset of remaining collectibles, in which bit i of word w is set if
+    tile (w * 64) + i holds a collectible.
+
+    @param word The word, from 0 to wordCount() - 1.
+    @return The 64 bits of the word.
+    */
+    public long word(int word) {
+        return this.bits[word];
+    }
+
+    /**
+    Returns the number of words in the bitset of remaining collectibles.
+
+    @return The word count, enough for a bit per tile.
+    */
+    public int wordCount() {
+        return this.bits.length;
+    }
+
+    /**
+    Returns the region the tile provided lies in.
+
+    @param index The tile index.
+    @return The region, counted row by row from the top left.
+    */
+    public int regionOf(int index) {
+        int x = index % this.width;
+        int y = index / this.width;
+        return ((y / REGION_SIZE) * this.regionColumns) + (x / REGION_SIZE);
+    }
+
+    /**
+    Returns the number of regions across the map.
+
+    @return The number of region columns.
+    */
+    public int getRegionColumns() {
+        return this.regionColumns;
+    }
+
+    /**
+    Returns the number of regions down the map.
+
+    @return The number of region rows.
+    */
+    public int getRegionRows() {
+        return this.regionRows;
+    }
+
+    /**
+    Returns the number of collectibles remaining in a region.
+
+    @param region The region, as returned by regionOf.
+    @return The number of collectibles.
+    */
+    public int regionCount(int region) {
+        return this.regionCounts[region];
+    }
+
+    /**
+    Returns the remaining collectible closest in a straight line to the tile provided.
+    <p>
+    Searches the regions in rings around the tile's region, only looking at the tiles of regions that
+    still hold a collectible, and stops once no tile in the next ring could be closer than the closest
+    found. Ties go to the first found, so the same state always gives the same answer.
+
+    @param index The tile index to search from.
+    @return The tile index of the closest collectible, or -1 if none remain.
+    */
+    public int nearest(int index) {
+        if (this.size == 0) {
+            return -1;
+        }
+        int x = index % this.width;
+        int y = index / this.width;
+        int regionX = x / REGION_SIZE;
+        int regionY = y / REGION_SIZE;
+        int rings = Math.max(this.regionColumns, this.regionRows);
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int ring = 0; ring <= rings; ring++) {
+            if (ring > 0) {
+                int gap = ((ring - 1) * REGION_SIZE) + 1;
+                if (gap * gap > bestDistance) {
+                    break;
+                }
+            }
+            int top = regionY - ring;
+            int bottom = regionY + ring;
+            for (int row = Math.max(0, top); row <= Math.min(this.regionRows - 1, bottom); row++) {
+                int step = (row == top || row == bottom) ? 1 : Math.max(1, 2 * ring);
+                for (int column = regionX - ring; column <= regionX + ring; column += step) {
+                    if (column < 0 || column >= this.regionColumns
+                            || this.regionCounts[(row * this.regionColumns) + column] == 0) {
+                        continue;
+                    }
+                    int startX = column * REGION_SIZE;
+                    int endX = Math.min(this.width, startX + REGION_SIZE);
+                    int startY = row * REGION_SIZE;
+                    int endY = Math.min(this.height, startY + REGION_SIZE);
+                    for (int tileY = startY; tileY < endY; tileY++) {
+                        for (int tileX = startX; tileX < endX; tileX++) {
+                            int tile = (tileY * this.width) + tileX;
+                            if (tile >= this.slots.length || (this.bits[tile >>> 6] & (1L << tile)) == 0) {
+                                continue;
+                            }
+                            int distance = ((tileX - x) * (tileX - x)) + ((tileY - y) * (tileY - y));
+                            if (distance < bestDistance) {
+                                bestDistance = distance;
+                                best = tile;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+    Returns the remaining collectible the fewest steps away from the tile provided, walking around walls.
+    <p>
+    Runs a breadth first search out from the tile that stops at the first collectible reached, so it
+    only visits the tiles closer than that collectible. Reuses the set's own queue, so nothing is allocated.
+
+    @param tileGrid The grid to walk over, the same one the set was built from.
+    @param index The tile index to search from.
+    @return The tile index of the closest collectible, or -1 if none can be reached.
+    */
+    public int nearestByWalking(TileGrid tileGrid, int index) {
+        if (this.size == 0 || index < 0 || index >= this.slots.length) {
+            return -1;
+        }
+        this.mark++;
+        if (this.mark == 0) {
+            Arrays.fill(this.marks, 0);
+            this.mark = 1;
+        }
+        int mark = this.mark;
+        int head = 0;
+        int tail = 0;
+        this.marks[index] = mark;
+        this.queue[tail++] = index;
+        while (head < tail) {
+            int current = this.queue[head++];
+            if (this.slots[current] >= 0) {
+                return current;
+            }
+            for (int direction = 0; direction < 4; direction++) {
+                int next = tileGrid.neighbour(current, direction);
+                if (next < 0 || this.marks[next] == mark || tileGrid.isWall(next)) {
+                    continue;
+                }
+                this.marks[next] = mark;
+                this.queue[tail++] = next;
+            }
+        }
+        return -1;
+    }
+}
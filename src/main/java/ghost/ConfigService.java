@@ -0,0 +1,156 @@
+package ghost;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+Watches a game's JSON config file and hands every valid change of it to running games.
+<p>
+The file is parsed once per change into an immutable GameConfig, which is validated before anything
+sees it. A file that cannot be parsed or holds invalid settings is rejected with a message saying why,
+and the last good config stays in use, so a half saved or mistyped file never reaches a game.
+Changes are spotted by a WatchService on the file's directory, on a daemon thread that does not
+keep the program running. Listeners are called on that thread, so they should only hand the config
+over, as GameManager.updateConfig does, rather than apply it.
+*/
+public class ConfigService {
+
+    /**
+    The number of milliseconds to wait for an editor to finish writing the file before reading it.
+    */
+    public static final int SETTLE_MILLIS = 100;
+
+    private Path filePath;
+    private volatile GameConfig current;
+    private CopyOnWriteArrayList<Consumer<GameConfig>> listeners;
+    private WatchService watcher;
+    private Thread thread;
+
+    /**
+    Constructs a new ConfigService and reads the config file for the first time.
+    The file is not watched until the service is started.
+
+    @param filePath The file path to the JSON config file.
+    @throws IllegalArgumentException If the file cannot be read or holds invalid settings.
+    */
+    public ConfigService(String filePath) {
+        this.filePath = Paths.get(filePath).toAbsolutePath();
+        this.current = GameConfig.read(filePath);
+        this.listeners = new CopyOnWriteArrayList<Consumer<GameConfig>>();
+        this.watcher = null;
+        this.thread = null;
+    }
+
+    /**
+    Returns the latest valid config read from the file.
+
+    @return The current config.
+    */
+    public GameConfig get() {
+        return this.current;
+    }
+
+    /**
+    Adds a listener to be given each new valid config read from the file.
+
+    @param listener The listener, such as a GameManager's updateConfig method.
+    */
+    public void addListener(Consumer<GameConfig> listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+    Starts watching the config file for changes.
+
+    @return True if the file is being watched, false if its directory could not be watched.
+    */
+    public boolean start() {
+        if (this.thread != null) {
+            return true;
+        }
+        try {
+            this.watcher = this.filePath.getFileSystem().newWatchService();
+            this.filePath.getParent().register(this.watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            return false;
+        }
+        this.thread = new Thread(this::watch, "config-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+        return true;
+    }
+
+    /**
+    Stops watching the config file.
+    */
+    public void stop() {
+        if (this.thread == null) {
+            return;
+        }
+        try {
+            this.watcher.close();
+        } catch (IOException e) {
+            System.err.println("Could not stop watching " + this.filePath + ": " + e.getMessage());
+        }
+        this.thread.interrupt();
+        this.thread = null;
+        this.watcher = null;
+    }
+
+    /**
+    Reads the config file again and, if it is valid and has changed, hands it to every listener.
+    <p>
+    Errors are printed rather than thrown, so a bad edit never stops the game.
+
+    @return True if a new config was handed to the listeners.
+    */
+    public boolean reload() {
+        GameConfig config;
+        try {
+            config = GameConfig.read(this.filePath.toString());
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage() + "; keeping the current settings");
+            return false;
+        }
+        if (config.toJson().equals(this.current.toJson())) {
+            return false;
+        }
+        this.current = config;
+        for (Consumer<GameConfig> listener : this.listeners) {
+            listener.accept(config);
+        }
+        return true;
+    }
+
+    /**
+    Waits for changes to the config file's directory and reloads the config whenever the file changes.
+    <p>
+    Editors often save a file in several writes, so once a change is seen the directory is left
+    to settle and the file is read once for the whole burst.
+    */
+    private void watch() {
+        WatchService watcher = this.watcher;
+        Path fileName = this.filePath.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                boolean changed = false;
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        changed = changed || fileName.equals(event.context());
+                    }
+                    key.reset();
+                    key = watcher.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                if (changed) {
+                    this.reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            return;
+        }
+    }
+}
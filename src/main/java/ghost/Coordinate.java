@@ -3,82 +3,199 @@ package ghost;
 import java.lang.Math;
 
 /**
-A class to represent X and Y coordinates within the game.
+An immutable X and Y coordinate within the game.
+<p>
+Both values are packed into a single long, which is also the coordinate's hash,
+so Coordinates can be compared and used as keys by value.
+Coordinates on the corners of grid spaces are cached by of(), so looking up the position
+of an entity that is aligned with the grid does not allocate.
 */
-public class Coordinate {
+public final class Coordinate {
 
-    private int x;
-    private int y;
+    private static final int CACHE_TILES = 128;
+    private static final Coordinate[] CACHE = new Coordinate[CACHE_TILES * CACHE_TILES];
+
+    private final long packed;
 
     /**
     Constructs a new Coordinate instance.
     <p>
     Takes in the X and Y values relating to it's position in the window.
-    
+    Prefer of(), which reuses the cached instance for grid aligned positions.
+
     @param x The X axis value of the coordinate.
     @param y The Y axis value of the coordinate.
     */
     public Coordinate(int x, int y) {
-        this.x = x;
-        this.y = y;
+        this.packed = Coordinate.pack(x, y);
+    }
+
+    /**
+    Returns the Coordinate with the X and Y values provided.
+    <p>
+    Returns a cached instance if the values lie on the corner of one of the first 128 grid spaces
+    in each direction, and a new instance otherwise. The cache is filled in as it is used;
+    since Coordinates are immutable it is safe to share between games on different threads.
+
+    @param x The X axis value of the coordinate.
+    @param y The Y axis value of the coordinate.
+    @return The coordinate.
+    */
+    public static Coordinate of(int x, int y) {
+        int column = x / TileGrid.TILE_SIZE;
+        int row = y / TileGrid.TILE_SIZE;
+        if ((x | y) < 0 || x % TileGrid.TILE_SIZE != 0 || y % TileGrid.TILE_SIZE != 0
+                || column >= CACHE_TILES || row >= CACHE_TILES) {
+            return new Coordinate(x, y);
+        }
+        int slot = (row * CACHE_TILES) + column;
+        Coordinate cached = CACHE[slot];
+        if (cached == null) {
+            cached = new Coordinate(x, y);
+            CACHE[slot] = cached;
+        }
+        return cached;
+    }
+
+    /**
+    Packs an X and Y value into a single long, X in the upper half and Y in the lower half.
+
+    @param x The X axis value.
+    @param y The Y axis value.
+    @return The packed values.
+    */
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
     }
 
     /**
     Returns the X value of the coordinate.
-    
+
     @return The X axis value of the coordinate.
     */
     public int getX() {
-        return this.x;
+        return (int) (this.packed >> 32);
     }
 
     /**
     Returns the Y value of the coordinate.
-    
+
     @return The Y axis value of the coordinate.
     */
     public int getY() {
-        return this.y;
+        return (int) this.packed;
+    }
+
+    /**
+    Returns the X and Y values of the coordinate packed into a long, as pack() does.
+
+    @return The packed values.
+    */
+    public long toLong() {
+        return this.packed;
     }
 
     /**
     Returns the straight line distance between two coordinates.
-    
+    <p>
+    Rounded down to a whole number. Use distSq() to compare distances.
+
     @param a The first coordinate.
     @param b The second coordinate.
     @return The straight line distance between the two coordinates as an integer.
     */
     public static int eucliDist(Coordinate a, Coordinate b) {
-        int xDistSqr = (a.getX() - b.getX()) * (a.getX() - b.getX());
-        int yDistSqr = (a.getY() - b.getY()) * (a.getY() - b.getY());
-        int dist = (int) Math.sqrt(xDistSqr + yDistSqr);
-        return dist;
+        return (int) Math.sqrt(Coordinate.distSq(a, b));
     }
-    
+
     /**
-    Checks if a different coordinate has the same X and Y values as the instance. 
-    
-    @param coord The coordinate to be compared.
-    @return True if both the coordinates have the same X axis and Y axis values.
+    Returns the straight line distance between two points given by their X and Y values.
+    <p>
+    Rounded down to a whole number. Use distSq() to compare distances.
+
+    @param ax The X axis value of the first point.
+    @param ay The Y axis value of the first point.
+    @param bx The X axis value of the second point.
+    @param by The Y axis value of the second point.
+    @return The straight line distance between the two points as an integer.
+    */
+    public static int eucliDist(int ax, int ay, int bx, int by) {
+        return (int) Math.sqrt(Coordinate.distSq(ax, ay, bx, by));
+    }
+
+    /**
+    Returns the square of the straight line distance between two coordinates.
+
+    @param a The first coordinate.
+    @param b The second coordinate.
+    @return The squared distance between the two coordinates.
+    */
+    public static long distSq(Coordinate a, Coordinate b) {
+        return Coordinate.distSq(a.getX(), a.getY(), b.getX(), b.getY());
+    }
+
+    /**
+    Returns the square of the straight line distance between two points given by their X and Y values.
+    <p>
+    Exact, so unlike eucliDist() two different distances never compare as equal.
+
+    @param ax The X axis value of the first point.
+    @param ay The Y axis value of the first point.
+    @param bx The X axis value of the second point.
+    @param by The Y axis value of the second point.
+    @return The squared distance between the two points.
+    */
+    public static long distSq(int ax, int ay, int bx, int by) {
+        long xDist = (long) ax - bx;
+        long yDist = (long) ay - by;
+        return (xDist * xDist) + (yDist * yDist);
+    }
+
+    /**
+    Checks if a different object is a coordinate with the same X and Y values as the instance.
+
+    @param other The object to be compared.
+    @return True if the object is a coordinate with the same X axis and Y axis values.
         Returns False otherwise.*/
-    public boolean equals(Coordinate coord) {
-        if (this.x == coord.getX() && this.y == coord.getY()) {
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
             return true;
-        } else {
+        }
+        if (!(other instanceof Coordinate)) {
             return false;
         }
+        return this.packed == ((Coordinate) other).packed;
+    }
+
+    /**
+    Returns a hash of the coordinate's X and Y values.
+
+    @return The hash code of the coordinate.
+    */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.packed * 0x9E3779B97F4A7C15L);
     }
 
     /**
-    Converts the coordinate to an integer index value that relates to the 
+    Returns the coordinate as text, in the form "(x, y)".
+
+    @return The coordinate as text.
+    */
+    @Override
+    public String toString() {
+        return "(" + this.getX() + ", " + this.getY() + ")";
+    }
+
+    /**
+    Converts the coordinate to an integer index value that relates to the
     position in a Map objects MapPiece list.
-    
+
+    @param tileGrid The grid the coordinate lies within.
     @return The index at which the coordinate lies within the Map object MapPiece list.
     */
-    public int toIndex() {
-        int x = this.x / 16;
-        int y = this.y / 16;
-        int index = (y * 28) + x;
-        return index;
+    public int toIndex(TileGrid tileGrid) {
+        return tileGrid.indexAt(this.getX(), this.getY());
     }
-}
\ No newline at end of file
+}
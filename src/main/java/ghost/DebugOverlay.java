@@ -0,0 +1,168 @@
+package ghost;
+
+import java.util.ArrayList;
+import processing.core.PApplet;
+
+/**
+A performance display drawn over the game in debug mode.
+<p>
+Shows a graph of the time between recent frames, the number of ticks simulated for each frame,
+the bytes allocated by each frame and how long each Ghost's latest decision took.
+<p>
+Frames are recorded into RingBuffers that are allocated once, so recording costs a few array stores.
+Each frame is recorded before the overlay is drawn, so the overlay's own drawing is never counted
+in the allocation it reports.
+*/
+public class DebugOverlay {
+
+    public static final int HISTORY = 120;
+
+    private static final int LEFT = 8;
+    private static final int TOP = 8;
+    private static final int GRAPH_HEIGHT = 48;
+    private static final int LINE_HEIGHT = 12;
+    private static final String[] GHOST_NAMES = {"Ambusher", "Chaser", "Ignorant", "Whim"};
+
+    private RingBuffer frameNanos;
+    private RingBuffer ticksPerFrame;
+    private RingBuffer allocatedPerFrame;
+    private long lastFrameStart;
+    private boolean recording;
+
+    /**
+    Constructs a new DebugOverlay with no frames recorded.
+    */
+    public DebugOverlay() {
+        this.frameNanos = new RingBuffer(HISTORY);
+        this.ticksPerFrame = new RingBuffer(HISTORY);
+        this.allocatedPerFrame = new RingBuffer(HISTORY);
+        this.lastFrameStart = 0;
+        this.recording = false;
+    }
+
+    /**
+    Records a frame.
+
+    @param frameStart The time the frame started, from System.nanoTime().
+    @param ticks The number of ticks simulated during the frame.
+    @param allocatedBytes The bytes allocated during the frame, or -1 if allocation cannot be counted.
+    */
+    public void recordFrame(long frameStart, int ticks, long allocatedBytes) {
+        if (this.recording) {
+            this.frameNanos.add(frameStart - this.lastFrameStart);
+        }
+        this.lastFrameStart = frameStart;
+        this.recording = true;
+        this.ticksPerFrame.add(ticks);
+        this.allocatedPerFrame.add(allocatedBytes);
+    }
+
+    /**
+    Returns the time between each of the recent frames.
+
+    @return The frame times in nanoseconds.
+    */
+    public RingBuffer getFrameNanos() {
+        return this.frameNanos;
+    }
+
+    /**
+    Returns the number of ticks simulated for each of the recent frames.
+
+    @return The ticks per frame.
+    */
+    public RingBuffer getTicksPerFrame() {
+        return this.ticksPerFrame;
+    }
+
+    /**
+    Returns the bytes allocated by each of the recent frames.
+
+    @return The bytes allocated per frame, -1 where allocation could not be counted.
+    */
+    public RingBuffer getAllocatedPerFrame() {
+        return this.allocatedPerFrame;
+    }
+
+    /**
+    Draws the overlay in the top left corner of the window.
+    <p>
+    The graph is scaled so that twice the target frame time fills its height, with a line at the target.
+    Frames that took more than one and a half times the target are drawn in red.
+
+    @param app The app to draw to.
+    @param gameManager The game being played.
+    */
+    public void draw(PApplet app, GameManager gameManager) {
+        long targetNanos = 1000000000L / gameManager.getFrameRate();
+        int graphWidth = HISTORY * 2;
+        long[] decisionNanos = gameManager.getDecisionNanos();
+        int decisionLines = (decisionNanos == null) ? 0 : decisionNanos.length;
+        int panelHeight = GRAPH_HEIGHT + (LINE_HEIGHT * (3 + decisionLines)) + 12;
+
+        app.noStroke();
+        app.fill(0, 0, 0, 192);
+        app.rect(LEFT - 4, TOP - 4, graphWidth + 8, panelHeight);
+
+        int graphBottom = TOP + GRAPH_HEIGHT;
+        for (int i = 0; i < this.frameNanos.size(); i++) {
+            long nanos = this.frameNanos.get(i);
+            int barHeight = (int) Math.min(GRAPH_HEIGHT, (nanos * GRAPH_HEIGHT) / (2 * targetNanos));
+            if (nanos * 2 > targetNanos * 3) {
+                app.stroke(255, 64, 64);
+            } else {
+                app.stroke(64, 255, 64);
+            }
+            int x = LEFT + (i * 2);
+            app.line(x, graphBottom, x, graphBottom - barHeight);
+        }
+        app.stroke(255, 255, 255);
+        app.line(LEFT, graphBottom - (GRAPH_HEIGHT / 2), LEFT + graphWidth, graphBottom - (GRAPH_HEIGHT / 2));
+
+        app.fill(255, 255, 255);
+        app.textSize(10);
+        int y = graphBottom + LINE_HEIGHT;
+        app.text("frame " + DebugOverlay.millis(this.frameNanos.latest())
+            + " ms  max " + DebugOverlay.millis(this.frameNanos.max()) + " ms", LEFT, y);
+        y += LINE_HEIGHT;
+        app.text("ticks/frame " + this.ticksPerFrame.latest() + "  max " + this.ticksPerFrame.max(), LEFT, y);
+        y += LINE_HEIGHT;
+        if (this.allocatedPerFrame.latest() < 0) {
+            app.text("alloc/frame unavailable", LEFT, y);
+        } else {
+            app.text("alloc/frame " + (this.allocatedPerFrame.latest() / 1024)
+                + " KB  avg " + (long) (this.allocatedPerFrame.mean() / 1024) + " KB", LEFT, y);
+        }
+        for (int i = 0; i < decisionLines; i++) {
+            y += LINE_HEIGHT;
+            app.text(DebugOverlay.decisionLabel(gameManager, i) + " " + (decisionNanos[i] / 1000) + " us", LEFT, y);
+        }
+    }
+
+    /**
+    Returns the label for one of the game's decision times.
+
+    @param gameManager The game being played.
+    @param i The number of the decision time.
+    @return The name of the Ghost the time belongs to, or of the whole swarm.
+    */
+    private static String decisionLabel(GameManager gameManager, int i) {
+        GhostSwarm swarm = gameManager.getSwarm();
+        if (swarm != null) {
+            return "swarm of " + swarm.size();
+        }
+        ArrayList<Ghost> ghosts = gameManager.getGhosts();
+        return i + " " + GHOST_NAMES[GhostSwarm.typeOf(ghosts.get(i))];
+    }
+
+    /**
+    Formats a time in nanoseconds as milliseconds with one decimal place.
+
+    @param nanos The time in nanoseconds.
+    @return The time in milliseconds.
+    */
+    private static String millis(long nanos) {
+        long tenths = nanos / 100000;
+        return (tenths / 10) + "." + (tenths % 10);
+    }
+}
@@ -0,0 +1,98 @@
+package ghost;
+
+/**
+The walking distance from every space in a TileGrid to a single target space.
+<p>
+Filled by a breadth first search out from the target through every space that is not a wall,
+so distances follow the corridors of the map rather than a straight line.
+The target itself may be a wall, in which case the search starts from its open neighbours.
+*/
+public class DistanceField {
+
+    private int target;
+    private int[] distances;
+    private int[] queue;
+    private int lastUsed;
+
+    /**
+    Constructs a new DistanceField sized for the grid provided.
+    <p>
+    The field has no target until it is computed.
+
+    @param tileGrid The grid the field will be computed over.
+    */
+    public DistanceField(TileGrid tileGrid) {
+        this.target = -1;
+        this.distances = new int[tileGrid.size()];
+        this.queue = new int[tileGrid.size()];
+        this.lastUsed = 0;
+    }
+
+    /**
+    Returns the index of the space this field measures distances to.
+
+    @return The target index, or -1 if the field has not been computed.
+    */
+    public int getTarget() {
+        return this.target;
+    }
+
+    /**
+    Returns the tick on which this field was last looked up.
+
+    @return The tick the field was last used.
+    */
+    public int getLastUsed() {
+        return this.lastUsed;
+    }
+
+    /**
+    Records the tick on which this field was looked up.
+
+    @param tick The current tick.
+    */
+    public void setLastUsed(int tick) {
+        this.lastUsed = tick;
+    }
+
+    /**
+    Returns the walking distance from the space provided to the target.
+
+    @param index The index of the grid space.
+    @return The number of steps to the target, or -1 if it cannot be reached.
+    */
+    public int distance(int index) {
+        return this.distances[index];
+    }
+
+    /**
+    Fills the field with the distance from every space to the target provided.
+    <p>
+    Reuses the field's arrays, so nothing is allocated.
+
+    @param tileGrid The grid to search.
+    @param target The index of the target space.
+    */
+    public void compute(TileGrid tileGrid, int target) {
+        this.target = target;
+        for (int i = 0; i < this.distances.length; i++) {
+            this.distances[i] = -1;
+        }
+        int head = 0;
+        int tail = 0;
+        this.distances[target] = 0;
+        this.queue[tail++] = target;
+        while (head < tail) {
+            int current = this.queue[head++];
+            int nextDistance = this.distances[current] + 1;
+            for (int direction = 0; direction < 4; direction++) {
+                int next = tileGrid.neighbour(current, direction);
+                if (next < 0 || this.distances[next] != -1 || tileGrid.isWall(next)) {
+                    continue;
+                }
+                this.distances[next] = nextDistance;
+                this.queue[tail++] = next;
+            }
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package ghost;
 
-import processing.core.PApplet;
-import processing.core.PImage;
+import processing.core.PGraphics;
 
 /**
 Represents an empty space within the map.
@@ -23,15 +22,16 @@ public class EmptyPiece implements MapPiece {
     public EmptyPiece(int x, int y) {
         this.x = x;
         this.y = y;
-        this.coord = new Coordinate(this.x, this.y);
+        this.coord = Coordinate.of(this.x, this.y);
     }
 
     /**
-    Will not draw anything in the app.
+    Will not draw anything to the canvas.
     
-    @param app The app the piece belongs to.
+    @param canvas The surface to draw onto, either the app window or an offscreen layer.
+    @param sprites The atlas holding the game's images.
     */
-    public void draw(PApplet app) {
+    public void draw(PGraphics canvas, SpriteAtlas sprites) {
         return;
     }
 
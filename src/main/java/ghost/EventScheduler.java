@@ -0,0 +1,174 @@
+package ghost;
+
+import java.util.Arrays;
+
+/**
+A priority queue of timed game events, so the game only does work when something is due
+rather than polling counters every tick.
+<p>
+Each kind of event is numbered from 0 and at most one of each kind is pending at a time:
+scheduling an event again moves it to its new time. Events are kept in a binary heap of longs,
+each holding an event's time in its upper bits and its kind in its lower 8 bits, so events due
+at the same time come out in order of their kind and the queue never allocates once it has grown
+to fit every kind.
+*/
+public class EventScheduler {
+
+    private static final int KIND_BITS = 8;
+    private static final long KIND_MASK = (1L << KIND_BITS) - 1;
+
+    private long[] heap;
+    private int size;
+    private long[] due;
+
+    /**
+    Constructs a new, empty EventScheduler.
+
+    @param kinds The number of kinds of event, at most 256.
+    */
+    public EventScheduler(int kinds) {
+        this.heap = new long[Math.max(4, kinds * 2)];
+        this.size = 0;
+        this.due = new long[kinds];
+        Arrays.fill(this.due, -1);
+    }
+
+    /**
+    Schedules an event, replacing any pending event of the same kind.
+
+    @param kind The kind of event.
+    @param time The time the event is due, 0 or above.
+    */
+    public void schedule(int kind, long time) {
+        this.due[kind] = time;
+        if (this.size == this.heap.length) {
+            this.heap = Arrays.copyOf(this.heap, this.heap.length * 2);
+        }
+        int i = this.size;
+        this.size++;
+        long key = (time << KIND_BITS) | kind;
+        while (i > 0 && this.heap[(i - 1) / 2] > key) {
+            this.heap[i] = this.heap[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        this.heap[i] = key;
+    }
+
+    /**
+    Cancels the pending event of the kind provided, if there is one.
+
+    @param kind The kind of event.
+    */
+    public void cancel(int kind) {
+        this.due[kind] = -1;
+    }
+
+    /**
+    Returns the time the pending event of the kind provided is due.
+
+    @param kind The kind of event.
+    @return The time the event is due, or -1 if none is pending.
+    */
+    public long timeOf(int kind) {
+        return this.due[kind];
+    }
+
+    /**
+    Removes and returns the earliest pending event that is due by the time provided.
+    <p>
+    Entries left behind by events that were cancelled or moved are discarded on the way.
+
+    @param now The current time.
+    @return The kind of the event, or -1 if no event is due.
+    */
+    public int poll(long now) {
+        while (this.size > 0) {
+            long key = this.heap[0];
+            long time = key >> KIND_BITS;
+            int kind = (int) (key & KIND_MASK);
+            if (this.due[kind] == time) {
+                if (time > now) {
+                    return -1;
+                }
+                this.removeFirst();
+                this.due[kind] = -1;
+                return kind;
+            }
+            this.removeFirst();
+        }
+        return -1;
+    }
+
+    /**
+    Returns the number of kinds of event.
+
+    @return The number of kinds.
+    */
+    public int kinds() {
+        return this.due.length;
+    }
+
+    /**
+    Writes the time each kind of event is due into an array, -1 for kinds with no pending event.
+
+    @param data The array to write into.
+    @param at The position to start writing at.
+    @return The position after the last value written, one on for each kind.
+    */
+    public int writeTimes(long[] data, int at) {
+        System.arraycopy(this.due, 0, data, at, this.due.length);
+        return at + this.due.length;
+    }
+
+    /**
+    Replaces every pending event with the times written by writeTimes.
+    <p>
+    Events come out of the queue in order of their time and kind alone, so the restored queue
+    hands out events exactly as the one that was written.
+
+    @param data The array to read from.
+    @param at The position to start reading at.
+    @return The position after the last value read.
+    */
+    public int readTimes(long[] data, int at) {
+        this.clear();
+        for (int kind = 0; kind < this.due.length; kind++) {
+            if (data[at + kind] >= 0) {
+                this.schedule(kind, data[at + kind]);
+            }
+        }
+        return at + this.due.length;
+    }
+
+    /**
+    Cancels every pending event.
+    */
+    public void clear() {
+        this.size = 0;
+        Arrays.fill(this.due, -1);
+    }
+
+    /**
+    Removes the entry at the top of the heap.
+    */
+    private void removeFirst() {
+        this.size--;
+        long last = this.heap[this.size];
+        int i = 0;
+        while (true) {
+            int child = (2 * i) + 1;
+            if (child >= this.size) {
+                break;
+            }
+            if (child + 1 < this.size && this.heap[child + 1] < this.heap[child]) {
+                child++;
+            }
+            if (this.heap[child] >= last) {
+                break;
+            }
+            this.heap[i] = this.heap[child];
+            i = child;
+        }
+        this.heap[i] = last;
+    }
+}
@@ -0,0 +1,65 @@
+package ghost;
+
+/**
+Decides how many simulation ticks are due each time a frame is drawn.
+<p>
+Accumulates the real time that has passed between frames and hands it out in whole ticks,
+so the game runs at its configured tick rate no matter how quickly frames are drawn.
+A slow frame is caught up on the next one, up to a limit, instead of slowing the game down.
+Time beyond that limit is dropped so a long stall cannot snowball into ever longer frames.
+*/
+public class FixedTimestep {
+
+    private long tickNanos;
+    private int maxTicksPerFrame;
+    private long accumulator;
+    private long lastTime;
+    private boolean started;
+
+    /**
+    Constructs a new FixedTimestep.
+
+    @param tickRate The number of ticks to run per second.
+    @param maxTicksPerFrame The most ticks to run for a single frame when catching up.
+    */
+    public FixedTimestep(int tickRate, int maxTicksPerFrame) {
+        this.tickNanos = 1000000000L / tickRate;
+        this.maxTicksPerFrame = maxTicksPerFrame;
+        this.accumulator = 0;
+        this.lastTime = 0;
+        this.started = false;
+    }
+
+    /**
+    Returns the length of a single tick.
+
+    @return The length of a tick in nanoseconds.
+    */
+    public long getTickNanos() {
+        return this.tickNanos;
+    }
+
+    /**
+    Returns the number of ticks that should be run for the frame being drawn.
+    <p>
+    The first call only starts the clock and returns 0.
+
+    @param now The current time in nanoseconds, as given by System.nanoTime, which may be negative.
+    @return The number of ticks to run before drawing.
+    */
+    public int advance(long now) {
+        if (!this.started) {
+            this.lastTime = now;
+            this.started = true;
+            return 0;
+        }
+        this.accumulator += now - this.lastTime;
+        this.lastTime = now;
+        int ticks = (int) Math.min(this.accumulator / this.tickNanos, this.maxTicksPerFrame);
+        this.accumulator -= ticks * this.tickNanos;
+        if (ticks == this.maxTicksPerFrame && this.accumulator >= this.tickNanos) {
+            this.accumulator = 0;
+        }
+        return ticks;
+    }
+}
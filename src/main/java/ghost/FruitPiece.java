@@ -1,7 +1,6 @@
 package ghost;
 
-import processing.core.PApplet;
-import processing.core.PImage;
+import processing.core.PGraphics;
 
 /**
 Represents one of three collectable objects on the map.
@@ -13,30 +12,31 @@ public class FruitPiece implements MapPiece {
 
     private int x;
     private int y;
-    private PImage sprite;
+    private int sprite;
     private Coordinate coord;
 
     /**
     Constructs a new FruitPiece instance.
     
-    @param sprite The image of the fruit to be drawn.
+    @param sprite The sprite ID of the fruit to be drawn.
     @param x The X axis position of the piece.
     @param y The Y axis position of the piece.
     */
-    public FruitPiece(PImage sprite, int x, int y) {
+    public FruitPiece(int sprite, int x, int y) {
         this.sprite = sprite;
         this.x = x;
         this.y = y;
-        this.coord = new Coordinate(this.x, this.y);
+        this.coord = Coordinate.of(this.x, this.y);
     }
 
     /**
-    Draws this pieces sprite to the app window.
+    Draws this pieces sprite to the canvas provided.
     
-    @param app The app the piece belongs to.
+    @param canvas The surface to draw onto, either the app window or an offscreen layer.
+    @param sprites The atlas holding the piece's image.
     */
-    public void draw(PApplet app) {
-        app.image(this.sprite, this.x, this.y);
+    public void draw(PGraphics canvas, SpriteAtlas sprites) {
+        canvas.image(sprites.get(this.sprite), this.x, this.y);
     }
 
     /**
@@ -0,0 +1,440 @@
+package ghost;
+
+import java.io.*;
+import org.json.simple.*;
+import org.json.simple.parser.*;
+
+/**
+The settings for a game, as read from its JSON config file.
+<p>
+Cannot be changed once created, so a single instance can be shared by any number of games
+running on different threads. Lengths are kept in seconds; the GameManager converts them
+to ticks using the tick rate.
+*/
+public class GameConfig {
+
+    private final String mapFilePath;
+    private final int lives;
+    private final int speed;
+    private final int frightenedLength;
+    private final int[] modeLengths;
+    private final String pathfinding;
+    private final int tickRate;
+    private final int frameRate;
+    private final boolean uncapped;
+    private final String replayDirectory;
+    private final int swarmSize;
+    private final String metricsFile;
+    private final int metricsInterval;
+
+    /**
+    Constructs a new GameConfig.
+
+    @param mapFilePath The file path to the map's text file.
+    @param lives The number of lives the player starts with.
+    @param speed The number of pixels moved by the Waka and Ghosts each tick.
+    @param frightenedLength The number of seconds the Ghosts stay frightened.
+    @param modeLengths The number of seconds spent in each alternating Scatter and Chase mode.
+    @param pathfinding How the Ghosts steer towards their targets, "bfs" or "euclidean".
+    @param tickRate The number of ticks simulated per second.
+    @param frameRate The number of frames drawn per second.
+    @param uncapped Whether the App simulates as fast as it can between frames.
+    @param replayDirectory The directory the App saves a replay of each game to, or null to not record.
+    @param swarmSize The number of Ghosts in swarm mode, or 0 to play with the map's own Ghosts.
+    @param metricsFile The file the App writes its metrics to, or null to not record metrics.
+    @param metricsInterval The number of seconds between each write of the metrics.
+    */
+    public GameConfig(String mapFilePath, int lives, int speed, int frightenedLength, int[] modeLengths,
+            String pathfinding, int tickRate, int frameRate, boolean uncapped, String replayDirectory,
+            int swarmSize, String metricsFile, int metricsInterval) {
+        this.mapFilePath = mapFilePath;
+        this.lives = lives;
+        this.speed = speed;
+        this.frightenedLength = frightenedLength;
+        this.modeLengths = modeLengths.clone();
+        this.pathfinding = pathfinding;
+        this.tickRate = tickRate;
+        this.frameRate = frameRate;
+        this.uncapped = uncapped;
+        this.replayDirectory = replayDirectory;
+        this.swarmSize = swarmSize;
+        this.metricsFile = metricsFile;
+        this.metricsInterval = metricsInterval;
+    }
+
+    /**
+    Reads a GameConfig from the JSON file provided.
+    <p>
+    The "tickRate" and "frameRate" settings default to 60, "pathfinding" to "euclidean"
+    and "uncapped" to false if they are missing. Games are only recorded if "replayDirectory" is set,
+    and swarm mode is off unless "swarmSize" is above 0. Metrics are only recorded if "metricsFile" is set,
+    and are written every 10 seconds unless "metricsInterval" says otherwise.
+
+    @param filePath The file path to the JSON file.
+    @return The config read from the file, or null if it could not be read or is not valid.
+    */
+    public static GameConfig load(String filePath) {
+        try {
+            return GameConfig.read(filePath);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+    Reads and validates a GameConfig from the JSON file provided, with the same defaults as load.
+
+    @param filePath The file path to the JSON file.
+    @return The config read from the file.
+    @throws IllegalArgumentException If the file cannot be read, is not valid JSON or holds invalid settings,
+    with a message saying which.
+    */
+    public static GameConfig read(String filePath) {
+        Object obj;
+        try (FileReader reader = new FileReader(filePath)) {
+            obj = new JSONParser().parse(reader);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read config file " + filePath + ": " + e.getMessage());
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Config file " + filePath + " is not valid JSON: " + e);
+        }
+        if (!(obj instanceof JSONObject)) {
+            throw new IllegalArgumentException("Config file " + filePath + " must hold a JSON object");
+        }
+        GameConfig config;
+        try {
+            config = GameConfig.fromJson((JSONObject) obj);
+            config.validate();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Config file " + filePath + " is invalid: " + e.getMessage());
+        }
+        return config;
+    }
+
+    /**
+    Reads a GameConfig from JSON text, such as that returned by toJson.
+
+    @param json The JSON text.
+    @return The config the text describes.
+    @throws ParseException If the text is not valid JSON.
+    @throws IllegalArgumentException If a setting is missing or has the wrong type.
+    */
+    public static GameConfig parse(String json) throws ParseException {
+        return GameConfig.fromJson((JSONObject) new JSONParser().parse(json));
+    }
+
+    /**
+    Creates a GameConfig from a parsed JSON object.
+
+    @param configJson The JSON object holding the settings.
+    @return The config the object describes.
+    @throws IllegalArgumentException If a setting is missing or has the wrong type.
+    */
+    public static GameConfig fromJson(JSONObject configJson) {
+        Object modeLengthsValue = configJson.get("modeLengths");
+        if (!(modeLengthsValue instanceof JSONArray)) {
+            throw new IllegalArgumentException("\"modeLengths\" must be a list of whole numbers");
+        }
+        JSONArray modeLengthsJson = (JSONArray) modeLengthsValue;
+        int[] modeLengths = new int[modeLengthsJson.size()];
+        for (int i = 0; i < modeLengths.length; i++) {
+            if (!(modeLengthsJson.get(i) instanceof Long)) {
+                throw new IllegalArgumentException("\"modeLengths\" must be a list of whole numbers");
+            }
+            modeLengths[i] = (int) (long) modeLengthsJson.get(i);
+        }
+        String pathfinding = GameConfig.readString(configJson, "pathfinding");
+        if (pathfinding == null) {
+            pathfinding = "euclidean";
+        }
+        String mapFilePath = GameConfig.readString(configJson, "map");
+        if (mapFilePath == null) {
+            throw new IllegalArgumentException("\"map\" is missing");
+        }
+        return new GameConfig(
+            mapFilePath,
+            GameConfig.requireInt(configJson, "lives"),
+            GameConfig.requireInt(configJson, "speed"),
+            GameConfig.requireInt(configJson, "frightenedLength"),
+            modeLengths,
+            pathfinding,
+            GameConfig.readInt(configJson, "tickRate", 60),
+            GameConfig.readInt(configJson, "frameRate", 60),
+            Boolean.TRUE.equals(configJson.get("uncapped")),
+            GameConfig.readString(configJson, "replayDirectory"),
+            GameConfig.readInt(configJson, "swarmSize", 0),
+            GameConfig.readString(configJson, "metricsFile"),
+            GameConfig.readInt(configJson, "metricsInterval", 10));
+    }
+
+    /**
+    Checks that every setting is in range, so a game never starts with settings it cannot play.
+    <p>
+    The speed must divide the 16 pixel tile size, or the Waka and Ghosts would never line up with a tile
+    again, and the pathfinding must be "bfs" or "euclidean".
+
+    @throws IllegalArgumentException If any setting is out of range, with a message listing each one.
+    */
+    public void validate() {
+        StringBuilder problems = new StringBuilder();
+        if (this.mapFilePath.isEmpty()) {
+            GameConfig.addProblem(problems, "\"map\" must not be empty");
+        } else if (!new File(this.mapFilePath).isFile()) {
+            GameConfig.addProblem(problems, "\"map\" file " + this.mapFilePath + " does not exist");
+        }
+        if (this.lives < 1) {
+            GameConfig.addProblem(problems, "\"lives\" must be at least 1, was " + this.lives);
+        }
+        if (this.speed < 1 || this.speed > TileGrid.TILE_SIZE || TileGrid.TILE_SIZE % this.speed != 0) {
+            GameConfig.addProblem(problems, "\"speed\" must be 1, 2, 4, 8 or 16, was " + this.speed);
+        }
+        if (this.frightenedLength < 0) {
+            GameConfig.addProblem(problems, "\"frightenedLength\" must not be negative, was " + this.frightenedLength);
+        }
+        for (int i = 0; i < this.modeLengths.length; i++) {
+            if (this.modeLengths[i] < 0) {
+                GameConfig.addProblem(problems, "\"modeLengths\" must not be negative, was " + this.modeLengths[i]);
+                break;
+            }
+        }
+        if (!this.pathfinding.equals("bfs") && !this.pathfinding.equals("euclidean")) {
+            GameConfig.addProblem(problems, "\"pathfinding\" must be \"bfs\" or \"euclidean\", was \""
+                + this.pathfinding + "\"");
+        }
+        if (this.tickRate < 1) {
+            GameConfig.addProblem(problems, "\"tickRate\" must be at least 1, was " + this.tickRate);
+        }
+        if (this.frameRate < 1) {
+            GameConfig.addProblem(problems, "\"frameRate\" must be at least 1, was " + this.frameRate);
+        }
+        if (this.swarmSize < 0) {
+            GameConfig.addProblem(problems, "\"swarmSize\" must not be negative, was " + this.swarmSize);
+        }
+        if (this.metricsInterval < 1) {
+            GameConfig.addProblem(problems, "\"metricsInterval\" must be at least 1, was " + this.metricsInterval);
+        }
+        if (problems.length() > 0) {
+            throw new IllegalArgumentException(problems.toString());
+        }
+    }
+
+    /**
+    Adds a problem to a list of problems separated by semicolons.
+
+    @param problems The problems found so far.
+    @param problem The problem to add.
+    */
+    private static void addProblem(StringBuilder problems, String problem) {
+        if (problems.length() > 0) {
+            problems.append("; ");
+        }
+        problems.append(problem);
+    }
+
+    /**
+    Reads a required whole number from a JSON object.
+
+    @param configJson The JSON object to read from.
+    @param key The name of the setting.
+    @return The setting's value.
+    @throws IllegalArgumentException If the setting is missing or is not a whole number.
+    */
+    private static int requireInt(JSONObject configJson, String key) {
+        if (configJson.get(key) == null) {
+            throw new IllegalArgumentException("\"" + key + "\" is missing");
+        }
+        return GameConfig.readInt(configJson, key, 0);
+    }
+
+    /**
+    Reads an optional whole number from a JSON object.
+
+    @param configJson The JSON object to read from.
+    @param key The name of the setting.
+    @param defaultValue The value to use if the setting is missing.
+    @return The setting's value, or the default if it is missing.
+    @throws IllegalArgumentException If the setting is not a whole number.
+    */
+    private static int readInt(JSONObject configJson, String key, int defaultValue) {
+        Object value = configJson.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!(value instanceof Long) || (long) value != (int) (long) value) {
+            throw new IllegalArgumentException("\"" + key + "\" must be a whole number, was " + value);
+        }
+        return (int) (long) value;
+    }
+
+    /**
+    Reads an optional string from a JSON object.
+
+    @param configJson The JSON object to read from.
+    @param key The name of the setting.
+    @return The setting's value, or null if it is missing.
+    @throws IllegalArgumentException If the setting is not a string.
+    */
+    private static String readString(JSONObject configJson, String key) {
+        Object value = configJson.get(key);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException("\"" + key + "\" must be a string, was " + value);
+        }
+        return (String) value;
+    }
+
+    /**
+    Returns the file path to the map's text file.
+
+    @return The map's file path.
+    */
+    public String getMapFilePath() {
+        return this.mapFilePath;
+    }
+
+    /**
+    Returns the number of lives the player starts with.
+
+    @return The starting number of lives.
+    */
+    public int getLives() {
+        return this.lives;
+    }
+
+    /**
+    Returns the number of pixels moved by the Waka and Ghosts each tick.
+
+    @return The movement speed.
+    */
+    public int getSpeed() {
+        return this.speed;
+    }
+
+    /**
+    Returns the number of seconds the Ghosts stay frightened.
+
+    @return The frightened length in seconds.
+    */
+    public int getFrightenedLength() {
+        return this.frightenedLength;
+    }
+
+    /**
+    Returns the number of seconds spent in each mode, starting with Scatter and alternating with Chase.
+
+    @return A copy of the mode lengths in seconds.
+    */
+    public int[] getModeLengths() {
+        return this.modeLengths.clone();
+    }
+
+    /**
+    Returns how the Ghosts steer towards their targets.
+
+    @return "bfs" for shortest path steering, otherwise straight line steering.
+    */
+    public String getPathfinding() {
+        return this.pathfinding;
+    }
+
+    /**
+    Returns the number of ticks simulated per second.
+
+    @return The tick rate.
+    */
+    public int getTickRate() {
+        return this.tickRate;
+    }
+
+    /**
+    Returns the number of frames drawn per second.
+
+    @return The frame rate.
+    */
+    public int getFrameRate() {
+        return this.frameRate;
+    }
+
+    /**
+    Returns whether the App simulates as fast as it can between frames.
+
+    @return True if uncapped, False otherwise.
+    */
+    public boolean isUncapped() {
+        return this.uncapped;
+    }
+
+    /**
+    Returns the directory the App saves a replay of each game to.
+
+    @return The replay directory, or null if games are not recorded.
+    */
+    public String getReplayDirectory() {
+        return this.replayDirectory;
+    }
+
+    /**
+    Returns the number of Ghosts in swarm mode.
+    <p>
+    In swarm mode the Ghosts are kept in a GhostSwarm, and the map's Ghosts are repeated in turn
+    until there are this many.
+
+    @return The swarm size, or 0 if swarm mode is off.
+    */
+    public int getSwarmSize() {
+        return this.swarmSize;
+    }
+
+    /**
+    Returns the file the App writes its metrics to.
+    <p>
+    Metrics are written as JSON if the file name ends in ".json" and as CSV otherwise.
+
+    @return The metrics file, or null if metrics are not recorded.
+    */
+    public String getMetricsFile() {
+        return this.metricsFile;
+    }
+
+    /**
+    Returns the number of seconds between each write of the metrics.
+
+    @return The metrics interval.
+    */
+    public int getMetricsInterval() {
+        return this.metricsInterval;
+    }
+
+    /**
+    Returns the config as JSON text, in the same form as the config file.
+
+    @return The JSON text of the config.
+    */
+    @SuppressWarnings("unchecked")
+    public String toJson() {
+        JSONObject configJson = new JSONObject();
+        JSONArray modeLengthsJson = new JSONArray();
+        for (int i = 0; i < this.modeLengths.length; i++) {
+            modeLengthsJson.add((long) this.modeLengths[i]);
+        }
+        configJson.put("map", this.mapFilePath);
+        configJson.put("lives", (long) this.lives);
+        configJson.put("speed", (long) this.speed);
+        configJson.put("frightenedLength", (long) this.frightenedLength);
+        configJson.put("modeLengths", modeLengthsJson);
+        configJson.put("pathfinding", this.pathfinding);
+        configJson.put("tickRate", (long) this.tickRate);
+        configJson.put("frameRate", (long) this.frameRate);
+        configJson.put("uncapped", this.uncapped);
+        if (this.replayDirectory != null) {
+            configJson.put("replayDirectory", this.replayDirectory);
+        }
+        if (this.swarmSize > 0) {
+            configJson.put("swarmSize", (long) this.swarmSize);
+        }
+        if (this.metricsFile != null) {
+            configJson.put("metricsFile", this.metricsFile);
+            configJson.put("metricsInterval", (long) this.metricsInterval);
+        }
+        return configJson.toJSONString();
+    }
+}
@@ -1,29 +1,60 @@
 package ghost;
 
 import java.util.*;
-import java.io.*;
-import org.json.simple.*;
-import org.json.simple.parser.*;
-import processing.core.PImage;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
-Manages all of the logic and variables required for the game app to run properly.
+Manages all of the logic and variables required for the game to run properly.
+<p>
+Holds the complete state of a single game and advances it one step at a time.
+Has no dependency on the Processing library, so games can be simulated without a window;
+the App only reads this state to draw it.
 */
 public class GameManager {
 
-    private App app;
+    public static final int SCATTER = 0;
+    public static final int CHASE = 1;
+
+    public static final int MODE_CHANGE = 0;
+    public static final int FRIGHTEN_END = 1;
+    public static final int WAVY_END = 2;
+    public static final int END_GAME_RESET = 3;
+
+    private static final int SNAPSHOT_HEADER = 11;
+
+    private Map map;
     private Waka waka;
     private ArrayList<Ghost> ghosts;
+    private GhostSwarm swarm;
+    private int swarmSize;
     private ArrayList<MapPiece> mapPieces;
-    private int wakaCounter;
+    private TileGrid tileGrid;
+    private CollectibleSet collectibles;
+    private MapPiece[] pristinePieces;
+    private MapPiece[] emptyPieces;
+    private byte[] pristineTiles;
+    private CollectibleSet pristineCollectibles;
+    private SpatialHash spatialHash;
+    private int[] nearby;
+    private PathFinder pathFinder;
+    private String pathfinding;
+    private GameConfig config;
+    private AtomicReference<GameConfig> pendingConfig;
+    private GameRandom random;
+    private GameMetrics metrics;
+    private long[] decisionNanos;
     private int counter;
-    private int frightenCount;
+    private EventScheduler events;
+    private int mode;
+    private int modeIndex;
     private int frightenedLength;
-    private int endGameCounter;
     private boolean frightened;
     private boolean wavyGhost;
-    private int wavyCount;
     private int wavyLength;
+    private int endGameLength;
+    private int tickRate;
+    private int frameRate;
+    private boolean uncapped;
     private int speed;
     private int lastKey;
     private int newKey;
@@ -32,42 +63,124 @@ public class GameManager {
     private String mapFilePath;
     private int fruitCount;
     private boolean endGame;
-    private boolean debug;
-    private boolean firstPress;
     private int deadGhosts;
 
     /**
     Constructs a new GameManager object.
+    <p>
+    Reads the provided config file and builds the map, Waka and Ghosts it describes.
+    The game's random choices are seeded from the current time.
 
-    @param app The App object this instance reports to.
+    @param configFilePath The file path to the game's JSON config file.
+    @throws IllegalArgumentException If the config file cannot be read or holds invalid settings.
     */
-    public GameManager(App app) {
-        this.app = app;
-        this.wakaCounter = 0;
+    public GameManager(String configFilePath) {
+        this(GameConfig.read(configFilePath), System.nanoTime());
+    }
+
+    /**
+    Constructs a new GameManager object from an already loaded config and builds the map,
+    Waka and Ghosts it describes.
+    <p>
+    Does not read the config file, so many games can share one config.
+    Two games made with the same config and seed, and given the same input, play out identically.
+
+    @param config The settings for the game.
+    @param seed The seed for the game's random choices.
+    */
+    public GameManager(GameConfig config, long seed) {
+        this.pendingConfig = new AtomicReference<GameConfig>();
+        this.random = new GameRandom(seed);
+        this.metrics = GameMetrics.disabled();
+        this.decisionNanos = null;
         this.counter = 0;
-        this.frightenCount = 0;
-        this.endGameCounter = 0;
+        this.events = new EventScheduler(4);
         this.frightened = false;
         this.wavyGhost = false;
-        this.wavyCount = 0;
-        this.wavyLength = 300;
         this.lastKey = 37;
         this.newKey = 0;
-        this.readJson("config.json");
+        this.applyConfig(config);
         this.fruitCount = 0;
         this.endGame = false;
-        this.debug = false;
-        this.firstPress = false;
         this.deadGhosts = 0;
+        this.map = new Map(this.mapFilePath);
+        this.buildLevel();
+        this.startModes();
     }
 
     /**
-    Returns the App object for this instance.
+    Returns the random number generator all of the game's random choices are made with.
     
-    @return The App object for this instance.
+    @return The game's GameRandom.
+    */
+    public GameRandom getRandom() {
+        return this.random;
+    }
+
+    /**
+    Returns the metrics the game records its timings and events in.
+    
+    @return The game's GameMetrics, which records nothing unless metrics have been set.
+    */
+    public GameMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+    Sets the metrics the game records its timings and events in.
+    
+    @param metrics The GameMetrics to record in, or GameMetrics.disabled() to record nothing.
+    */
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+    Turns timing each Ghost's decisions on or off.
+    <p>
+    Timing reads the clock twice for every decision, so it is off unless the debug overlay is showing.
+
+    @param timed Whether to time the Ghosts' decisions.
     */
-    public App getApp() {
-        return this.app;
+    public void setDecisionTiming(boolean timed) {
+        if (!timed) {
+            this.decisionNanos = null;
+        } else if (this.decisionNanos == null) {
+            this.decisionNanos = new long[this.decisionSlots()];
+        }
+    }
+
+    /**
+    Returns how long each Ghost's latest decision took.
+    <p>
+    In swarm mode there is a single entry, the time taken to update the whole GhostSwarm.
+
+    @return The time of each Ghost's latest decision in nanoseconds, in the order of the Ghost list,
+        or null if decisions are not being timed.
+    */
+    public long[] getDecisionNanos() {
+        return this.decisionNanos;
+    }
+
+    /**
+    Returns the number of decision times kept for the current level.
+
+    @return 1 in swarm mode, the number of Ghosts otherwise.
+    */
+    private int decisionSlots() {
+        if (this.swarm != null) {
+            return 1;
+        }
+        return this.ghosts.size();
+    }
+
+    /**
+    Returns the settings the game is currently using.
+    
+    @return The game's GameConfig.
+    */
+    public GameConfig getConfig() {
+        return this.config;
     }
 
     /**
@@ -79,6 +192,45 @@ public class GameManager {
         return this.counter;
     }
 
+    /**
+    Returns the number of ticks simulated per second of game time.
+    <p>
+    Every duration in the config is given in seconds and converted to ticks at this rate.
+    
+    @return The simulation tick rate.
+    */
+    public int getTickRate() {
+        return this.tickRate;
+    }
+
+    /**
+    Returns the number of frames the App should try to draw each second.
+    
+    @return The render frame rate.
+    */
+    public int getFrameRate() {
+        return this.frameRate;
+    }
+
+    /**
+    Returns whether the App should simulate as many ticks as it can between frames,
+    rather than keeping to the tick rate.
+    
+    @return True if the simulation is uncapped, False otherwise.
+    */
+    public boolean isUncapped() {
+        return this.uncapped;
+    }
+
+    /**
+    Returns the Map object for this instance.
+    
+    @return The Map object for this instance.
+    */
+    public Map getMap() {
+        return this.map;
+    }
+
     /**
     Returns the Waka object for this instance.
     
@@ -88,6 +240,33 @@ public class GameManager {
         return this.waka;
     }
 
+    /**
+    Returns the list of Ghosts in the game.
+    
+    @return The list of Ghosts in the game.
+    */
+    public ArrayList<Ghost> getGhosts() {
+        return this.ghosts;
+    }
+
+    /**
+    Returns the GhostSwarm for this instance.
+    
+    @return The GhostSwarm holding the game's Ghosts, or null if they are separate Ghost objects.
+    */
+    public GhostSwarm getSwarm() {
+        return this.swarm;
+    }
+
+    /**
+    Returns the number of pixels the Waka and Ghosts move each tick.
+    
+    @return The speed of the game.
+    */
+    public int getSpeed() {
+        return this.speed;
+    }
+
     /**
     Returns whether the Ghosts are currently frightened.
     
@@ -97,6 +276,37 @@ public class GameManager {
         return this.frightened;
     }
 
+    /**
+    Returns the number of ticks left until the Ghosts stop being frightened.
+
+    @return The ticks left, or 0 if the Ghosts are not frightened.
+    */
+    public int getFrightenedTicksLeft() {
+        long end = this.events.timeOf(FRIGHTEN_END);
+        if (!this.frightened || end < 0) {
+            return 0;
+        }
+        return Math.max(0, (int) (end / 2) - this.counter);
+    }
+
+    /**
+    Returns whether the Ghosts are currently wavy.
+
+    @return True if the Ghosts are currently wavy.
+    */
+    public boolean isWavy() {
+        return this.wavyGhost;
+    }
+
+    /**
+    Returns the number of Ghosts in Ghost jail, which is emptied whenever the Waka loses a life.
+
+    @return The number of jailed Ghosts.
+    */
+    public int getDeadGhosts() {
+        return this.deadGhosts;
+    }
+
     /**
     Returns the current amount of fruit the player has collected.
     
@@ -107,12 +317,30 @@ public class GameManager {
     }
 
     /**
-    Retrieves the Waka, Ghosts and MapPieces from the instance's App object.
+    Returns the number of lives the player has remaining.
+    
+    @return The number of lives the player has remaining.
+    */
+    public int getLives() {
+        return this.lives;
+    }
+
+    /**
+    Returns whether the game has finished and the endgame screen is showing.
+    
+    @return True if the game has been won or lost, False otherwise.
     */
-    public void getApptributes() {
-        this.waka = this.app.getWaka();
-        this.ghosts = this.app.getGhosts();
-        this.mapPieces = this.app.getMapPieces();
+    public boolean isEndGame() {
+        return this.endGame;
+    }
+
+    /**
+    Returns whether the player has collected every fruit on the map.
+    
+    @return True if the player has won, False otherwise.
+    */
+    public boolean hasWon() {
+        return this.fruitCount == this.map.getFruitCount();
     }
 
     /**
@@ -134,37 +362,278 @@ public class GameManager {
     }
 
     /**
-    Controls the flow of logic for each instance.
+    Returns the grid of tile types for the game.
+    
+    @return The game's TileGrid.
+    */
+    public TileGrid getTileGrid() {
+        return this.tileGrid;
+    }
+
+    /**
+    Returns the set of fruit, super fruit and soda cans still left to collect.
+
+    @return The game's CollectibleSet.
+    */
+    public CollectibleSet getCollectibles() {
+        return this.collectibles;
+    }
+
+    /**
+    Returns the PathFinder Ghosts steer with when breadth first pathfinding is enabled.
+    
+    @return The game's PathFinder, or null if Ghosts steer by straight line distance.
+    */
+    public PathFinder getPathFinder() {
+        return this.pathFinder;
+    }
+
+    /**
+    Advances the game by a single step.
     <p>
-    Calls every method needed to properly run the game app.
-    Will move the Waka, all Ghosts, check if Fruit has been collected, check if the 
+    Will first swap in any config given to updateConfig since the last tick, then move the Waka, all Ghosts, check if Fruit has been collected, check if the 
     Ghosts are frightened or "Wavy", check if there is any collision between any Ghost and
-    the Waka, draw all elements of the system, increment all counters within the instance,
-    read in the input from the user (checking if debug mode is active) and finally checks
-    if the player has won or lost this game.
+    the Waka, increment all counters within the instance, read in the input provided
+    and finally checks if the player has won or lost this game.
+    Nothing is drawn; the App renders the resulting state separately.
+    Each phase, the whole tick and the bytes it allocated are recorded in the game's GameMetrics.
+
+    @param key The key code currently held by the player, or 0 if none.
     */
-    public void draw() {
-        this.getApptributes();
-        List<Integer> keyCodes = new ArrayList<Integer>(Arrays.asList(37, 38, 39, 40));
+    public void tick(int key) {
+        GameMetrics metrics = this.metrics;
+        long allocated = metrics.allocatedBytes();
+        long tickStart = metrics.start();
+        if (this.pendingConfig.get() != null) {
+            this.applyPendingConfig();
+        }
         if (!this.endGame) {
+            long phaseStart = tickStart;
             this.moveWaka();
+            phaseStart = metrics.lap(GameMetrics.MOVE_WAKA, phaseStart);
             this.moveGhosts();
+            phaseStart = metrics.lap(GameMetrics.MOVE_GHOSTS, phaseStart);
             this.fruitCheck();
-            this.checkFrightenEnd();
-            this.checkWavyEnd();
+            phaseStart = metrics.lap(GameMetrics.FRUIT_CHECK, phaseStart);
+            this.runEvents(GameManager.duringTick(this.counter));
+            phaseStart = metrics.start();
             this.checkCollision();
-            this.drawMap();
-            this.drawWaka();
-            this.drawGhosts();
-            this.drawLives();
+            metrics.lap(GameMetrics.CHECK_COLLISION, phaseStart);
         }
         this.incrementCount();
-        int key = this.app.keyCode;
-        if (keyCodes.contains(key)) {
+        if (key >= 37 && key <= 40) {
             this.newKey = key;
-        } 
-        this.debuggerCheck(key);
+        }
         this.checkWinOrLoss();
+        this.runEvents(GameManager.afterTick(this.counter));
+        if (metrics.isEnabled()) {
+            metrics.count(GameMetrics.TICKS);
+            metrics.lap(GameMetrics.TICK, tickStart);
+            metrics.recordAllocation(allocated);
+        }
+    }
+
+    /**
+    Builds a fresh set of MapPieces, a new Waka and new Ghosts from the map.
+    <p>
+    Keeps a snapshot of the untouched level, so restoreLevel can later put it back without building it again,
+    and makes the EmptyPiece that replaces each collectible once it is collected.
+    */
+    public void buildLevel() {
+        this.mapPieces = this.map.makeMapPieces();
+        this.tileGrid = this.map.getTileGrid();
+        this.pristinePieces = this.mapPieces.toArray(new MapPiece[0]);
+        this.pristineTiles = this.tileGrid.copyTiles();
+        this.pristineCollectibles = new CollectibleSet(this.tileGrid);
+        this.emptyPieces = new MapPiece[this.tileGrid.size()];
+        for (int n = 0; n < this.pristineCollectibles.size(); n++) {
+            int index = this.pristineCollectibles.get(n);
+            this.emptyPieces[index] = new EmptyPiece(this.tileGrid.tileX(index), this.tileGrid.tileY(index));
+        }
+        this.collectibles = new CollectibleSet(this.tileGrid);
+        if ("bfs".equals(this.pathfinding)) {
+            this.pathFinder = new PathFinder(this.tileGrid);
+        } else {
+            this.pathFinder = null;
+        }
+        Coordinate playerStart = this.map.getPlayerStart();
+        this.waka = new Waka(SpriteAtlas.PLAYER_LEFT, SpriteAtlas.PLAYER_CLOSED, playerStart.getX(), playerStart.getY());
+        this.ghosts = this.map.getGhosts();
+        if (this.swarmSize > 0) {
+            this.swarm = new GhostSwarm(this.ghosts, this.swarmSize);
+            this.ghosts = new ArrayList<Ghost>();
+        } else {
+            this.swarm = null;
+        }
+        this.spatialHash = new SpatialHash(this.tileGrid, this.ghosts.size() + 1);
+        this.nearby = new int[this.spatialHash.getCapacity()];
+        for (int i = 0; i < this.ghosts.size(); i++) {
+            this.ghosts.get(i).track(this.spatialHash, i);
+        }
+        this.waka.track(this.spatialHash, this.ghosts.size());
+        if (this.decisionNanos != null) {
+            this.decisionNanos = new long[this.decisionSlots()];
+        }
+        this.lastKey = 37;
+        this.newKey = 0;
+    }
+
+    /**
+    Puts the level back to how buildLevel left it, reusing its MapPieces, Waka, Ghosts and grids.
+    <p>
+    Only the collectibles can change during a game, so only their tiles and MapPieces are restored from
+    the snapshot taken by buildLevel, and the Waka and Ghosts are moved back to their starting positions.
+    Nothing is read from a file or allocated, and the result plays out exactly as a newly built level.
+    Falls back to buildLevel if the config has switched swarm mode on or off or changed the swarm's size.
+    */
+    public void restoreLevel() {
+        int builtSwarmSize = (this.swarm != null) ? this.swarm.size() : 0;
+        if (this.pristinePieces == null || builtSwarmSize != this.swarmSize) {
+            this.buildLevel();
+            return;
+        }
+        for (int n = 0; n < this.pristineCollectibles.size(); n++) {
+            int index = this.pristineCollectibles.get(n);
+            this.tileGrid.setTile(index, this.pristineTiles[index]);
+            this.mapPieces.set(index, this.pristinePieces[index]);
+        }
+        this.collectibles.copyFrom(this.pristineCollectibles);
+        if (!"bfs".equals(this.pathfinding)) {
+            this.pathFinder = null;
+        } else if (this.pathFinder == null) {
+            this.pathFinder = new PathFinder(this.tileGrid);
+        }
+        this.waka.restart(this.map.getPlayerStart());
+        for (int i = 0; i < this.ghosts.size(); i++) {
+            this.ghosts.get(i).restart();
+        }
+        if (this.swarm != null) {
+            this.swarm.restart();
+        }
+        if (this.decisionNanos != null) {
+            Arrays.fill(this.decisionNanos, 0);
+        }
+        this.lastKey = 37;
+        this.newKey = 0;
+    }
+
+    /**
+    Captures everything that changes while the game is played into a new GameSnapshot.
+
+    @return The snapshot.
+    */
+    public GameSnapshot snapshot() {
+        GameSnapshot snapshot = new GameSnapshot();
+        this.snapshot(snapshot);
+        return snapshot;
+    }
+
+    /**
+    Captures everything that changes while the game is played into the snapshot provided, reusing its arrays.
+    <p>
+    Takes the counters, flags, lives, keys, the Waka, every Ghost or the swarm, the random number generator,
+    the pending events and a bitset of the collected tiles, in time proportional to the size of that state.
+    Should be taken between ticks.
+
+    @param snapshot The snapshot to write into.
+    */
+    public void snapshot(GameSnapshot snapshot) {
+        int[] ints = snapshot.prepareInts(this.snapshotIntCount());
+        ints[0] = this.counter;
+        ints[1] = this.mode;
+        ints[2] = this.modeIndex;
+        ints[3] = this.frightened ? 1 : 0;
+        ints[4] = this.wavyGhost ? 1 : 0;
+        ints[5] = this.endGame ? 1 : 0;
+        ints[6] = this.fruitCount;
+        ints[7] = this.deadGhosts;
+        ints[8] = this.lives;
+        ints[9] = this.lastKey;
+        ints[10] = this.newKey;
+        int at = this.waka.writeState(ints, SNAPSHOT_HEADER);
+        for (int i = 0; i < this.ghosts.size(); i++) {
+            at = this.ghosts.get(i).writeState(ints, at);
+        }
+        if (this.swarm != null) {
+            this.swarm.writeState(ints, at);
+        }
+        long[] longs = snapshot.prepareLongs(this.snapshotLongCount());
+        longs[0] = this.random.getState();
+        int words = this.events.writeTimes(longs, 1);
+        for (int w = 0; w < this.collectibles.wordCount(); w++) {
+            longs[words + w] = this.pristineCollectibles.word(w) & ~this.collectibles.word(w);
+        }
+    }
+
+    /**
+    Puts the game back to the state captured in the snapshot provided, which may have been taken from
+    this game or from any other game with the same map and config.
+    <p>
+    Takes time proportional to the size of the state, and only allocates for Ghost targets that are not
+    tile aligned. The remaining collectibles may be listed in a different order than when the snapshot
+    was taken, which changes nothing but the order they are drawn in.
+
+    @param snapshot The snapshot to restore.
+    @throws IllegalArgumentException If the snapshot was taken from a game with a different map or Ghosts.
+    */
+    public void restore(GameSnapshot snapshot) {
+        if (snapshot.getIntCount() != this.snapshotIntCount() || snapshot.getLongCount() != this.snapshotLongCount()) {
+            throw new IllegalArgumentException("The snapshot was taken from a game with a different map or Ghosts");
+        }
+        int[] ints = snapshot.getInts();
+        this.counter = ints[0];
+        this.mode = ints[1];
+        this.modeIndex = ints[2];
+        this.frightened = ints[3] != 0;
+        this.wavyGhost = ints[4] != 0;
+        this.endGame = ints[5] != 0;
+        this.fruitCount = ints[6];
+        this.deadGhosts = ints[7];
+        this.lives = ints[8];
+        this.lastKey = ints[9];
+        this.newKey = ints[10];
+        int at = this.waka.readState(ints, SNAPSHOT_HEADER);
+        for (int i = 0; i < this.ghosts.size(); i++) {
+            at = this.ghosts.get(i).readState(ints, at);
+        }
+        if (this.swarm != null) {
+            this.swarm.readState(ints, at);
+        }
+        long[] longs = snapshot.getLongs();
+        this.random.setState(longs[0]);
+        int words = this.events.readTimes(longs, 1);
+        this.collectibles.clear();
+        for (int n = 0; n < this.pristineCollectibles.size(); n++) {
+            int index = this.pristineCollectibles.get(n);
+            if ((longs[words + (index >>> 6)] & (1L << index)) != 0) {
+                this.tileGrid.setTile(index, TileGrid.EMPTY);
+                this.mapPieces.set(index, this.emptyPieces[index]);
+            } else {
+                this.tileGrid.setTile(index, this.pristineTiles[index]);
+                this.mapPieces.set(index, this.pristinePieces[index]);
+                this.collectibles.add(index);
+            }
+        }
+    }
+
+    /**
+    Returns the number of ints in a snapshot of this game.
+
+    @return The int count.
+    */
+    private int snapshotIntCount() {
+        int swarmSize = (this.swarm != null) ? this.swarm.size() : 0;
+        return SNAPSHOT_HEADER + Waka.STATE_SIZE + (this.ghosts.size() * Ghost.STATE_SIZE)
+            + (swarmSize * GhostSwarm.STATE_SIZE);
+    }
+
+    /**
+    Returns the number of longs in a snapshot of this game.
+
+    @return The long count.
+    */
+    private int snapshotLongCount() {
+        return 1 + this.events.kinds() + ((this.tileGrid.size() + 63) >>> 6);
     }
 
     /**
@@ -173,10 +642,11 @@ public class GameManager {
     Checks if the waka can move with the class's new input and moves the Waka in that direction.
     Otherwise, will check if the Waka can move with the class's previous input, 
     and moves in that direction.
+    A Waka that has passed through a tunnel is moved back onto the map.
     */
     public void moveWaka() {
-        boolean canMoveLast = this.waka.canMove(this.lastKey, this.app);
-        boolean canMoveNew = this.waka.canMove(this.newKey, this.app);
+        boolean canMoveLast = this.waka.canMove(this.lastKey, this);
+        boolean canMoveNew = this.waka.canMove(this.newKey, this);
         if (canMoveNew && this.waka.aligned()) {
             this.lastKey = this.newKey;
             this.newKey = 0;
@@ -184,40 +654,146 @@ public class GameManager {
         } else if (canMoveLast) {
             this.waka.move(this.lastKey, this.speed);
         }
+        this.waka.wrap(this.tileGrid);
     }
     /**
     Moves all of the instance's Ghosts.
     <p>
     Loops through the list of Ghosts in the game, checks if they are aligned 
     within the grid and moves them depending on which mode they are currently in.
-    If not aligned, the ghosts will continue to move in their current direction.
+    If not aligned, the ghosts will continue to move in their current direction
+    and their possible moves are not looked up at all.
+    In swarm mode the whole GhostSwarm is updated in a single pass instead.
+    Each decision is timed if decision timing is on.
     */
     public void moveGhosts() {
+        long[] decisionNanos = this.decisionNanos;
+        if (this.swarm != null) {
+            long start = (decisionNanos != null) ? System.nanoTime() : 0;
+            this.swarm.update(this);
+            if (decisionNanos != null) {
+                decisionNanos[0] = System.nanoTime() - start;
+            }
+            return;
+        }
+        int mode = this.currentMode();
         for (int i = 0; i < this.ghosts.size(); i++) {
             Ghost ghost = this.ghosts.get(i);
-            HashMap<Coordinate, Integer> interDirections = new HashMap<Coordinate, Integer>();
             int directionToGo = 0;
-            interDirections = ghost.intersectionDirection(this);
-            if (ghost.aligned()) {
+            if (ghost.aligned() && ghost.canGhostMove()) {
+                long start = (decisionNanos != null) ? System.nanoTime() : 0;
+                int interDirections = ghost.intersectionDirection(this);
                 if (this.frightened) {
                     directionToGo = ghost.wayToFrighten(interDirections, this);
-                } else {
-                    for (int j = 0; j < this.modeLengths.length; j++) {
-                        if (this.counter < this.modeLengths[j]) {
-                            if ((j + 1) % 2 == 0) {
-                                directionToGo = ghost.wayToChase(interDirections, this);      
-                            } else if ((j + 1) % 2 == 1) {
-                                directionToGo = ghost.wayToScatter(interDirections, this);
-                            }
-                            break;
-                        }
-                    }
+                } else if (mode == CHASE) {
+                    directionToGo = ghost.wayToChase(interDirections, this);
+                } else if (mode == SCATTER) {
+                    directionToGo = ghost.wayToScatter(interDirections, this);
+                }
+                if (decisionNanos != null) {
+                    decisionNanos[i] = System.nanoTime() - start;
                 }
                 ghost.move(directionToGo, this.speed);
             } else {
                 ghost.move(ghost.getDirection(), this.speed);
-            }  
+            }
+            ghost.wrap(this.tileGrid);
+        }
+    }
+
+    /**
+    Returns the mode the Ghosts are currently in.
+    <p>
+    The mode lengths alternate between Scatter and Chase, starting with Scatter.
+    The mode is only worked out again when a MODE_CHANGE event fires, so this is a field read.
+
+    @return SCATTER or CHASE, or -1 once every mode has run out.
+    */
+    public int currentMode() {
+        return this.mode;
+    }
+
+    /**
+    Returns the scheduler holding the game's pending timed events.
+
+    @return The game's EventScheduler.
+    */
+    public EventScheduler getEvents() {
+        return this.events;
+    }
+
+    /**
+    Returns the event time of the middle of the tick with the counter provided,
+    after the Ghosts have moved and fruit has been collected.
+    <p>
+    Every tick has two points at which events fire, so event times count in half ticks.
+
+    @param counter The value of the counter during the tick.
+    @return The event time.
+    */
+    public static long duringTick(int counter) {
+        return 2L * counter;
+    }
+
+    /**
+    Returns the event time of the end of a tick, after the counter has been incremented.
+
+    @param counter The value of the counter after it has been incremented.
+    @return The event time.
+    */
+    public static long afterTick(int counter) {
+        return (2L * counter) - 1;
+    }
+
+    /**
+    Fires every event that is due by the time provided, in order.
+
+    @param now The current event time.
+    */
+    public void runEvents(long now) {
+        int event = this.events.poll(now);
+        while (event != -1) {
+            if (event == MODE_CHANGE) {
+                this.advanceMode();
+            } else if (event == FRIGHTEN_END) {
+                this.endFrighten();
+            } else if (event == WAVY_END) {
+                this.endWavy();
+            } else if (event == END_GAME_RESET) {
+                this.resetGame();
+                return;
+            }
+            event = this.events.poll(now);
+        }
+    }
+
+    /**
+    Puts the Ghosts into the mode for the current counter, starting from the first mode length.
+    */
+    public void startModes() {
+        this.modeIndex = 0;
+        this.mode = -1;
+        this.advanceMode();
+    }
+
+    /**
+    Moves on to the mode for the current counter and schedules the next mode change.
+    <p>
+    Skips over any modes with no length, so the config may give any number of mode lengths.
+    */
+    public void advanceMode() {
+        while (this.modeIndex < this.modeLengths.length && this.counter >= this.modeLengths[this.modeIndex]) {
+            this.modeIndex++;
+        }
+        int newMode = -1;
+        if (this.modeIndex < this.modeLengths.length) {
+            newMode = (this.modeIndex % 2 == 0) ? SCATTER : CHASE;
+            this.events.schedule(MODE_CHANGE, GameManager.afterTick(this.modeLengths[this.modeIndex]));
         }
+        if (this.mode != -1 && newMode != -1 && newMode != this.mode) {
+            this.metrics.count(GameMetrics.MODE_SWITCHES);
+        }
+        this.mode = newMode;
     }
 
     /**
@@ -225,324 +801,315 @@ public class GameManager {
     <p>
     Checks what space the Waka currently occupies and what sort of MapPiece is in that space.
     Checks if the player has collected a fruit, super fruit or soda can and increments the collected count if so.
-    If a super fruit was collected, frightens all of the Ghosts and sets the frightened count to 0.
-    If a soda can was collected, makes all of the Ghosts wavy and sets the wavy count to 0.
+    If a super fruit was collected, frightens all of the Ghosts and schedules them to stop being frightened
+    after the frightened length, replacing any earlier end.
+    If a soda can was collected, makes all of the Ghosts wavy and schedules them to stop after the wavy length.
     */
     public void fruitCheck() {
         int playerIndex = 0;
         if (this.waka.aligned()) {
-            playerIndex = this.waka.getIndex();
-            String pieceClass = this.mapPieces.get(playerIndex).getClass().toString();
-            if (pieceClass.equals("class ghost.FruitPiece") || pieceClass.equals("class ghost.SuperFruit") 
-                || (pieceClass.equals("class ghost.SodaCan"))) {
-                int emptyX = this.waka.getX() + 4;
-                int emptyY = this.waka.getY() + 5;
-                MapPiece empty = new EmptyPiece(emptyX, emptyY);
-                this.mapPieces.set(playerIndex, empty);
+            playerIndex = this.waka.getIndex(this.tileGrid);
+            byte pieceType = this.tileGrid.tileType(playerIndex);
+            if (this.tileGrid.isCollectable(playerIndex)) {
+                this.mapPieces.set(playerIndex, this.emptyPieces[playerIndex]);
+                this.tileGrid.setTile(playerIndex, TileGrid.EMPTY);
+                this.collectibles.remove(playerIndex);
                 this.fruitCount++;
-                if (pieceClass.equals("class ghost.SuperFruit")) {
+                this.metrics.count(GameMetrics.PICKUPS);
+                if (pieceType == TileGrid.SUPER_FRUIT) {
                     for (int i = 0; i < this.ghosts.size(); i++) {
-                        this.ghosts.get(i).frighten(this.app);
+                        this.ghosts.get(i).frighten();
+                    }
+                    if (this.swarm != null) {
+                        this.swarm.frighten();
                     }
                     this.frightened = true;
-                    this.frightenCount = 0;
-                } else if (pieceClass.equals("class ghost.SodaCan")) {
+                    this.events.schedule(FRIGHTEN_END, GameManager.duringTick(this.counter + this.frightenedLength));
+                } else if (pieceType == TileGrid.SODA_CAN) {
                     for (int i = 0; i < this.ghosts.size(); i++) {
-                        this.ghosts.get(i).wavyTime(this.app);
+                        this.ghosts.get(i).wavyTime();
+                    }
+                    if (this.swarm != null) {
+                        this.swarm.wavyTime();
                     }
                     this.wavyGhost = true;
-                    this.wavyCount = 0;
+                    this.events.schedule(WAVY_END, GameManager.duringTick(this.counter + this.wavyLength));
                 }
             }
         }
     }
 
     /**
-    Checks if the Ghosts are to remain frightened.
+    Ends the Ghosts' frightened time.
     <p>
-    If the current frightened counter is the same as the total frightened length,
-    returns the Ghosts back to their normal look and behaviour.
-    Otherwise continues.*/
-    public void checkFrightenEnd() {
-        if (this.frightenCount == this.frightenedLength) {
-            for (int i = 0; i < this.ghosts.size(); i++) {
-                this.ghosts.get(i).beBrave(this.app);
-            }
-            this.frightened = false;
-            this.frightenCount = 0;
+    Fired by the FRIGHTEN_END event. Returns the Ghosts back to their normal look and behaviour.
+    */
+    public void endFrighten() {
+        for (int i = 0; i < this.ghosts.size(); i++) {
+            this.ghosts.get(i).beBrave();
+        }
+        if (this.swarm != null) {
+            this.swarm.beBrave();
         }
+        this.frightened = false;
     }
 
     /**
-    Checks if the Ghosts are to remain wavy.
+    Ends the Ghosts' wavy time.
     <p>
-    If the current wavy counter is the same as the total wavy length,
-    returns the Ghosts back to their normal look.
-    Otherwise continues.*/
-    public void checkWavyEnd() {
-        if (this.wavyCount == this.wavyLength) {
-            for (int i = 0; i < this.ghosts.size(); i++) {
-                this.ghosts.get(i).beBrave(this.app);
-            }
-            this.wavyGhost = false;
-            this.wavyCount = 0;
+    Fired by the WAVY_END event. Returns the Ghosts back to their normal look.
+    */
+    public void endWavy() {
+        for (int i = 0; i < this.ghosts.size(); i++) {
+            this.ghosts.get(i).beBrave();
+        }
+        if (this.swarm != null) {
+            this.swarm.beBrave();
         }
+        this.wavyGhost = false;
     }
 
     /**
     Checks if there is any collision between the Waka and any Ghosts.
     <p>
+    Only the Ghosts within 2 tiles of the Waka in the SpatialHash are tested, which covers every Ghost
+    whose hitbox could reach the Waka's. They are tested in the order of the Ghost list.
     If there is a collision and the Ghosts are not frightened, removes a life 
-    from Waka and resets the position of the Waka and all the Ghosts.
+    from Waka and resets the position of the Waka and all the Ghosts; no more Ghosts are checked that tick.
     If the Ghosts are frightened, removes that Ghost off the board and continues.
+    In swarm mode the overlaps found by the GhostSwarm's last update are resolved in the same way.
     */
     public void checkCollision() {
-        boolean collision = false;
-        int wakaXLeft = this.waka.getX() + 7;
-        int wakaXRight = wakaXLeft + 23;
-        int wakaYTop = this.waka.getY() + 8;
-        int wakaYBottom = wakaYTop + 23;
-        for (int i = 0; i < this.ghosts.size(); i++) {
-            int ghostXLeft = this.ghosts.get(i).getX() + 8;
-            int ghostXRight = ghostXLeft + 26;
-            int ghostYTop = this.ghosts.get(i).getY() + 8;
-            int ghostYBottom = ghostYTop + 26;
-            boolean xLeft = (wakaXLeft > ghostXLeft && wakaXLeft < ghostXRight);
-            boolean xRight = (wakaXRight > ghostXLeft && wakaXRight < ghostXRight);
-            boolean yLeft = (wakaYTop > ghostYTop && wakaYTop < ghostYBottom);
-            boolean yRight = (wakaYBottom > ghostYTop && wakaYBottom < ghostYBottom);
-            if (xLeft && yLeft) {
-                collision = true;
-            } else if (xRight && yLeft) {
-                collision = true;
-            } else if (xLeft && yRight) {
-                collision = true;
-            } else if (xRight && yRight) {
-                collision = true;
+        if (this.swarm != null) {
+            this.checkSwarmCollision();
+            return;
+        }
+        int found = this.spatialHash.query(this.waka.getX() + 4, this.waka.getY() + 5, 2, this.nearby);
+        for (int n = 0; n < found; n++) {
+            int i = this.nearby[n];
+            if (i >= this.ghosts.size() || !this.waka.overlaps(this.ghosts.get(i), this.tileGrid)) {
+                continue;
             }
-            if (collision && !this.frightened) {
+            if (!this.frightened) {
                 this.lives--;
-                this.waka.resetPos(this.app.getMap().getPlayerStart());
+                this.metrics.count(GameMetrics.DEATHS);
+                this.waka.resetPos(this.map.getPlayerStart());
                 for (int j = 0; j < this.ghosts.size(); j++) {
                     this.ghosts.get(j).resetPos();
-                    this.ghosts.get(j).beBrave(this.app);
+                    this.ghosts.get(j).beBrave();
                 }
                 this.deadGhosts = 0;
-                collision = false;
-            } else if (collision && this.frightened){
-                this.ghosts.get(i).destroy(this.app, this.deadGhosts);
-                this.deadGhosts++;
-                collision = false;
+                return;
             }
+            this.ghosts.get(i).destroy(this.deadGhosts, this.tileGrid);
+            this.deadGhosts++;
+            this.metrics.count(GameMetrics.GHOSTS_EATEN);
         }
     }
 
     /**
-    Draws all elements of the map to the window.
+    Resolves the collisions between the Waka and the GhostSwarm found by the swarm's last update.
     */
-    public void drawMap() {
-        for (int i = 0; i < this.mapPieces.size(); i++) {
-            if (this.mapPieces.get(i) == null) {
-                continue;
-            } else if (this.mapPieces.get(i).getClass().toString().equals("class ghost.EmptyPiece")) {
+    private void checkSwarmCollision() {
+        for (int n = 0; n < this.swarm.getHitCount(); n++) {
+            int i = this.swarm.getHit(n);
+            if (this.swarm.getState(i) == GhostSwarm.JAILED) {
                 continue;
-            } else {
-                this.mapPieces.get(i).draw(this.app);
             }
-        }
-    }
-
-    /**
-    Draws the Waka to the window.
-    <p>
-    Changes between the open and closed image of the Waka every 8 frames.
-    */
-    public void drawWaka() {
-        if (this.wakaCounter <= 8) {
-            this.waka.changeToClosed();
-            this.waka.draw(this.app);
-        } else if (this.wakaCounter > 8 && this.wakaCounter <= 16) {
-            this.waka.setSprite(this.lastKey, this.app);
-            this.waka.draw(this.app);
-        } else {
-            this.waka.setSprite(this.lastKey, this.app);
-            this.waka.draw(this.app);
-            this.wakaCounter = 0;
-        }
-    }
-
-    /**
-    Draws all of the Ghosts to the game window.
-    */
-    public void drawGhosts() {
-        for (int i = 0; i < this.ghosts.size(); i++) {
-            if (this.ghosts.get(i) == null) {
-                continue;
-            } else {
-                this.ghosts.get(i).draw(this.app);
+            if (!this.frightened) {
+                this.lives--;
+                this.metrics.count(GameMetrics.DEATHS);
+                this.waka.resetPos(this.map.getPlayerStart());
+                this.swarm.reset();
+                this.deadGhosts = 0;
+                return;
             }
+            this.swarm.destroy(i, this.deadGhosts, this.tileGrid);
+            this.deadGhosts++;
+            this.metrics.count(GameMetrics.GHOSTS_EATEN);
         }
     }
 
     /**
-    Draws the player's remaining lives to the game window.
-    */
-    public void drawLives() {
-        PImage life = this.app.loadImage("src/main/resources/playerRight.png");
-        for (int i = 0; i < this.lives; i++) {
-            this.app.image(life, (8 + (i * 28)), 544);
-        }
-    }
-
-    /**
-    Increments each of the active counters in the game.
+    Increments the game's counter, which every event is timed by.
     */
     public void incrementCount() {
-        this.wakaCounter++;
         this.counter++;
-        if (this.frightened) {
-            this.frightenCount++;
-        }
-        if (this.endGame) {
-            this.endGameCounter++;
-        }
-        if (this.wavyGhost) {
-            this.wavyCount++;
-        }
-    }
-
-    /**
-    Checks if Debug Mode has been activated and calls the debug method if so.
-
-    @param key The most recent key pressed by the user.
-    */
-    public void debuggerCheck(int key) {
-        if (key == 0 && !this.debug) {
-            this.firstPress = true;
-        } else if (key == 0 && this.debug) {
-            this.firstPress = false;
-        }
-        if (key == 32 && this.firstPress) {
-            this.debug = true;
-        } else if (key == 32 && !this.firstPress) {
-            this.debug = false;
-        }
-        if (this.debug) {
-            this.debugMode(this.app);
-        }
     }
 
     /**
     Checks if the player has won or lost the game.
     <p>
-    Resets the game if an endgame screen has been displayed for 10 seconds.
+    When the game ends, schedules it to be reset once the endgame screen has been displayed for 10 seconds.
     */
     public void checkWinOrLoss() {
-        if (this.fruitCount == this.app.getMap().getFruitCount()) {
-            this.winner();
+        if (!this.endGame && (this.hasWon() || this.lives <= 0)) {
             this.endGame = true;
-        } else if (this.lives == 0) {
-            this.loser();
-            this.endGame = true;
-        }
-        if (this.endGameCounter == 600 && this.endGame) {
-            this.resetGame();
+            this.events.schedule(END_GAME_RESET, GameManager.afterTick(this.counter + this.endGameLength));
         }
     }
 
     /**
     Resets the current game.
+    <p>
+    Starts again with the latest config given to updateConfig, or with the current config if there was none.
+    The config file is not read again; hot reloading is left to a ConfigService.
+    The level is restored in place by restoreLevel rather than built again, unless the config names a
+    different map, which is then read and built.
     */
     public void resetGame() {
         this.endGame = false;
-        this.endGameCounter = 0;
         this.counter = 0;
-        this.wavyCount = 0;
+        this.events.clear();
         this.wavyGhost = false;
+        this.frightened = false;
         this.fruitCount = 0;
         this.deadGhosts = 0;
-        this.readJson("config.json");
-        this.app.resetGame();
+        GameConfig pending = this.pendingConfig.getAndSet(null);
+        String mapFilePath = this.mapFilePath;
+        this.applyConfig((pending != null) ? pending : this.config);
+        if (this.mapFilePath.equals(mapFilePath)) {
+            this.restoreLevel();
+        } else {
+            this.map = new Map(this.mapFilePath);
+            this.buildLevel();
+        }
+        this.startModes();
+    }
 
+    /**
+    Resets the current game and reseeds its random choices, so it plays out the same as a new GameManager
+    made with the same config and seed, without building the level again.
+
+    @param seed The seed for the new game's random choices.
+    */
+    public void resetGame(long seed) {
+        this.random.setState(seed);
+        this.resetGame();
     }
 
     /**
     Reads in parameters from the provided JSON file.
     <p>
     Will assign this instances speed, mapFilePath, lives, frightenedLength and modeLengths.
+    Leaves the current settings unchanged if the file cannot be read or holds invalid settings.
     
     @param filePath The file path to the JSON file needed.
     */
     public void readJson(String filePath) {
-        JSONParser configParse = new JSONParser();
-        try {
-            Object obj = configParse.parse(new FileReader(filePath));
-            JSONObject configJson = (JSONObject) obj;
-            this.speed = (int) (long) configJson.get("speed"); //longSpeed;
-            this.mapFilePath = (String) configJson.get("map");
-            this.lives = (int) (long) configJson.get("lives");
-            this.frightenedLength = 60 * ((int) (long) configJson.get("frightenedLength"));
-            JSONArray modeLengthsJson = (JSONArray) configJson.get("modeLengths");
-            int[] modeLengths = new int[8];
-            for (int i = 0; i < 8; i++) {
-                if (i == 0) {
-                    modeLengths[i] = 60 * ((int) (long) modeLengthsJson.get(i));
-                } else {
-                    modeLengths[i] = (60 * ((int) (long) modeLengthsJson.get(i))) + modeLengths[i - 1];
-                }
-            }
-            this.modeLengths = modeLengths;
-        } catch (FileNotFoundException e) {
-            return;
-        } catch (IOException f) {
-            return;
-        } catch (ParseException g) {
+        GameConfig config = GameConfig.load(filePath);
+        if (config == null) {
             return;
         }
+        this.applyConfig(config);
     }
 
     /**
-    Draws the win screen to the window.
+    Assigns this instances settings from the config provided.
+    <p>
+    All lengths in the config are given in seconds and are converted to ticks using its tick rate.
+    The wavy Ghosts last 5 seconds and the endgame screen is shown for 10 seconds.
+    The pathfinding setting chooses how Ghosts steer towards their targets:
+    "bfs" follows the shortest path through the maze, anything else
+    picks the move closest to the target in a straight line.
+    
+    @param config The settings to use.
     */
-    public void winner() {
-        this.app.fill(0, 0, 0);
-        this.app.rect(-1, -1, 450, 578);
-        PImage youWin = this.app.loadImage("src/main/resources/youwin.png");
-        this.app.image(youWin, 124, 272);
+    public void applyConfig(GameConfig config) {
+        this.config = config;
+        this.mapFilePath = config.getMapFilePath();
+        this.pathfinding = config.getPathfinding();
+        this.lives = config.getLives();
+        this.tickRate = config.getTickRate();
+        this.frameRate = config.getFrameRate();
+        this.uncapped = config.isUncapped();
+        this.swarmSize = config.getSwarmSize();
+        this.wavyLength = 5 * this.tickRate;
+        this.endGameLength = 10 * this.tickRate;
+        this.applyLiveSettings(config);
     }
 
     /**
-    Draws the lose screen to the window.
+    Assigns the settings that may change while a game is running: the speed, frightened length and
+    mode lengths, converting the lengths to ticks using the current tick rate.
+
+    @param config The settings to use.
     */
-    public void loser() {
-        this.app.fill(0, 0, 0);
-        this.app.rect(-1, -1, 450, 578);
-        PImage gameOver = this.app.loadImage("src/main/resources/gameover.png");
-        this.app.image(gameOver, 168, 280);
+    private void applyLiveSettings(GameConfig config) {
+        this.speed = config.getSpeed();
+        this.frightenedLength = this.tickRate * config.getFrightenedLength();
+        int[] modeLengthsSeconds = config.getModeLengths();
+        int[] modeLengths = new int[modeLengthsSeconds.length];
+        for (int i = 0; i < modeLengths.length; i++) {
+            if (i == 0) {
+                modeLengths[i] = this.tickRate * modeLengthsSeconds[i];
+            } else {
+                modeLengths[i] = (this.tickRate * modeLengthsSeconds[i]) + modeLengths[i - 1];
+            }
+        }
+        this.modeLengths = modeLengths;
     }
 
     /**
-    Draws a debug line from each Ghost to their current target.
+    Gives the game a new config to use from its next safe tick onwards.
     <p>
-    Will not draw line if the ghost is dead or frightened.
+    May be called from any thread, such as a ConfigService's watcher thread. The config is swapped in
+    whole at the start of a tick, never part way through one, and a later config replaces one that is
+    still waiting. The speed, frightened length and mode lengths change in the running game;
+    every other setting, such as the lives, tick rate and map, takes effect when the game is next reset.
+    An App watches for the new tick rate, frame rate and map size and changes its timing and window to match.
+
+    @param config The new settings, already validated.
+    */
+    public void updateConfig(GameConfig config) {
+        this.pendingConfig.set(config);
+    }
 
-    @param app The app to draw the debug lines to.
+    /**
+    Swaps in the waiting config if this tick is a safe point to do so.
+    <p>
+    A new speed is only safe once the Waka and every moving Ghost sit on a multiple of it, so that they
+    keep lining up with tiles, so the swap waits for such a tick. The mode lengths are counted from the
+    start of the game, so the mode is recalculated for the current counter and its next change rescheduled.
     */
-    public void debugMode(App app) {
-        if (this.frightened) {
+    private void applyPendingConfig() {
+        GameConfig pending = this.pendingConfig.get();
+        if (pending.getSpeed() != this.speed && !this.alignedTo(pending.getSpeed())) {
             return;
         }
-        app.stroke(256, 256, 256);
-        for (int i = 0; i < this.ghosts.size(); i++) {
-            Ghost ghost = this.ghosts.get(i);
-            if (ghost.canGhostMove()) {
-                int ghostX = ghost.getCoord().getX() + 8;
-                int ghostY = ghost.getCoord().getY() + 8;
-                int targetX = ghost.getTarget().getX() + 8;
-                int targetY = ghost.getTarget().getY() + 8;
-                app.line(ghostX, ghostY, targetX, targetY);
+        if (!this.pendingConfig.compareAndSet(pending, null)) {
+            return;
+        }
+        this.config = pending;
+        this.applyLiveSettings(pending);
+        this.events.cancel(MODE_CHANGE);
+        this.modeIndex = 0;
+        this.advanceMode();
+    }
+
+    /**
+    Checks if the Waka and every Ghost that can move sit on a multiple of the speed provided.
+
+    @param speed The speed to check against.
+    @return True if every position is a multiple of the speed.
+    */
+    private boolean alignedTo(int speed) {
+        if ((this.waka.getX() + 4) % speed != 0 || (this.waka.getY() + 5) % speed != 0) {
+            return false;
+        }
+        for (Ghost ghost : this.ghosts) {
+            if (ghost.canGhostMove() && ((ghost.getX() + 6) % speed != 0 || (ghost.getY() + 6) % speed != 0)) {
+                return false;
+            }
+        }
+        if (this.swarm != null) {
+            for (int i = 0; i < this.swarm.size(); i++) {
+                if (this.swarm.getState(i) != GhostSwarm.JAILED
+                        && ((this.swarm.getX(i) + 6) % speed != 0 || (this.swarm.getY(i) + 6) % speed != 0)) {
+                    return false;
+                }
             }
         }
+        return true;
     }
-  
-}
\ No newline at end of file
+}
@@ -0,0 +1,496 @@
+package ghost;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.json.simple.JSONObject;
+
+/**
+Records how long each phase of the game loop takes, how much each tick allocates,
+and counts of the events in the game.
+<p>
+Each phase has its own LatencyHistogram. The GameManager times the phases of a tick and the App
+times the phases of drawing a frame, both from the thread that runs the game, while any other thread
+may read the results. The metrics can be published over JMX with register() and written to a file
+periodically by a MetricsReporter.
+<p>
+Games record into the shared disabled() instance unless given their own, which ignores everything
+without even reading the clock, so instrumentation costs nothing when it is turned off.
+*/
+public class GameMetrics implements GameMetricsMXBean {
+
+    public static final int MOVE_WAKA = 0;
+    public static final int MOVE_GHOSTS = 1;
+    public static final int FRUIT_CHECK = 2;
+    public static final int CHECK_COLLISION = 3;
+    public static final int TICK = 4;
+    public static final int DRAW_MAP = 5;
+    public static final int DRAW_WAKA = 6;
+    public static final int DRAW_GHOSTS = 7;
+    public static final int FRAME = 8;
+    public static final int SEARCH = 9;
+    public static final String[] PHASE_NAMES = {
+        "moveWaka", "moveGhosts", "fruitCheck", "checkCollision", "tick",
+        "drawMap", "drawWaka", "drawGhosts", "frame", "search"
+    };
+
+    public static final int TICKS = 0;
+    public static final int PICKUPS = 1;
+    public static final int DEATHS = 2;
+    public static final int GHOSTS_EATEN = 3;
+    public static final int MODE_SWITCHES = 4;
+    public static final int ROLLOUTS = 5;
+    public static final String[] COUNTER_NAMES = {
+        "ticks", "pickups", "deaths", "ghostsEaten", "modeSwitches", "rollouts"
+    };
+
+    public static final String OBJECT_NAME = "ghost:type=GameMetrics";
+
+    private static final com.sun.management.ThreadMXBean THREADS = GameMetrics.allocationCounter();
+    private static final GameMetrics DISABLED = new GameMetrics(false);
+
+    private boolean enabled;
+    private LatencyHistogram[] phases;
+    private LatencyHistogram allocation;
+    private AtomicLongArray counters;
+
+    /**
+    Constructs a new GameMetrics that records everything.
+    */
+    public GameMetrics() {
+        this(true);
+    }
+
+    /**
+    Constructs a new GameMetrics.
+
+    @param enabled Whether anything is recorded.
+    */
+    private GameMetrics(boolean enabled) {
+        this.enabled = enabled;
+        this.phases = new LatencyHistogram[PHASE_NAMES.length];
+        for (int i = 0; i < this.phases.length; i++) {
+            this.phases[i] = new LatencyHistogram();
+        }
+        this.allocation = new LatencyHistogram();
+        this.counters = new AtomicLongArray(COUNTER_NAMES.length);
+    }
+
+    /**
+    Returns the JVM's per thread allocation counter, turning it on if needed.
+
+    @return The ThreadMXBean that counts allocation, or null if the JVM cannot count allocation.
+    */
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) threadBean;
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        if (!threads.isThreadAllocatedMemoryEnabled()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+        return threads;
+    }
+
+    /**
+    Returns the number of bytes the current thread has allocated so far, whether or not any metrics are enabled.
+
+    @return The bytes allocated, or -1 if the JVM cannot count allocation.
+    */
+    public static long threadAllocatedBytes() {
+        if (THREADS == null) {
+            return -1;
+        }
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+    Returns the shared GameMetrics that records nothing.
+
+    @return The disabled GameMetrics.
+    */
+    public static GameMetrics disabled() {
+        return DISABLED;
+    }
+
+    /**
+    Returns whether anything is recorded.
+
+    @return True if the metrics are recording, False otherwise.
+    */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+    Starts timing a phase.
+
+    @return The current time in nanoseconds, or 0 if the metrics are disabled.
+    */
+    public long start() {
+        if (!this.enabled) {
+            return 0;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+    Records the time a phase took, and starts timing the next one.
+
+    @param phase The phase that has finished, such as MOVE_GHOSTS.
+    @param start The time the phase started, as returned by start() or the previous lap().
+    @return The current time in nanoseconds, or 0 if the metrics are disabled.
+    */
+    public long lap(int phase, long start) {
+        if (!this.enabled) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        this.phases[phase].record(now - start);
+        return now;
+    }
+
+    /**
+    Returns the number of bytes the current thread has allocated so far.
+
+    @return The bytes allocated, or -1 if the metrics are disabled or the JVM cannot measure allocation.
+    */
+    public long allocatedBytes() {
+        if (!this.enabled) {
+            return -1;
+        }
+        return GameMetrics.threadAllocatedBytes();
+    }
+
+    /**
+    Records the bytes allocated by the current thread since the value provided was taken.
+
+    @param before The bytes allocated before the tick, as returned by allocatedBytes().
+    */
+    public void recordAllocation(long before) {
+        if (before < 0) {
+            return;
+        }
+        this.allocation.record(this.allocatedBytes() - before);
+    }
+
+    /**
+    Adds one to a counter.
+
+    @param counter The counter, such as PICKUPS.
+    */
+    public void count(int counter) {
+        if (this.enabled) {
+            this.counters.lazySet(counter, this.counters.get(counter) + 1);
+        }
+    }
+
+    /**
+    Adds an amount to a counter.
+
+    @param counter The counter, such as ROLLOUTS.
+    @param amount The amount to add.
+    */
+    public void add(int counter, long amount) {
+        if (this.enabled) {
+            this.counters.lazySet(counter, this.counters.get(counter) + amount);
+        }
+    }
+
+    /**
+    Returns the histogram of a phase's timings.
+
+    @param phase The phase, such as MOVE_GHOSTS.
+    @return The phase's histogram, in nanoseconds.
+    */
+    public LatencyHistogram getPhase(int phase) {
+        return this.phases[phase];
+    }
+
+    /**
+    Returns the histogram of the bytes allocated by each tick.
+
+    @return The allocation histogram, in bytes.
+    */
+    public LatencyHistogram getAllocation() {
+        return this.allocation;
+    }
+
+    /**
+    Returns the value of a counter.
+
+    @param counter The counter, such as PICKUPS.
+    @return The counter's value.
+    */
+    public long getCounter(int counter) {
+        return this.counters.get(counter);
+    }
+
+    /**
+    Returns the number of ticks simulated.
+
+    @return The number of ticks.
+    */
+    public long getTicks() {
+        return this.getCounter(TICKS);
+    }
+
+    /**
+    Returns the number of fruit, super fruit and soda cans collected.
+
+    @return The number of pickups.
+    */
+    public long getPickups() {
+        return this.getCounter(PICKUPS);
+    }
+
+    /**
+    Returns the number of lives lost.
+
+    @return The number of deaths.
+    */
+    public long getDeaths() {
+        return this.getCounter(DEATHS);
+    }
+
+    /**
+    Returns the number of Ghosts sent to jail.
+
+    @return The number of Ghosts eaten.
+    */
+    public long getGhostsEaten() {
+        return this.getCounter(GHOSTS_EATEN);
+    }
+
+    /**
+    Returns the number of times the Ghosts switched between Scatter and Chase.
+
+    @return The number of mode switches.
+    */
+    public long getModeSwitches() {
+        return this.getCounter(MODE_SWITCHES);
+    }
+
+    /**
+    Returns the number of rollouts played by an autoplayer's searches.
+
+    @return The number of rollouts.
+    */
+    public long getRollouts() {
+        return this.getCounter(ROLLOUTS);
+    }
+
+    /**
+    Returns the number of rollouts played per second of search, from the rollouts counted and the
+    total time recorded for the SEARCH phase.
+
+    @return The rollouts per second, or 0 if nothing has been searched.
+    */
+    public double getRolloutsPerSecond() {
+        LatencyHistogram search = this.phases[SEARCH];
+        double searchNanos = search.getMean() * search.getCount();
+        if (searchNanos <= 0) {
+            return 0;
+        }
+        return this.getRollouts() * 1e9 / searchNanos;
+    }
+
+    /**
+    Returns the median time of each phase.
+
+    @return The median time in nanoseconds, keyed by phase name.
+    */
+    public Map<String, Long> getMedianNanos() {
+        return this.percentiles(50.0);
+    }
+
+    /**
+    Returns the 99th percentile time of each phase.
+
+    @return The 99th percentile time in nanoseconds, keyed by phase name.
+    */
+    public Map<String, Long> getP99Nanos() {
+        return this.percentiles(99.0);
+    }
+
+    /**
+    Returns the 99.9th percentile time of each phase.
+
+    @return The 99.9th percentile time in nanoseconds, keyed by phase name.
+    */
+    public Map<String, Long> getP999Nanos() {
+        return this.percentiles(99.9);
+    }
+
+    /**
+    Returns the longest time of each phase.
+
+    @return The longest time in nanoseconds, keyed by phase name.
+    */
+    public Map<String, Long> getMaxNanos() {
+        return this.percentiles(100.0);
+    }
+
+    /**
+    Returns the 99th percentile of the bytes allocated by a tick.
+
+    @return The 99th percentile allocation in bytes, or 0 if the JVM cannot measure allocation.
+    */
+    public long getAllocatedBytesP99() {
+        return this.allocation.getValueAtPercentile(99.0);
+    }
+
+    /**
+    Returns the most bytes allocated by a single tick.
+
+    @return The largest allocation in bytes, or 0 if the JVM cannot measure allocation.
+    */
+    public long getAllocatedBytesMax() {
+        return this.allocation.getMax();
+    }
+
+    /**
+    Forgets every timing and count recorded so far.
+    <p>
+    Should only be called while nothing is being recorded, or a value being recorded may be partly kept.
+    */
+    public void reset() {
+        for (int i = 0; i < this.phases.length; i++) {
+            this.phases[i].reset();
+        }
+        this.allocation.reset();
+        for (int i = 0; i < COUNTER_NAMES.length; i++) {
+            this.counters.set(i, 0);
+        }
+    }
+
+    /**
+    Returns the value at a percentile of every phase.
+
+    @param percentile The percentile, from 0 to 100.
+    @return The value at the percentile in nanoseconds, keyed by phase name.
+    */
+    private Map<String, Long> percentiles(double percentile) {
+        Map<String, Long> values = new LinkedHashMap<String, Long>();
+        for (int i = 0; i < this.phases.length; i++) {
+            values.put(PHASE_NAMES[i], this.phases[i].getValueAtPercentile(percentile));
+        }
+        return values;
+    }
+
+    /**
+    Publishes the metrics over JMX under the name "ghost:type=GameMetrics".
+    <p>
+    Replaces any metrics already published under that name.
+
+    @return True if the metrics were published, False otherwise.
+    */
+    public boolean register() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+            return true;
+        } catch (JMException e) {
+            return false;
+        }
+    }
+
+    /**
+    Returns the column names of the rows written by toCsvRow(), separated by commas.
+
+    @return The CSV header line.
+    */
+    public static String csvHeader() {
+        StringBuilder header = new StringBuilder("timestamp");
+        for (int i = 0; i < COUNTER_NAMES.length; i++) {
+            header.append(',').append(COUNTER_NAMES[i]);
+        }
+        for (int i = 0; i < PHASE_NAMES.length; i++) {
+            header.append(',').append(PHASE_NAMES[i]).append("P50");
+            header.append(',').append(PHASE_NAMES[i]).append("P99");
+            header.append(',').append(PHASE_NAMES[i]).append("Max");
+        }
+        header.append(",allocatedP50,allocatedP99,allocatedMax");
+        return header.toString();
+    }
+
+    /**
+    Returns the current counters and the median, 99th percentile and longest time of every phase
+    as one CSV line, in the columns given by csvHeader().
+
+    @param timestamp The time the row is taken, in milliseconds since the epoch.
+    @return The CSV line.
+    */
+    public String toCsvRow(long timestamp) {
+        StringBuilder row = new StringBuilder();
+        row.append(timestamp);
+        for (int i = 0; i < COUNTER_NAMES.length; i++) {
+            row.append(',').append(this.counters.get(i));
+        }
+        for (int i = 0; i < PHASE_NAMES.length; i++) {
+            row.append(',').append(this.phases[i].getValueAtPercentile(50.0));
+            row.append(',').append(this.phases[i].getValueAtPercentile(99.0));
+            row.append(',').append(this.phases[i].getMax());
+        }
+        row.append(',').append(this.allocation.getValueAtPercentile(50.0));
+        row.append(',').append(this.allocation.getValueAtPercentile(99.0));
+        row.append(',').append(this.allocation.getMax());
+        return row.toString();
+    }
+
+    /**
+    Returns the current counters and a summary of every histogram as JSON text.
+
+    @param timestamp The time the summary is taken, in milliseconds since the epoch.
+    @return The JSON text.
+    */
+    @SuppressWarnings("unchecked")
+    public String toJson(long timestamp) {
+        JSONObject metricsJson = new JSONObject();
+        metricsJson.put("timestamp", timestamp);
+        JSONObject countersJson = new JSONObject();
+        for (int i = 0; i < COUNTER_NAMES.length; i++) {
+            countersJson.put(COUNTER_NAMES[i], this.counters.get(i));
+        }
+        metricsJson.put("counters", countersJson);
+        JSONObject phasesJson = new JSONObject();
+        for (int i = 0; i < PHASE_NAMES.length; i++) {
+            phasesJson.put(PHASE_NAMES[i], GameMetrics.summary(this.phases[i]));
+        }
+        metricsJson.put("phaseNanos", phasesJson);
+        metricsJson.put("allocatedBytes", GameMetrics.summary(this.allocation));
+        metricsJson.put("rolloutsPerSecond", this.getRolloutsPerSecond());
+        return metricsJson.toJSONString();
+    }
+
+    /**
+    Summarises a histogram as a JSON object.
+
+    @param histogram The histogram.
+    @return Its count, mean, median, 99th and 99.9th percentiles and maximum.
+    */
+    @SuppressWarnings("unchecked")
+    private static JSONObject summary(LatencyHistogram histogram) {
+        JSONObject summaryJson = new JSONObject();
+        summaryJson.put("count", histogram.getCount());
+        summaryJson.put("mean", histogram.getMean());
+        summaryJson.put("p50", histogram.getValueAtPercentile(50.0));
+        summaryJson.put("p99", histogram.getValueAtPercentile(99.0));
+        summaryJson.put("p999", histogram.getValueAtPercentile(99.9));
+        summaryJson.put("max", histogram.getMax());
+        return summaryJson;
+    }
+}
@@ -0,0 +1,107 @@
+package ghost;
+
+import java.util.Map;
+
+/**
+The management interface a game's GameMetrics are published through over JMX.
+<p>
+Timings are in nanoseconds and are keyed by phase name, such as "moveGhosts" or "drawMap".
+*/
+public interface GameMetricsMXBean {
+
+    /**
+    Returns the number of ticks simulated.
+
+    @return The number of ticks.
+    */
+    public long getTicks();
+
+    /**
+    Returns the number of fruit, super fruit and soda cans collected.
+
+    @return The number of pickups.
+    */
+    public long getPickups();
+
+    /**
+    Returns the number of lives lost.
+
+    @return The number of deaths.
+    */
+    public long getDeaths();
+
+    /**
+    Returns the number of Ghosts sent to jail.
+
+    @return The number of Ghosts eaten.
+    */
+    public long getGhostsEaten();
+
+    /**
+    Returns the number of times the Ghosts switched between Scatter and Chase.
+
+    @return The number of mode switches.
+    */
+    public long getModeSwitches();
+
+    /**
+    Returns the number of rollouts played by an autoplayer's searches.
+
+    @return The number of rollouts.
+    */
+    public long getRollouts();
+
+    /**
+    Returns the number of rollouts played per second of search.
+
+    @return The rollouts per second, or 0 if nothing has been searched.
+    */
+    public double getRolloutsPerSecond();
+
+    /**
+    Returns the median time of each phase.
+
+    @return The median time in nanoseconds, keyed by phase name.
+    */
+    public Map<String, Long> getMedianNanos();
+
+    /**
+    Returns the 99th percentile time of each phase.
+
+    @return The 99th percentile time in nanoseconds, keyed by phase name.
+    */
+    public Map<String, Long> getP99Nanos();
+
+    /**
+    Returns the 99.9th percentile time of each phase.
+
+    @return The 99.9th percentile time in nanoseconds, keyed by phase name.
+    */
+    public Map<String, Long> getP999Nanos();
+
+    /**
+    Returns the longest time of each phase.
+
+    @return The longest time in nanoseconds, keyed by phase name.
+    */
+    public Map<String, Long> getMaxNanos();
+
+    /**
+    Returns the 99th percentile of the bytes allocated by a tick.
+
+    @return The 99th percentile allocation in bytes, or 0 if the JVM cannot measure allocation.
+    */
+    public long getAllocatedBytesP99();
+
+    /**
+    Returns the most bytes allocated by a single tick.
+
+    @return The largest allocation in bytes, or 0 if the JVM cannot measure allocation.
+    */
+    public long getAllocatedBytesMax();
+
+    /**
+    Forgets every timing and count recorded so far.
+    */
+    public void reset();
+}
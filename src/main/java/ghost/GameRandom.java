@@ -0,0 +1,64 @@
+package ghost;
+
+/**
+A small, seedable random number generator owned by a single game.
+<p>
+Uses the SplitMix64 algorithm, whose whole state is a single long. Two games started with the
+same seed and given the same input will make exactly the same random choices, and the state
+can be read and restored cheaply.
+Not safe to share between threads; each game has its own.
+*/
+public class GameRandom {
+
+    private long state;
+
+    /**
+    Constructs a new GameRandom.
+
+    @param seed The seed to start from.
+    */
+    public GameRandom(long seed) {
+        this.state = seed;
+    }
+
+    /**
+    Returns the generator's current state.
+
+    @return The state of the generator.
+    */
+    public long getState() {
+        return this.state;
+    }
+
+    /**
+    Sets the generator's state, such as one previously returned by getState.
+
+    @param state The state to continue from.
+    */
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    /**
+    Returns the next random long.
+
+    @return A random long.
+    */
+    public long nextLong() {
+        this.state += 0x9E3779B97F4A7C15L;
+        long z = this.state;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+    Returns a random integer between 0 (inclusive) and the bound provided (exclusive).
+
+    @param bound The upper bound, which must be positive.
+    @return A random integer below the bound.
+    */
+    public int nextInt(int bound) {
+        return (int) (((this.nextLong() >>> 32) * bound) >>> 32);
+    }
+}
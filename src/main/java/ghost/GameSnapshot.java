@@ -0,0 +1,116 @@
+package ghost;
+
+import java.util.Arrays;
+
+/**
+A compact copy of everything that changes while a game is played, taken by GameManager.snapshot
+and put back by GameManager.restore.
+<p>
+Holds two primitive arrays: one of ints for the counters, flags, Waka and Ghosts, and one of longs for
+the random number generator, the pending event times and a bitset of the collected tiles. Nothing
+derived from the map or config is copied, so a snapshot is a few hundred bytes for a normal game and
+may only be restored into a game with the same map and config.
+<p>
+The arrays are kept between captures, so a snapshot reused for many captures only allocates the first time.
+*/
+public class GameSnapshot {
+
+    private int[] ints;
+    private long[] longs;
+    private int intCount;
+    private int longCount;
+
+    /**
+    Constructs a new, empty GameSnapshot.
+    */
+    public GameSnapshot() {
+        this.ints = new int[0];
+        this.longs = new long[0];
+        this.intCount = 0;
+        this.longCount = 0;
+    }
+
+    /**
+    Returns the int array, grown to hold at least the size provided, ready to be written.
+
+    @param size The number of ints to be written.
+    @return The int array.
+    */
+    int[] prepareInts(int size) {
+        if (this.ints.length < size) {
+            this.ints = new int[size];
+        }
+        this.intCount = size;
+        return this.ints;
+    }
+
+    /**
+    Returns the long array, grown to hold at least the size provided, ready to be written.
+
+    @param size The number of longs to be written.
+    @return The long array.
+    */
+    long[] prepareLongs(int size) {
+        if (this.longs.length < size) {
+            this.longs = new long[size];
+        }
+        this.longCount = size;
+        Arrays.fill(this.longs, 0, size, 0);
+        return this.longs;
+    }
+
+    /**
+    Returns the ints held by the snapshot.
+
+    @return The int array, of which the first getIntCount() values are used.
+    */
+    public int[] getInts() {
+        return this.ints;
+    }
+
+    /**
+    Returns the longs held by the snapshot.
+
+    @return The long array, of which the first getLongCount() values are used.
+    */
+    public long[] getLongs() {
+        return this.longs;
+    }
+
+    /**
+    Returns the number of ints used.
+
+    @return The int count, 0 if nothing has been captured.
+    */
+    public int getIntCount() {
+        return this.intCount;
+    }
+
+    /**
+    Returns the number of longs used.
+
+    @return The long count, 0 if nothing has been captured.
+    */
+    public int getLongCount() {
+        return this.longCount;
+    }
+
+    /**
+    Returns the number of bytes of game state held.
+
+    @return The size of the used parts of both arrays in bytes.
+    */
+    public int sizeInBytes() {
+        return (this.intCount * 4) + (this.longCount * 8);
+    }
+
+    /**
+    Makes this snapshot hold the same state as another, growing its arrays only if they are too small.
+
+    @param other The snapshot to copy.
+    */
+    public void copyFrom(GameSnapshot other) {
+        System.arraycopy(other.ints, 0, this.prepareInts(other.intCount), 0, other.intCount);
+        System.arraycopy(other.longs, 0, this.prepareLongs(other.longCount), 0, other.longCount);
+    }
+}
@@ -1,7 +1,6 @@
 package ghost;
 
 import processing.core.PApplet;
-import processing.core.PImage;
 import java.util.*;
 
 /**
@@ -12,35 +11,41 @@ Will change between Chase mode and Scatter mode.
 */
 public abstract class Ghost {
 
-    public PImage sprite;
+    public static final int HITBOX_OFFSET = 8;
+    public static final int HITBOX_SIZE = 26;
+
+    public static final int STATE_SIZE = 8;
+
+    public int sprite;
     public int x;
     public int y;
-    public Coordinate coord;
     public int direction;
     public int cameFrom;
     public Coordinate startingCoord;
     public Coordinate target;
     public boolean canMove;
+    private SpatialHash spatialHash;
+    private int hashId;
 
     /**
     Constructs a new Ghost.
     <p>
     Cannot be implemented as a Ghost object, needs a subclass to be constructed.
     
-    @param app The app which the ghost belongs to.
     @param x The X axis value of the Ghost's starting position.
     @param y The Y axis value of the Ghost's starying position.
     */
-    public Ghost(PApplet app, int x, int y) {
-        this.sprite = app.loadImage("src/main/resources/ghost.png");
+    public Ghost(int x, int y) {
+        this.sprite = SpriteAtlas.GHOST;
         this.x = x;
         this.y = y;
-        this.coord = new Coordinate(this.x + 6, this.y + 6);
         this.direction = 39;
         this.cameFrom = this.opposite(this.direction);
-        this.startingCoord = new Coordinate(this.x + 6, this.y + 6);
+        this.startingCoord = Coordinate.of(this.x + 6, this.y + 6);
         this.target = this.startingCoord;
         this.canMove = true;
+        this.spatialHash = null;
+        this.hashId = -1;
     }
 
     /**
@@ -63,11 +68,13 @@ public abstract class Ghost {
 
     /**
     Returns this Ghost's coordinate.
+    <p>
+    Made from the Ghost's position when asked for, so moving the Ghost allocates nothing.
     
-    @return The Ghost's Y coordinate.
+    @return The Ghost's coordinate.
     */
     public Coordinate getCoord() {
-        return this.coord;
+        return Coordinate.of(this.x + 6, this.y + 6);
     }
 
     /**
@@ -109,9 +116,9 @@ public abstract class Ghost {
     /**
     Sets the Ghost's image to the one provided.
     
-    @param sprite The image the Ghost's sprite will be changed to.
+    @param sprite The sprite ID the Ghost's sprite will be changed to.
     */
-    public void setSprite(PImage sprite) {
+    public void setSprite(int sprite) {
         this.sprite = sprite;
     }
 
@@ -119,9 +126,10 @@ public abstract class Ghost {
     Draws the Ghost's sprite to the app window.
     
     @param app The app which the Ghost will be drawn to.
+    @param sprites The atlas holding the Ghost's images.
     */
-    public void draw(PApplet app) {
-        app.image(this.sprite, this.x, this.y);
+    public void draw(PApplet app, SpriteAtlas sprites) {
+        app.image(sprites.get(this.sprite), this.x, this.y);
     }
 
     /**
@@ -143,7 +151,27 @@ public abstract class Ghost {
             }
             this.direction = direction;   
             this.cameFrom = this.opposite(direction);
-            this.coord = new Coordinate((this.x + 6), (this.y + 6));
+            this.updateHash();
+        }
+    }
+
+    /**
+    Moves the Ghost back onto the map if it has passed through a tunnel.
+    <p>
+    A Ghost in Ghost jail is left where it is, as jail may lie off the edge of the map.
+
+    @param tileGrid The grid of the map the Ghost is moving through.
+    */
+    public void wrap(TileGrid tileGrid) {
+        if (!this.canMove) {
+            return;
+        }
+        int x = tileGrid.wrapX(this.x + 6) - 6;
+        int y = tileGrid.wrapY(this.y + 6) - 6;
+        if (x != this.x || y != this.y) {
+            this.x = x;
+            this.y = y;
+            this.updateHash();
         }
     }
 
@@ -155,8 +183,79 @@ public abstract class Ghost {
     public void resetPos() {
         this.x = this.startingCoord.getX() - 6;
         this.y = this.startingCoord.getY() - 6;
-        this.coord = this.startingCoord;
         this.canMove = true;
+        this.updateHash();
+    }
+
+    /**
+    Puts the Ghost back exactly as it was when it was constructed, so it can be reused for a new game.
+    */
+    public void restart() {
+        this.beBrave();
+        this.direction = 39;
+        this.cameFrom = this.opposite(this.direction);
+        this.target = this.startingCoord;
+        this.resetPos();
+    }
+
+    /**
+    Writes the Ghost's position, direction, the direction it came from, its target, whether it can move
+    and its sprite into an array, for a GameSnapshot.
+
+    @param data The array to write into.
+    @param at The position to start writing at.
+    @return The position after the last value written, STATE_SIZE values on from the start.
+    */
+    public int writeState(int[] data, int at) {
+        data[at] = this.x;
+        data[at + 1] = this.y;
+        data[at + 2] = this.direction;
+        data[at + 3] = this.cameFrom;
+        data[at + 4] = this.target.getX();
+        data[at + 5] = this.target.getY();
+        data[at + 6] = this.canMove ? 1 : 0;
+        data[at + 7] = this.sprite;
+        return at + STATE_SIZE;
+    }
+
+    /**
+    Reads back a state written by writeState.
+
+    @param data The array to read from.
+    @param at The position to start reading at.
+    @return The position after the last value read.
+    */
+    public int readState(int[] data, int at) {
+        this.x = data[at];
+        this.y = data[at + 1];
+        this.direction = data[at + 2];
+        this.cameFrom = data[at + 3];
+        this.target = Coordinate.of(data[at + 4], data[at + 5]);
+        this.canMove = data[at + 6] != 0;
+        this.sprite = data[at + 7];
+        this.updateHash();
+        return at + STATE_SIZE;
+    }
+
+    /**
+    Adds the Ghost to the SpatialHash provided, which it keeps up to date as it moves.
+
+    @param spatialHash The hash to track the Ghost's position in.
+    @param hashId The Ghost's number within the hash.
+    */
+    public void track(SpatialHash spatialHash, int hashId) {
+        this.spatialHash = spatialHash;
+        this.hashId = hashId;
+        this.updateHash();
+    }
+
+    /**
+    Moves the Ghost into the cell of its SpatialHash that holds its current position.
+    */
+    private void updateHash() {
+        if (this.spatialHash != null) {
+            this.spatialHash.update(this.hashId, this.x + 6, this.y + 6);
+        }
     }
 
     /**
@@ -174,117 +273,163 @@ public abstract class Ghost {
     /**
     Returns the integer index relating to the Ghost's current position in the map's MapPiece list.
 
+    @param tileGrid The grid of the map the Ghost is moving through.
     @return The integer value of the Ghost's location in the MapPiece list.
     */
-    public int getIndex() {
-        int index = (((this.y + 6) / 16) * 28) + ((this.x + 6) / 16);
-        return index;
+    public int getIndex(TileGrid tileGrid) {
+        return tileGrid.indexAt(this.x + 6, this.y + 6);
     }
 
     /**
-    Creates a HashMap of possible directions the Ghost can move at an intersection.
+    Returns the mask of possible directions the Ghost can move at an intersection.
     <p>
     Will not allow the Ghost to travel back the way it came from.
+    Reads the exits precomputed by the game's TileGrid, so nothing is allocated.
     
     @param gameManager The GameManager the ghost is part of.
-    @return A HashMap of coordinates and integers relating to the directions the Ghost can possibly move.
-    */
-    public HashMap<Coordinate, Integer> intersectionDirection(GameManager gameManager) {
-        int cursor = this.getIndex();
-        ArrayList<Integer> directions = new ArrayList<Integer>(Arrays.asList(37, 38, 39, 40));
-        HashMap<Coordinate, Integer> possibleMoves = new HashMap<Coordinate, Integer>();
-        MapPiece cursorPiece = null;
-        for (int i = 0; i < directions.size(); i++) {
-            if (directions.get(i) == this.cameFrom) {
-                 continue;
-            } else {
-                if (directions.get(i) == 37) {
-                    cursorPiece = gameManager.getMapPieces().get(cursor - 1);
-                } else if (directions.get(i) == 38) {
-                    cursorPiece = gameManager.getMapPieces().get(cursor - 28);
-                } else if (directions.get(i) == 39) {
-                    cursorPiece = gameManager.getMapPieces().get(cursor + 1);
-                } else if (directions.get(i) == 40) {
-                    cursorPiece = gameManager.getMapPieces().get(cursor + 28);
-                }
-                if (!cursorPiece.getClass().toString().equals("class ghost.WallPiece")) {
-                    possibleMoves.put(cursorPiece.getCoord(), directions.get(i));
-                }
+    @return A 4 bit mask with bit i set if the Ghost can move in direction index i.
+    */
+    public int intersectionDirection(GameManager gameManager) {
+        TileGrid tileGrid = gameManager.getTileGrid();
+        int exits = tileGrid.exits(this.getIndex(tileGrid));
+        return exits & ~(1 << TileGrid.directionIndex(this.cameFrom));
+    }
+
+    /**
+    Returns the possible direction that leads to the space closest to the target provided.
+    <p>
+    Follows the shortest path through the maze if the game has a PathFinder and the target
+    can be reached, otherwise uses the straight line distance from each possible space.
+    Ties are broken in the order Left, Up, Right, Down.
+
+    @param possibleMoves Mask of the directions the Ghost can move at an intersection.
+    @param gameManager The GameManager instance the Ghost is part of.
+    @param targetX The X axis value of the target.
+    @param targetY The Y axis value of the target.
+    @return The integer relating to the direction closest to the target, or 0 if there are no possible moves.
+    */
+    public int closestDirection(int possibleMoves, GameManager gameManager, int targetX, int targetY) {
+        TileGrid tileGrid = gameManager.getTileGrid();
+        return Ghost.closestDirection(this.getIndex(tileGrid), possibleMoves, gameManager, targetX, targetY);
+    }
+
+    /**
+    Returns the possible direction from the space provided that leads to the space closest to the target provided.
+    <p>
+    Shared by every Ghost and by the GhostSwarm, so both steer in exactly the same way.
+
+    @param cursor The index of the space being steered from.
+    @param possibleMoves Mask of the directions that can be moved in from the space.
+    @param gameManager The GameManager instance being steered through.
+    @param targetX The X axis value of the target.
+    @param targetY The Y axis value of the target.
+    @return The integer relating to the direction closest to the target, or 0 if there are no possible moves.
+    */
+    public static int closestDirection(int cursor, int possibleMoves, GameManager gameManager, int targetX, int targetY) {
+        TileGrid tileGrid = gameManager.getTileGrid();
+        PathFinder pathFinder = gameManager.getPathFinder();
+        if (pathFinder != null) {
+            int pathDirection = pathFinder.directionTowards(cursor, possibleMoves, targetX, targetY, gameManager.getCounter());
+            if (pathDirection != 0) {
+                return pathDirection;
             }
         }
-        return possibleMoves;
+        long distance = Long.MAX_VALUE;
+        int directionToGo = 0;
+        for (int i = 0; i < 4; i++) {
+            if ((possibleMoves & (1 << i)) == 0) {
+                continue;
+            }
+            int next = tileGrid.neighbour(cursor, i);
+            long nextDistance = Coordinate.distSq(tileGrid.tileX(next), tileGrid.tileY(next), targetX, targetY);
+            if (nextDistance < distance) {
+                directionToGo = TileGrid.directionKey(i);
+                distance = nextDistance;
+            }
+        }
+        return directionToGo;
     }
 
     /**
     Returns the integer direction value towards the Ghost's Scatter target.
 
-    @param possibleMoves HashMap of Coordinates and the Direction integers 
-        they are in at an intersection. 
+    @param possibleMoves Mask of the directions the Ghost can move at an intersection.
     @param gameManager The GameManager instance the Ghostr is part of.
     @return The integer relating to the direction the Ghost should move towards the Scatter target.
     */
-    public abstract int wayToScatter(HashMap<Coordinate, Integer> possibleMoves, GameManager gameManager);
+    public abstract int wayToScatter(int possibleMoves, GameManager gameManager);
 
     /**
     Returns the integer direction value towards the Ghost's Chase target.
 
-    @param possibleMoves HashMap of Coordinates and the Direction integers
-        they are in at an intersection.
+    @param possibleMoves Mask of the directions the Ghost can move at an intersection.
     @param gameManager The GameManager instance the Ghost is part of.
     @return The integer relating to the direction the Ghost should go to to get to the Chase target. 
     */
-    public abstract int wayToChase(HashMap<Coordinate, Integer> possibleMoves, GameManager gameManager);
+    public abstract int wayToChase(int possibleMoves, GameManager gameManager);
 
     /**
     Returns a random direction integer out of the possible directions the Ghost can move.
+    <p>
+    Uses the game's own random number generator, so the choice is repeatable for a given seed.
 
-    @param possibleMoves HashMap of Coordinates and the Direction integers
-        they are in at an intersection.
+    @param possibleMoves Mask of the directions the Ghost can move at an intersection.
     @param gameManager The GameManager instance the Ghost is part of.
     @return A random direction out of the possible directions the Ghost can move.
     */
-    public int wayToFrighten(HashMap<Coordinate, Integer> possibleMoves, GameManager gameManager) {
-        int length = possibleMoves.size();
+    public int wayToFrighten(int possibleMoves, GameManager gameManager) {
+        return Ghost.randomDirection(possibleMoves, this.direction, gameManager.getRandom());
+    }
+
+    /**
+    Returns a random direction out of the possible directions provided.
+    <p>
+    Shared by every Ghost and by the GhostSwarm, so both make the same random choices for a given seed.
+
+    @param possibleMoves Mask of the directions that can be moved in.
+    @param currentDirection The direction to keep if there are no possible moves.
+    @param random The game's random number generator.
+    @return A random direction out of the possible directions.
+    */
+    public static int randomDirection(int possibleMoves, int currentDirection, GameRandom random) {
+        int length = Integer.bitCount(possibleMoves);
         if (length == 0) {
-            return this.direction;
+            return currentDirection;
         }
-        Random rand = new Random();
-        int randomMoveIndex = rand.nextInt(length);
-        Collection<Integer> possibleMoveList = possibleMoves.values();
-        Integer[] x = possibleMoveList.toArray(new Integer[length]);
-        int directionToGo = x[randomMoveIndex];
-        return directionToGo;
+        int randomMoveIndex = random.nextInt(length);
+        for (int i = 0; i < 4; i++) {
+            if ((possibleMoves & (1 << i)) != 0) {
+                if (randomMoveIndex == 0) {
+                    return TileGrid.directionKey(i);
+                }
+                randomMoveIndex--;
+            }
+        }
+        return currentDirection;
     }
 
     /**
     Frightens the Ghost.
     <p>
     Changes the Ghost's image to the frightened one if it can move.
-    @param app The app the Ghost is part of.
     */
-    public void frighten(PApplet app) {
+    public void frighten() {
         if (this.canMove) {
-            PImage scared = app.loadImage("src/main/resources/frightened.png");
-            this.setSprite(scared);
+            this.setSprite(SpriteAtlas.FRIGHTENED);
         }
     }
 
     /**
     Changes the Ghost's image back to it's normal sprite.
-    
-    @param app The app this Ghost is part of.
     */
-    public abstract void beBrave(PApplet app);
+    public abstract void beBrave();
 
     /**
     Changes the Ghost's image to wavy sprite.
-    <p>
-    @param app The app this Ghost is part of.
     */
-    public void wavyTime(PApplet app) {
+    public void wavyTime() {
         if (this.canMove) {
-            PImage wavy = app.loadImage("src/main/resources/wavy.png");
-            this.setSprite(wavy);
+            this.setSprite(SpriteAtlas.WAVY);
         }
     }
 
@@ -292,17 +437,18 @@ public abstract class Ghost {
     Moves the Ghost to the bottom right corner.
     <p>
     Puts the Ghost into Ghost jail if it is frightened and collides with the Waka.
+    Ghost jail is along the bottom row of the map, filling up from the right.
     Stops the Ghost from moving and changes the sprite to it's normal image.
     
-    @param app The app this Ghost is part of.
     @param numberDead The number of Ghosts currently in Ghost jail.
+    @param tileGrid The grid of the map the Ghost is moving through.
     */
-    public void destroy(PApplet app, int numberDead) {
-        this.x = 412 - (32 * numberDead);
-        this.y = 542;
-        this.coord = new Coordinate(this.x + 6, this.y + 6);
+    public void destroy(int numberDead, TileGrid tileGrid) {
+        this.x = tileGrid.pixelWidth() - 36 - (32 * numberDead);
+        this.y = tileGrid.pixelHeight() - 34;
         this.canMove = false;
-        this.beBrave(app);
+        this.updateHash();
+        this.beBrave();
     }
 
     /**
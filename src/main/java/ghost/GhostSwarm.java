@@ -0,0 +1,590 @@
+package ghost;
+
+import java.util.ArrayList;
+
+/**
+A population of Ghosts kept as parallel arrays rather than as separate Ghost objects.
+<p>
+Used in swarm mode, where thousands of Ghosts make following a pointer to each Ghost object the
+bottleneck. Ghost i is described by the i-th entry of each array, and its behaviour is chosen by
+switching on its type code instead of by a virtual call on Chaser, Ambusher, Ignorant or Whim.
+Each tick a single pass steers, moves and checks every Ghost against the Waka, allocating nothing.
+<p>
+Steering follows exactly the same rules as the Ghost classes, so a swarm built from a map's Ghosts
+plays out identically to those Ghosts for the same seed and input.
+Ghosts in jail are skipped entirely until a life is lost.
+*/
+public class GhostSwarm {
+
+    public static final int AMBUSHER = 0;
+    public static final int CHASER = 1;
+    public static final int IGNORANT = 2;
+    public static final int WHIM = 3;
+
+    public static final int NORMAL = 0;
+    public static final int FRIGHTENED = 1;
+    public static final int WAVY = 2;
+    public static final int JAILED = 3;
+
+    public static final int STATE_SIZE = 7;
+
+    private int size;
+    private int[] x;
+    private int[] y;
+    private int[] direction;
+    private int[] cameFrom;
+    private int[] state;
+    private int[] type;
+    private int[] startX;
+    private int[] startY;
+    private int[] targetX;
+    private int[] targetY;
+    private int[] hits;
+    private int hitCount;
+
+    /**
+    Constructs a new GhostSwarm by repeating the Ghosts provided in turn.
+
+    @param templates The Ghosts to copy, usually the map's own Ghosts.
+    @param size The number of Ghosts in the swarm; 0 if there are no templates.
+    */
+    public GhostSwarm(ArrayList<Ghost> templates, int size) {
+        this.size = templates.isEmpty() ? 0 : size;
+        this.x = new int[this.size];
+        this.y = new int[this.size];
+        this.direction = new int[this.size];
+        this.cameFrom = new int[this.size];
+        this.state = new int[this.size];
+        this.type = new int[this.size];
+        this.startX = new int[this.size];
+        this.startY = new int[this.size];
+        this.targetX = new int[this.size];
+        this.targetY = new int[this.size];
+        this.hits = new int[this.size];
+        this.hitCount = 0;
+        for (int i = 0; i < this.size; i++) {
+            Ghost template = templates.get(i % templates.size());
+            this.x[i] = template.getX();
+            this.y[i] = template.getY();
+            this.direction[i] = template.getDirection();
+            this.cameFrom[i] = template.cameFrom;
+            this.state[i] = NORMAL;
+            this.type[i] = GhostSwarm.typeOf(template);
+            this.startX[i] = template.getX();
+            this.startY[i] = template.getY();
+            this.targetX[i] = template.getTarget().getX();
+            this.targetY[i] = template.getTarget().getY();
+        }
+    }
+
+    /**
+    Returns the type code of the Ghost provided.
+
+    @param ghost The Ghost.
+    @return AMBUSHER, CHASER, IGNORANT or WHIM.
+    */
+    public static int typeOf(Ghost ghost) {
+        if (ghost instanceof Ambusher) {
+            return AMBUSHER;
+        } else if (ghost instanceof Chaser) {
+            return CHASER;
+        } else if (ghost instanceof Ignorant) {
+            return IGNORANT;
+        }
+        return WHIM;
+    }
+
+    /**
+    Returns the number of Ghosts in the swarm.
+
+    @return The size of the swarm.
+    */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+    Returns the X axis value of a Ghost.
+
+    @param i The number of the Ghost.
+    @return The Ghost's X axis value.
+    */
+    public int getX(int i) {
+        return this.x[i];
+    }
+
+    /**
+    Returns the Y axis value of a Ghost.
+
+    @param i The number of the Ghost.
+    @return The Ghost's Y axis value.
+    */
+    public int getY(int i) {
+        return this.y[i];
+    }
+
+    /**
+    Returns the direction a Ghost last moved in.
+
+    @param i The number of the Ghost.
+    @return The Ghost's direction.
+    */
+    public int getDirection(int i) {
+        return this.direction[i];
+    }
+
+    /**
+    Returns the state of a Ghost.
+
+    @param i The number of the Ghost.
+    @return NORMAL, FRIGHTENED, WAVY or JAILED.
+    */
+    public int getState(int i) {
+        return this.state[i];
+    }
+
+    /**
+    Returns the type of a Ghost.
+
+    @param i The number of the Ghost.
+    @return AMBUSHER, CHASER, IGNORANT or WHIM.
+    */
+    public int getType(int i) {
+        return this.type[i];
+    }
+
+    /**
+    Returns the X axis value of the target a Ghost last steered towards.
+
+    @param i The number of the Ghost.
+    @return The X axis value of the Ghost's target.
+    */
+    public int getTargetX(int i) {
+        return this.targetX[i];
+    }
+
+    /**
+    Returns the Y axis value of the target a Ghost last steered towards.
+
+    @param i The number of the Ghost.
+    @return The Y axis value of the Ghost's target.
+    */
+    public int getTargetY(int i) {
+        return this.targetY[i];
+    }
+
+    /**
+    Returns the sprite ID a Ghost should be drawn with.
+
+    @param i The number of the Ghost.
+    @return The Ghost's sprite ID.
+    */
+    public int sprite(int i) {
+        if (this.state[i] == FRIGHTENED) {
+            return SpriteAtlas.FRIGHTENED;
+        } else if (this.state[i] == WAVY) {
+            return SpriteAtlas.WAVY;
+        }
+        switch (this.type[i]) {
+            case AMBUSHER:
+                return SpriteAtlas.AMBUSHER;
+            case CHASER:
+                return SpriteAtlas.CHASER;
+            case IGNORANT:
+                return SpriteAtlas.IGNORANT;
+            default:
+                return SpriteAtlas.WHIM;
+        }
+    }
+
+    /**
+    Steers and moves every Ghost that is not in jail, and records which of them overlap the Waka.
+    <p>
+    Ghosts that are aligned with the grid pick a new direction for the game's current mode,
+    or a random one while frightened; the rest carry on in their current direction.
+
+    @param gameManager The game the swarm is part of.
+    */
+    public void update(GameManager gameManager) {
+        TileGrid tileGrid = gameManager.getTileGrid();
+        Waka waka = gameManager.getWaka();
+        int speed = gameManager.getSpeed();
+        int mode = gameManager.currentMode();
+        boolean frightened = gameManager.getFrightened();
+        int wakaLeft = waka.getX() + Waka.HITBOX_OFFSET_X;
+        int wakaTop = waka.getY() + Waka.HITBOX_OFFSET_Y;
+        this.hitCount = 0;
+        for (int i = 0; i < this.size; i++) {
+            if (this.state[i] == JAILED) {
+                continue;
+            }
+            int ghostX = this.x[i];
+            int ghostY = this.y[i];
+            int moveDirection = this.direction[i];
+            if ((ghostX + 6) % 16 == 0 && (ghostY + 6) % 16 == 0) {
+                int cursor = tileGrid.indexAt(ghostX + 6, ghostY + 6);
+                int possibleMoves = tileGrid.exits(cursor) & ~(1 << TileGrid.directionIndex(this.cameFrom[i]));
+                if (frightened) {
+                    moveDirection = Ghost.randomDirection(possibleMoves, moveDirection, gameManager.getRandom());
+                } else if (mode == GameManager.CHASE) {
+                    moveDirection = this.wayToChase(i, cursor, possibleMoves, gameManager);
+                } else if (mode == GameManager.SCATTER) {
+                    moveDirection = this.wayToScatter(i, cursor, possibleMoves, gameManager);
+                } else {
+                    moveDirection = 0;
+                }
+            }
+            if (moveDirection == 38) {
+                ghostY -= speed;
+            } else if (moveDirection == 40) {
+                ghostY += speed;
+            } else if (moveDirection == 39) {
+                ghostX += speed;
+            } else if (moveDirection == 37) {
+                ghostX -= speed;
+            }
+            ghostX = tileGrid.wrapX(ghostX + 6) - 6;
+            ghostY = tileGrid.wrapY(ghostY + 6) - 6;
+            this.x[i] = ghostX;
+            this.y[i] = ghostY;
+            this.direction[i] = moveDirection;
+            this.cameFrom[i] = GhostSwarm.opposite(moveDirection);
+            if (tileGrid.overlaps(wakaLeft, wakaTop, Waka.HITBOX_SIZE,
+                    ghostX + Ghost.HITBOX_OFFSET, ghostY + Ghost.HITBOX_OFFSET, Ghost.HITBOX_SIZE)) {
+                this.hits[this.hitCount] = i;
+                this.hitCount++;
+            }
+        }
+    }
+
+    /**
+    Returns the number of Ghosts that overlapped the Waka after the last update.
+
+    @return The number of overlapping Ghosts.
+    */
+    public int getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+    Returns one of the Ghosts that overlapped the Waka after the last update, in order of their numbers.
+
+    @param n The position in the list of overlapping Ghosts, from 0 to getHitCount() - 1.
+    @return The number of the Ghost.
+    */
+    public int getHit(int n) {
+        return this.hits[n];
+    }
+
+    /**
+    Returns the direction that leads a Ghost towards its Scatter target, its type's corner of the map.
+
+    @param i The number of the Ghost.
+    @param cursor The index of the Ghost's space.
+    @param possibleMoves Mask of the directions the Ghost can move.
+    @param gameManager The game the swarm is part of.
+    @return The direction to move in.
+    */
+    private int wayToScatter(int i, int cursor, int possibleMoves, GameManager gameManager) {
+        Map map = gameManager.getMap();
+        Coordinate target;
+        switch (this.type[i]) {
+            case AMBUSHER:
+                target = map.getTopRight();
+                break;
+            case CHASER:
+                target = map.getTopLeft();
+                break;
+            case IGNORANT:
+                target = map.getBottomLeft();
+                break;
+            default:
+                target = map.getBottomRight();
+                break;
+        }
+        return this.steer(i, cursor, possibleMoves, gameManager, target.getX(), target.getY());
+    }
+
+    /**
+    Returns the direction that leads a Ghost towards its Chase target, as chosen by its type.
+
+    @param i The number of the Ghost.
+    @param cursor The index of the Ghost's space.
+    @param possibleMoves Mask of the directions the Ghost can move.
+    @param gameManager The game the swarm is part of.
+    @return The direction to move in.
+    */
+    private int wayToChase(int i, int cursor, int possibleMoves, GameManager gameManager) {
+        Waka waka = gameManager.getWaka();
+        Coordinate wakaCoord = waka.getCoord();
+        switch (this.type[i]) {
+            case CHASER:
+                return this.steer(i, cursor, possibleMoves, gameManager, wakaCoord.getX(), wakaCoord.getY());
+            case AMBUSHER:
+                return this.aheadOfWaka(i, cursor, possibleMoves, gameManager, 4, -1);
+            case WHIM:
+                return this.aheadOfWaka(i, cursor, possibleMoves, gameManager, 2, this.firstChaser());
+            default:
+                return this.ignorantChase(i, cursor, possibleMoves, gameManager);
+        }
+    }
+
+    /**
+    Steers a Ghost towards a space ahead of the Waka, as the Ambusher does, or towards double the
+    vector from a Chaser to that space, as the Whim does.
+
+    @param i The number of the Ghost.
+    @param cursor The index of the Ghost's space.
+    @param possibleMoves Mask of the directions the Ghost can move.
+    @param gameManager The game the swarm is part of.
+    @param spacesAhead The number of grid spaces ahead of the Waka.
+    @param chaser The number of the Chaser to measure from, or -1 to target the space itself.
+    @return The direction to move in.
+    */
+    private int aheadOfWaka(int i, int cursor, int possibleMoves, GameManager gameManager, int spacesAhead, int chaser) {
+        Waka waka = gameManager.getWaka();
+        TileGrid tileGrid = gameManager.getTileGrid();
+        int wakaX = waka.getX() - 4;
+        int wakaY = waka.getY() - 5;
+        int wakaDirection = waka.getDirection();
+        if (wakaDirection == 37) {
+            wakaX = wakaX - (16 * spacesAhead);
+        } else if (wakaDirection == 38) {
+            wakaY = wakaY - (16 * spacesAhead);
+        } else if (wakaDirection == 39) {
+            wakaX = wakaX + (16 * spacesAhead);
+        } else if (wakaDirection == 40) {
+            wakaY = wakaY + (16 * spacesAhead);
+        }
+        if (wakaX < 0) {
+            wakaX = 0;
+        } else if (wakaX > tileGrid.pixelWidth()) {
+            wakaX = tileGrid.pixelWidth();
+        } else if (wakaY < 0) {
+            wakaY = 0;
+        } else if (wakaY > tileGrid.pixelHeight()) {
+            wakaY = tileGrid.pixelHeight();
+        }
+        if (chaser == -1) {
+            return this.steer(i, cursor, possibleMoves, gameManager, wakaX, wakaY);
+        }
+        int chaseX = this.x[chaser] + 6;
+        int chaseY = this.y[chaser] + 6;
+        int xLength = wakaX - chaseX;
+        int yLength = wakaY - chaseY;
+        int targetX = (wakaX > chaseX) ? wakaX + xLength : chaseX + xLength;
+        int targetY = (wakaY > chaseY) ? wakaY + yLength : chaseY + yLength;
+        return this.steer(i, cursor, possibleMoves, gameManager, targetX, targetY);
+    }
+
+    /**
+    Steers a Ghost as the Ignorant does, towards the Waka when far from it and towards
+    the bottom left corner when close.
+
+    @param i The number of the Ghost.
+    @param cursor The index of the Ghost's space.
+    @param possibleMoves Mask of the directions the Ghost can move.
+    @param gameManager The game the swarm is part of.
+    @return The direction to move in.
+    */
+    private int ignorantChase(int i, int cursor, int possibleMoves, GameManager gameManager) {
+        Coordinate wakaCoord = gameManager.getWaka().getCoord();
+        Coordinate bottomLeft = gameManager.getMap().getBottomLeft();
+        long distFromWaka = 128 * 128;
+        if (gameManager.getPathFinder() != null) {
+            Coordinate target = bottomLeft;
+            if (Coordinate.distSq(this.x[i] + 6, this.y[i] + 6, wakaCoord.getX(), wakaCoord.getY()) > distFromWaka) {
+                target = wakaCoord;
+            }
+            return this.steer(i, cursor, possibleMoves, gameManager, target.getX(), target.getY());
+        }
+        TileGrid tileGrid = gameManager.getTileGrid();
+        long distance = Long.MAX_VALUE;
+        int directionToGo = 0;
+        for (int d = 0; d < 4; d++) {
+            if ((possibleMoves & (1 << d)) == 0) {
+                continue;
+            }
+            int next = tileGrid.neighbour(cursor, d);
+            int nextX = tileGrid.tileX(next);
+            int nextY = tileGrid.tileY(next);
+            Coordinate target = bottomLeft;
+            if (Coordinate.distSq(nextX, nextY, wakaCoord.getX(), wakaCoord.getY()) > distFromWaka) {
+                target = wakaCoord;
+            }
+            this.targetX[i] = target.getX();
+            this.targetY[i] = target.getY();
+            long nextDistance = Coordinate.distSq(nextX, nextY, target.getX(), target.getY());
+            if (nextDistance < distance) {
+                directionToGo = TileGrid.directionKey(d);
+                distance = nextDistance;
+            }
+        }
+        return directionToGo;
+    }
+
+    /**
+    Records a Ghost's target and returns the direction that leads it there.
+
+    @param i The number of the Ghost.
+    @param cursor The index of the Ghost's space.
+    @param possibleMoves Mask of the directions the Ghost can move.
+    @param gameManager The game the swarm is part of.
+    @param targetX The X axis value of the target.
+    @param targetY The Y axis value of the target.
+    @return The direction to move in.
+    */
+    private int steer(int i, int cursor, int possibleMoves, GameManager gameManager, int targetX, int targetY) {
+        this.targetX[i] = targetX;
+        this.targetY[i] = targetY;
+        return Ghost.closestDirection(cursor, possibleMoves, gameManager, targetX, targetY);
+    }
+
+    /**
+    Returns the first Chaser in the swarm, which every Whim measures from.
+
+    @return The number of the first Chaser, or -1 if there are none.
+    */
+    private int firstChaser() {
+        for (int i = 0; i < this.size; i++) {
+            if (this.type[i] == CHASER) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+    Returns the opposite direction of the one provided, as Ghost.opposite does.
+
+    @param direction The direction one is travelling.
+    @return The opposite direction.
+    */
+    private static int opposite(int direction) {
+        if (direction == 37) {
+            return 39;
+        } else if (direction == 38) {
+            return 40;
+        } else if (direction == 39) {
+            return 37;
+        }
+        return 38;
+    }
+
+    /**
+    Frightens every Ghost that is not in jail.
+    */
+    public void frighten() {
+        this.setFreeStates(FRIGHTENED);
+    }
+
+    /**
+    Makes every Ghost that is not in jail wavy.
+    */
+    public void wavyTime() {
+        this.setFreeStates(WAVY);
+    }
+
+    /**
+    Returns every Ghost that is not in jail to its normal look.
+    */
+    public void beBrave() {
+        this.setFreeStates(NORMAL);
+    }
+
+    /**
+    Sets the state of every Ghost that is not in jail.
+
+    @param newState The state to set.
+    */
+    private void setFreeStates(int newState) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.state[i] != JAILED) {
+                this.state[i] = newState;
+            }
+        }
+    }
+
+    /**
+    Puts a Ghost into Ghost jail, along the bottom row of the map, where it stops moving.
+
+    @param i The number of the Ghost.
+    @param numberDead The number of Ghosts already in jail.
+    @param tileGrid The grid of the map.
+    */
+    public void destroy(int i, int numberDead, TileGrid tileGrid) {
+        this.x[i] = tileGrid.pixelWidth() - 36 - (32 * numberDead);
+        this.y[i] = tileGrid.pixelHeight() - 34;
+        this.state[i] = JAILED;
+    }
+
+    /**
+    Moves every Ghost back to its starting position, lets it move again and returns it to its normal look.
+    */
+    public void reset() {
+        for (int i = 0; i < this.size; i++) {
+            this.x[i] = this.startX[i];
+            this.y[i] = this.startY[i];
+            this.state[i] = NORMAL;
+        }
+    }
+
+    /**
+    Writes every Ghost's position, direction, the direction it came from, state and target into an array,
+    for a GameSnapshot.
+
+    @param data The array to write into.
+    @param at The position to start writing at.
+    @return The position after the last value written, STATE_SIZE values on for each Ghost.
+    */
+    public int writeState(int[] data, int at) {
+        for (int i = 0; i < this.size; i++) {
+            data[at] = this.x[i];
+            data[at + 1] = this.y[i];
+            data[at + 2] = this.direction[i];
+            data[at + 3] = this.cameFrom[i];
+            data[at + 4] = this.state[i];
+            data[at + 5] = this.targetX[i];
+            data[at + 6] = this.targetY[i];
+            at += STATE_SIZE;
+        }
+        return at;
+    }
+
+    /**
+    Reads back a state written by writeState. The collisions found by the last update are forgotten,
+    as they are always resolved within the tick that found them.
+
+    @param data The array to read from.
+    @param at The position to start reading at.
+    @return The position after the last value read.
+    */
+    public int readState(int[] data, int at) {
+        for (int i = 0; i < this.size; i++) {
+            this.x[i] = data[at];
+            this.y[i] = data[at + 1];
+            this.direction[i] = data[at + 2];
+            this.cameFrom[i] = data[at + 3];
+            this.state[i] = data[at + 4];
+            this.targetX[i] = data[at + 5];
+            this.targetY[i] = data[at + 6];
+            at += STATE_SIZE;
+        }
+        this.hitCount = 0;
+        return at;
+    }
+
+    /**
+    Puts every Ghost back exactly as it was when the swarm was constructed, so it can be reused for a new game.
+    */
+    public void restart() {
+        this.reset();
+        for (int i = 0; i < this.size; i++) {
+            this.direction[i] = 39;
+            this.cameFrom[i] = GhostSwarm.opposite(39);
+            this.targetX[i] = this.startX[i] + 6;
+            this.targetY[i] = this.startY[i] + 6;
+        }
+        this.hitCount = 0;
+    }
+}
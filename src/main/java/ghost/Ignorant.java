@@ -1,7 +1,5 @@
 package ghost;
 
-import processing.core.PApplet;
-import processing.core.PImage;
 import java.util.*;
 
 /**
@@ -20,12 +18,11 @@ public class Ignorant extends Ghost {
     <p>
     The instance stores it's parameters as it's variables.
 
-    @param app The App instance the Ignorant is part of.
     @param x The starting x coordinate of the Ignorant.
     @param y the starting y coordinate of the Ignorant.
     */
-    public Ignorant(PApplet app, int x, int y) {
-        super(app, x, y);
+    public Ignorant(int x, int y) {
+        super(x, y);
     }
 
     /** 
@@ -33,26 +30,17 @@ public class Ignorant extends Ghost {
     <p>
     The Ignorant's Scatter Target is the bottom left corner of the map. 
     Will assign the Ignorant's target as this space. 
-    Takes in a HashMap of possible moves and a GameManager instance.
+    Takes in a mask of possible moves and a GameManager instance.
 
-    @param possibleMoves HashMap of Coordinates and the Direction integers 
-        they are in at an intersection. 
+    @param possibleMoves Mask of the directions the Ignorant can move at an intersection.
     @param gameManager The GameManager instance the Ignorant is part of.
     @return The integer relating to the direction the Ignorant 
         should move to get to the bottom left corner.
     */
-    public int wayToScatter(HashMap<Coordinate, Integer> possibleMoves, GameManager gameManager) {
-        Coordinate target = gameManager.getApp().getMap().getBottomLeft();
-        int distance = 1000000;
-        int directionToGo = 0;
-        for (Coordinate coord : possibleMoves.keySet()) {
-            if (Coordinate.eucliDist(coord, target) < distance) {
-                directionToGo = possibleMoves.get(coord);
-                distance = Coordinate.eucliDist(coord, target);
-            } 
-        }
+    public int wayToScatter(int possibleMoves, GameManager gameManager) {
+        Coordinate target = gameManager.getMap().getBottomLeft();
         this.target = target;
-        return directionToGo;
+        return this.closestDirection(possibleMoves, gameManager, target.getX(), target.getY());
     }
 
     /**
@@ -60,31 +48,49 @@ public class Ignorant extends Ghost {
     <p>
     The Ignorant's chase target is the space the player occupies if the Ignorant is more than 8 grid spaces away. 
     Otherwise, it will target the bottom left corner. 
+    With breadth first pathfinding enabled, the distance is measured from the Ignorant's own space 
+    and the chosen target is followed along the shortest path.
     Will assgin the Ignorant's target as this space. 
-    Takes in a HashMap of possible moves and a GameManager instance.
+    Takes in a mask of possible moves and a GameManager instance.
 
-    @param possibleMoves HashMap of Coordinates and the Direction integers
-        they are in at an intersection.
+    @param possibleMoves Mask of the directions the Ignorant can move at an intersection.
     @param gameManager The GameManager instance the Ignorant is part of.
     @return The integer relating to the direction the Ignorant should go to to get to the Chase target. 
     */
-    public int wayToChase(HashMap<Coordinate, Integer> possibleMoves, GameManager gameManager) {
-        Coordinate wakaCoord = gameManager.getApp().getWaka().getCoord();
-        Coordinate bottomLeft = gameManager.getApp().getMap().getBottomLeft();
+    public int wayToChase(int possibleMoves, GameManager gameManager) {
+        Coordinate wakaCoord = gameManager.getWaka().getCoord();
+        Coordinate bottomLeft = gameManager.getMap().getBottomLeft();
+        if (gameManager.getPathFinder() != null) {
+            if (Coordinate.distSq(this.getCoord(), wakaCoord) > 128 * 128) {
+                this.target = wakaCoord;
+            } else {
+                this.target = bottomLeft;
+            }
+            return this.closestDirection(possibleMoves, gameManager, this.target.getX(), this.target.getY());
+        }
+        TileGrid tileGrid = gameManager.getTileGrid();
+        int cursor = this.getIndex(tileGrid);
         Coordinate target = null;
-        int distance = 1000000;
-        int distFromWaka = 8 * 16;
+        long distance = Long.MAX_VALUE;
+        long distFromWaka = 128 * 128;
         int directionToGo = 0;
-        for (Coordinate coord : possibleMoves.keySet()) {
-            if (Coordinate.eucliDist(coord, wakaCoord) > distFromWaka) {
+        for (int i = 0; i < 4; i++) {
+            if ((possibleMoves & (1 << i)) == 0) {
+                continue;
+            }
+            int next = tileGrid.neighbour(cursor, i);
+            int nextX = tileGrid.tileX(next);
+            int nextY = tileGrid.tileY(next);
+            if (Coordinate.distSq(nextX, nextY, wakaCoord.getX(), wakaCoord.getY()) > distFromWaka) {
                 target = wakaCoord;
             } else {
                 target = bottomLeft;
             }
-            if (Coordinate.eucliDist(coord, target) < distance) {
-                directionToGo = possibleMoves.get(coord);
-                distance = Coordinate.eucliDist(coord, target);
-            } 
+            long nextDistance = Coordinate.distSq(nextX, nextY, target.getX(), target.getY());
+            if (nextDistance < distance) {
+                directionToGo = TileGrid.directionKey(i);
+                distance = nextDistance;
+            }
         }
         this.target = target;
         return directionToGo;
@@ -92,11 +98,8 @@ public class Ignorant extends Ghost {
 
     /**
     Changes the Ignorant's sprite to it's original image.
-
-    @param app The App instance the Ignorant is part of.
-     */
-    public void beBrave(PApplet app) {
-        PImage sprite = app.loadImage("src/main/resources/ignorant.png");
-        this.setSprite(sprite);
+    */
+    public void beBrave() {
+        this.setSprite(SpriteAtlas.IGNORANT);
     }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package ghost;
+
+/**
+An interface for anything that can play the game in place of a person at the keyboard.
+<p>
+Asked for a key once per tick, before the game is advanced.
+*/
+interface InputPolicy {
+
+    /**
+    Returns the key to hold for the next tick of the game provided.
+
+    @param gameManager The game being played.
+    @return The key code to hold, from 37 to 40, or 0 for no key.
+    */
+    public int nextKey(GameManager gameManager);
+
+}
@@ -0,0 +1,151 @@
+package ghost;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+A fixed size histogram of non-negative values, such as timings in nanoseconds or byte counts.
+<p>
+Buckets are laid out log-linearly in the same way as an HdrHistogram with two significant digits:
+values below 128 each have their own bucket, and every doubling above that is split into 64 equal buckets.
+Any value is recorded to within 1/64 of itself, all in 3712 counts that are allocated up front,
+so recording takes constant time and never allocates.
+<p>
+Values must be recorded from a single thread, but the histogram may be read from any thread,
+such as by a JMX client or a MetricsReporter, while it is being recorded to.
+*/
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = ((63 - SUB_BUCKET_BITS) * SUB_BUCKETS) + SUB_BUCKETS;
+
+    private AtomicLongArray counts;
+    private AtomicLong totalCount;
+    private AtomicLong totalValue;
+    private AtomicLong max;
+
+    /**
+    Constructs a new, empty LatencyHistogram.
+    */
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.totalCount = new AtomicLong();
+        this.totalValue = new AtomicLong();
+        this.max = new AtomicLong();
+    }
+
+    /**
+    Returns the bucket the value provided is counted in.
+
+    @param value The value, 0 or above.
+    @return The index of the value's bucket.
+    */
+    static int bucketOf(long value) {
+        int shift = Math.max(0, (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS);
+        return (shift * SUB_BUCKETS) + (int) (value >>> shift);
+    }
+
+    /**
+    Returns the highest value counted in the bucket provided.
+
+    @param bucket The index of the bucket.
+    @return The highest value the bucket holds.
+    */
+    static long highestValueIn(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket / SUB_BUCKETS) - 1;
+        long subBucket = bucket - (shift * SUB_BUCKETS);
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+    Records a single value. Negative values are recorded as 0.
+
+    @param value The value to record.
+    */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        int bucket = LatencyHistogram.bucketOf(value);
+        this.counts.lazySet(bucket, this.counts.get(bucket) + 1);
+        this.totalCount.lazySet(this.totalCount.get() + 1);
+        this.totalValue.lazySet(this.totalValue.get() + value);
+        if (value > this.max.get()) {
+            this.max.lazySet(value);
+        }
+    }
+
+    /**
+    Returns the number of values recorded.
+
+    @return The number of values recorded.
+    */
+    public long getCount() {
+        return this.totalCount.get();
+    }
+
+    /**
+    Returns the largest value recorded, exactly.
+
+    @return The largest value, or 0 if none have been recorded.
+    */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+    Returns the mean of the values recorded.
+
+    @return The mean value, or 0 if none have been recorded.
+    */
+    public double getMean() {
+        long count = this.totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        return (double) this.totalValue.get() / count;
+    }
+
+    /**
+    Returns the value at the percentile provided.
+    <p>
+    Gives the highest value in the bucket holding the percentile, so the result is never below the
+    true value and is at most 1/64 above it. Never gives more than the largest value recorded.
+
+    @param percentile The percentile, from 0 to 100.
+    @return The value at the percentile, or 0 if none have been recorded.
+    */
+    public long getValueAtPercentile(double percentile) {
+        long count = this.totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil((Math.min(percentile, 100.0) / 100.0) * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.counts.get(i);
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestValueIn(i), this.max.get());
+            }
+        }
+        return this.max.get();
+    }
+
+    /**
+    Forgets every value recorded.
+    <p>
+    Should only be called while nothing is being recorded, or a value being recorded may be partly kept.
+    */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.counts.set(i, 0);
+        }
+        this.totalCount.set(0);
+        this.totalValue.set(0);
+        this.max.set(0);
+    }
+}
@@ -1,9 +1,6 @@
 package ghost;
 
 import java.util.*;
-import java.io.*;
-import processing.core.PImage;
-import processing.core.PApplet;
 
 /**
 Represents the Map of the game which the player and ghosts will move through.
@@ -14,6 +11,10 @@ public class Map {
     private HashMap<String, Coordinate> ghostStart;
     private Coordinate playerStart;
     private int fruitCount;
+    private MapData data;
+    private TileGrid tileGrid;
+    private int width;
+    private int height;
     private Coordinate topLeft;
     private Coordinate topRight;
     private Coordinate bottomLeft;
@@ -22,42 +23,41 @@ public class Map {
     /**
     Constructs a new Map instance from the provided file path.
     <p>
-    Reads through the map list and creates the starting coordinates 
+    Reads the map file once and creates the starting coordinates 
     of the player and ghosts.
+    The file may be a text map or a ".wmap" cache of one; see MapData.
+    The size of the map is taken from the file: one row per line, as wide as its longest line.
 
     @param filepath The path to the Map's text file.
+    @throws IllegalArgumentException If the file cannot be read.
     */
     public Map(String filepath) {
         this.filepath = filepath;
-        ArrayList<Integer> xCoords = new ArrayList<Integer>();
-        ArrayList<Integer> yCoords = new ArrayList<Integer>();
-        for (int i = 0; i < 28; i++) {
-            xCoords.add(i*16);
-        }
-        for (int i = 0; i < 36; i++) {
-            yCoords.add(i*16);
-        }
         this.ghostStart = new HashMap<String, Coordinate>();
         this.playerStart = null;
-        ArrayList<ArrayList<String>> mapList = this.getMapList();
-        ArrayList<String> ghostCodes = new ArrayList<String>(Arrays.asList("a", "c", "i", "w"));
-        for (int i = 0; i < mapList.size(); i++) {
-            for (int j = 0; j < mapList.get(i).size(); j++) {
-                String element = mapList.get(i).get(j);
-                int x = xCoords.get(j);
-                int y = yCoords.get(i);
-                if (element.equals("p")) {
-                    this.playerStart = new Coordinate(x-4, y-5);
-                } else if (ghostCodes.contains(element)) {
-                    Coordinate ghostStartSpot = new Coordinate(x-6, y-6);
-                    this.ghostStart.put(element, ghostStartSpot);
-                }
+        this.data = MapData.load(filepath);
+        if (this.data == null) {
+            throw new IllegalArgumentException("Could not read map file " + filepath);
+        }
+        this.width = this.data.getWidth();
+        this.height = this.data.getHeight();
+        for (int i = 0; i < this.width * this.height; i++) {
+            byte code = this.data.code(i);
+            int x = (i % this.width) * TileGrid.TILE_SIZE;
+            int y = (i / this.width) * TileGrid.TILE_SIZE;
+            if (code == 'p') {
+                this.playerStart = Coordinate.of(x-4, y-5);
+            } else if (Map.isGhostCode(code)) {
+                Coordinate ghostStartSpot = Coordinate.of(x-6, y-6);
+                this.ghostStart.put(String.valueOf((char) code), ghostStartSpot);
             }
         }
-        this.topLeft = new Coordinate(0, 0);
-        this.topRight = new Coordinate(432, 0);
-        this.bottomLeft = new Coordinate(0, 560);
-        this.bottomRight = new Coordinate(432, 560);
+        this.topLeft = Coordinate.of(0, 0);
+        int right = (this.width - 1) * TileGrid.TILE_SIZE;
+        int bottom = (this.height - 1) * TileGrid.TILE_SIZE;
+        this.topRight = Coordinate.of(right, 0);
+        this.bottomLeft = Coordinate.of(0, bottom);
+        this.bottomRight = Coordinate.of(right, bottom);
         this.fruitCount = 0;
     }
 
@@ -79,6 +79,43 @@ public class Map {
         return this.ghostStart;
     }
 
+    /**
+    Returns the number of grid spaces in each row of the map.
+
+    @return The width of the map in grid spaces.
+    */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+    Returns the number of rows in the map.
+
+    @return The height of the map in grid spaces.
+    */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+    Returns the raw contents of the map file.
+
+    @return The map's MapData.
+    */
+    public MapData getMapData() {
+        return this.data;
+    }
+
+    /**
+    Returns if the code provided marks a Ghost's starting position.
+
+    @param code The map code.
+    @return True if the code is a, c, i or w, False otherwise.
+    */
+    private static boolean isGhostCode(byte code) {
+        return code == 'a' || code == 'c' || code == 'i' || code == 'w';
+    }
+
     /**
     Returns the total amount of fruit on the map.
     
@@ -88,6 +125,15 @@ public class Map {
         return this.fruitCount;
     }
 
+    /**
+    Returns the grid of tile types built by the last call to makeMapPieces.
+    
+    @return The map's TileGrid.
+    */
+    public TileGrid getTileGrid() {
+        return this.tileGrid;
+    }
+
     /**
     Returns the coordinate of the top left corner.
     
@@ -124,65 +170,34 @@ public class Map {
         return this.bottomRight;
     }
 
-    /**
-    Creates a 2 dimensional list out of the Map's text file.
-    <p>
-    Traverses through the text file provided and moves each element into a 2 dimensional list.
-    
-    @return A 2 dimensional list of each element in the map's text file.
-    */
-    public ArrayList<ArrayList<String>> getMapList() {
-        ArrayList<ArrayList<String>> mapList = new ArrayList<ArrayList<String>>();
-        try {
-            File mapFile = new File(this.filepath);
-            Scanner mapScan = new Scanner(mapFile);
-            while (mapScan.hasNextLine()) {
-                String[] mapLineArr = mapScan.nextLine().split("");
-                ArrayList<String> mapLineList = new ArrayList<String>();
-                for (int i = 0; i < mapLineArr.length; i++) {
-                    mapLineList.add(mapLineArr[i]);
-                } 
-                mapList.add(mapLineList);
-            }
-        } catch (FileNotFoundException e) {
-            return null;
-        }
-        return mapList;
-    }
-
     /**
     Creates a list of Ghosts from the HashMap of ghost starting coordinates.
     
-    @param app The app which the Ghosts will belong to.
     @return A list of the Ghosts in the map.
     */
-    public ArrayList<Ghost> getGhosts(PApplet app) {
+    public ArrayList<Ghost> getGhosts() {
         ArrayList<Ghost> ghosts = new ArrayList<Ghost>();
         Coordinate ghostStartSpot = null;
         for (String ghostType : this.ghostStart.keySet()) {
             if (ghostType.equals("a")) {
                 ghostStartSpot = this.ghostStart.get("a");
-                Ambusher ghost = new Ambusher(app, ghostStartSpot.getX(), ghostStartSpot.getY());
-                PImage ambushSprite = app.loadImage("src/main/resources/ambusher.png");
-                ghost.setSprite(ambushSprite);
+                Ambusher ghost = new Ambusher(ghostStartSpot.getX(), ghostStartSpot.getY());
+                ghost.setSprite(SpriteAtlas.AMBUSHER);
                 ghosts.add(ghost);
             } else if (ghostType.equals("c")) {
                 ghostStartSpot = this.ghostStart.get("c");
-                Chaser ghost = new Chaser(app, ghostStartSpot.getX(), ghostStartSpot.getY());
-                PImage chaseSprite = app.loadImage("src/main/resources/chaser.png");
-                ghost.setSprite(chaseSprite);
+                Chaser ghost = new Chaser(ghostStartSpot.getX(), ghostStartSpot.getY());
+                ghost.setSprite(SpriteAtlas.CHASER);
                 ghosts.add(ghost);
             } else if (ghostType.equals("i")) {
                 ghostStartSpot = this.ghostStart.get("i");
-                Ignorant ghost = new Ignorant(app, ghostStartSpot.getX(), ghostStartSpot.getY());
-                PImage ignorSprite = app.loadImage("src/main/resources/ignorant.png");
-                ghost.setSprite(ignorSprite);
+                Ignorant ghost = new Ignorant(ghostStartSpot.getX(), ghostStartSpot.getY());
+                ghost.setSprite(SpriteAtlas.IGNORANT);
                 ghosts.add(ghost);
             } else if (ghostType.equals("w")) {
                 ghostStartSpot = this.ghostStart.get("w");
-                Whim ghost = new Whim(app, ghostStartSpot.getX(), ghostStartSpot.getY());
-                PImage whimSprite = app.loadImage("src/main/resources/whim.png");
-                ghost.setSprite(whimSprite);
+                Whim ghost = new Whim(ghostStartSpot.getX(), ghostStartSpot.getY());
+                ghost.setSprite(SpriteAtlas.WHIM);
                 ghosts.add(ghost);
             }
         }
@@ -190,9 +205,12 @@ public class Map {
     }
 
     /**
-    Creates a list of MapPieces which relates to the 2 dimensional provided provided.
+    Creates a list of MapPieces from the codes in the map file.
     <p>
-    Each element in the provided list relates to a certain MapPiece or staring position for the Waka or Ghosts.
+    Each code relates to a certain MapPiece or staring position for the Waka or Ghosts.
+    Also fills the map's TileGrid with the type of each piece, unrecognised codes being treated as walls.
+    The file is only read once, by the constructor, so a new level can be built without reading it again.
+    Spaces past the end of a shorter row are walls with no piece.
     0 - EmptyPiece
     1 - Horizontal WallPiece
     2 - Vertical WallPiece
@@ -203,68 +221,80 @@ public class Map {
     7 - FruitPiece
     8 - SuperFruit
     9 - SodaCan
+    t - Tunnel, an empty space on the edge of the map leading to the tunnel at the opposite edge
     p - Waka starting position
     a - Ambusher
     c - Chaser
     i - Ignorant
     w - Whim
 
-    @param mapList 2 dimensional list of map piece codes.
-    @param app The app which the map will be drawn on.
     @return A list of MapPieces to be used in the app.
     */
-    public ArrayList<MapPiece> makeMapPieces(ArrayList<ArrayList<String>> mapList, PApplet app) {
+    public ArrayList<MapPiece> makeMapPieces() {
         this.fruitCount = 0;
-        ArrayList<MapPiece> mapPieceList = new ArrayList<MapPiece>();
-        ArrayList<Integer> xCoords = new ArrayList<Integer>();
-        ArrayList<Integer> yCoords = new ArrayList<Integer>();
-        for (int i = 0; i < 28; i++) {
-            xCoords.add(i*16);
-        }
-        for (int i = 0; i < 36; i++) {
-            yCoords.add(i*16);
-        }
-        int counter = 0;
-        for (int i = 0; i < mapList.size(); i++) {
-            for (int j = 0; j < mapList.get(i).size(); j++) {
-                String element = mapList.get(i).get(j);
-                int x = xCoords.get(j);
-                int y = yCoords.get(i);
-                MapPiece piece = null;
-                ArrayList<String> ghostCodes = new ArrayList<String>(Arrays.asList("a", "c", "i", "w"));
-                if (element.equals("0")) {
+        this.tileGrid = new TileGrid(this.width, this.height);
+        ArrayList<MapPiece> mapPieceList = new ArrayList<MapPiece>(this.tileGrid.size());
+        for (int i = 0; i < this.tileGrid.size(); i++) {
+            byte code = this.data.code(i);
+            int x = (i % this.width) * TileGrid.TILE_SIZE;
+            int y = (i / this.width) * TileGrid.TILE_SIZE;
+            MapPiece piece = null;
+            byte type = TileGrid.WALL;
+            switch (code) {
+                case '0':
+                case 'p':
                     piece = new EmptyPiece(x, y);
-                } else if (element.equals("1")) {
-                    piece = new WallPiece(app.loadImage("src/main/resources/horizontal.png"), x, y);
-                } else if (element.equals("2")) {
-                    piece = new WallPiece(app.loadImage("src/main/resources/vertical.png"), x, y);
-                } else if (element.equals("3")) {
-                    piece = new WallPiece(app.loadImage("src/main/resources/upLeft.png"), x, y);
-                } else if (element.equals("4")) {
-                    piece = new WallPiece(app.loadImage("src/main/resources/upRight.png"), x, y);
-                } else if (element.equals("5")) {
-                    piece = new WallPiece(app.loadImage("src/main/resources/downLeft.png"), x, y);
-                } else if (element.equals("6")) {
-                    piece = new WallPiece(app.loadImage("src/main/resources/downRight.png"), x, y);
-                } else if (element.equals("7")) {
-                    piece = new FruitPiece(app.loadImage("src/main/resources/fruit.png"), x, y);
-                    this.fruitCount++;
-                } else if (element.equals("8")) {
-                    piece = new SuperFruit(app.loadImage("src/main/resources/superfruit.png"), x, y);
+                    type = TileGrid.EMPTY;
+                    break;
+                case 't':
+                    piece = new EmptyPiece(x, y);
+                    type = TileGrid.EMPTY;
+                    this.tileGrid.setTunnel(i);
+                    break;
+                case '1':
+                    piece = new WallPiece(SpriteAtlas.HORIZONTAL, x, y);
+                    break;
+                case '2':
+                    piece = new WallPiece(SpriteAtlas.VERTICAL, x, y);
+                    break;
+                case '3':
+                    piece = new WallPiece(SpriteAtlas.UP_LEFT, x, y);
+                    break;
+                case '4':
+                    piece = new WallPiece(SpriteAtlas.UP_RIGHT, x, y);
+                    break;
+                case '5':
+                    piece = new WallPiece(SpriteAtlas.DOWN_LEFT, x, y);
+                    break;
+                case '6':
+                    piece = new WallPiece(SpriteAtlas.DOWN_RIGHT, x, y);
+                    break;
+                case '7':
+                case 'a':
+                case 'c':
+                case 'i':
+                case 'w':
+                    piece = new FruitPiece(SpriteAtlas.FRUIT, x, y);
+                    type = TileGrid.FRUIT;
                     this.fruitCount++;
-                } else if (element.equals("9")) {
-                    piece = new SodaCan(app.loadImage("src/main/resources/sodacan.png"), x, y);
+                    break;
+                case '8':
+                    piece = new SuperFruit(SpriteAtlas.SUPER_FRUIT, x, y);
+                    type = TileGrid.SUPER_FRUIT;
                     this.fruitCount++;
-                } else if (element.equals("p")) {
-                    piece = new EmptyPiece(x, y);
-                } else if (ghostCodes.contains(element)) {
-                    piece = new FruitPiece(app.loadImage("src/main/resources/fruit.png"), x, y);
+                    break;
+                case '9':
+                    piece = new SodaCan(SpriteAtlas.SODA_CAN, x, y);
+                    type = TileGrid.SODA_CAN;
                     this.fruitCount++;
-                }
-                mapPieceList.add(piece);
-                counter++;
+                    break;
+                default:
+                    break;
             }
+            mapPieceList.add(piece);
+            this.tileGrid.setTile(i, type);
         }
+        this.tileGrid.computeExits();
         return mapPieceList;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,210 @@
+package ghost;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+/**
+The raw contents of a map file: its size and the one character code of every grid space.
+<p>
+Maps are read either from a text file, one row per line, or from a binary ".wmap" cache.
+Both are memory mapped and read byte by byte, so loading a map makes no Strings or lists
+and allocates only the array of codes. A text map is as wide as its longest line, and spaces past
+the end of a shorter line hold the code 0, which is treated as a wall.
+<p>
+A ".wmap" file holds a small header followed by the codes exactly as they are kept in memory,
+so it is loaded with a single bulk copy and no parsing.
+*/
+public class MapData {
+
+    static final int MAGIC = 0x574D4150;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final String CACHE_EXTENSION = ".wmap";
+
+    private int width;
+    private int height;
+    private byte[] codes;
+
+    /**
+    Constructs a new MapData.
+
+    @param width The number of grid spaces in each row.
+    @param height The number of rows.
+    @param codes The code of every grid space, row by row.
+    */
+    public MapData(int width, int height, byte[] codes) {
+        this.width = width;
+        this.height = height;
+        this.codes = codes;
+    }
+
+    /**
+    Reads a map from the file provided, as a ".wmap" cache if its name ends in ".wmap"
+    and as a text map otherwise.
+
+    @param filePath The file path to the map.
+    @return The map read from the file, or null if it could not be read.
+    */
+    public static MapData load(String filePath) {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (filePath.endsWith(CACHE_EXTENSION)) {
+                return MapData.fromCache(buffer);
+            }
+            return MapData.parse(buffer);
+        } catch (IOException e) {
+            return null;
+        } catch (InvalidPathException f) {
+            return null;
+        }
+    }
+
+    /**
+    Parses a text map.
+    <p>
+    Makes one pass to find the size of the map and a second to copy each code into place.
+    Both "\n" and "\r\n" line endings are accepted.
+
+    @param text The bytes of the text map, from its position to its limit.
+    @return The map the text describes.
+    */
+    public static MapData parse(ByteBuffer text) {
+        int start = text.position();
+        int end = text.limit();
+        int width = 0;
+        int height = 0;
+        int lineLength = 0;
+        for (int i = start; i < end; i++) {
+            byte b = text.get(i);
+            if (b == '\n') {
+                width = Math.max(width, lineLength);
+                height++;
+                lineLength = 0;
+            } else if (b != '\r') {
+                lineLength++;
+            }
+        }
+        if (lineLength > 0) {
+            width = Math.max(width, lineLength);
+            height++;
+        }
+        byte[] codes = new byte[width * height];
+        int row = 0;
+        int column = 0;
+        for (int i = start; i < end; i++) {
+            byte b = text.get(i);
+            if (b == '\n') {
+                row++;
+                column = 0;
+            } else if (b != '\r') {
+                codes[(row * width) + column] = b;
+                column++;
+            }
+        }
+        return new MapData(width, height, codes);
+    }
+
+    /**
+    Reads a map from the contents of a ".wmap" cache.
+
+    @param cache The bytes of the cache, from its position to its limit.
+    @return The map held in the cache.
+    @throws IOException If the bytes are not a valid cache.
+    */
+    public static MapData fromCache(ByteBuffer cache) throws IOException {
+        if (cache.remaining() < HEADER_SIZE || cache.getInt() != MAGIC) {
+            throw new IOException("Not a map cache");
+        }
+        int version = cache.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported map cache version " + version);
+        }
+        int width = cache.getInt();
+        int height = cache.getInt();
+        if (width < 0 || height < 0 || (long) width * height != cache.remaining()) {
+            throw new IOException("Map cache is corrupt");
+        }
+        byte[] codes = new byte[width * height];
+        cache.get(codes);
+        return new MapData(width, height, codes);
+    }
+
+    /**
+    Writes the map to the ".wmap" cache file provided.
+
+    @param filePath The file path to write to.
+    @throws IOException If the file cannot be written.
+    */
+    public void save(String filePath) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(this.width).putInt(this.height);
+        header.flip();
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(header);
+            ByteBuffer body = ByteBuffer.wrap(this.codes);
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+    }
+
+    /**
+    Returns the number of grid spaces in each row.
+
+    @return The width of the map.
+    */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+    Returns the number of rows.
+
+    @return The height of the map.
+    */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+    Returns the code of the grid space at the index provided.
+
+    @param index The index of the grid space.
+    @return The character code of the space, or 0 if the space was past the end of its line.
+    */
+    public byte code(int index) {
+        return this.codes[index];
+    }
+
+    /**
+    The main method of the MapData program.
+    <p>
+    Converts each text map given as an argument into a ".wmap" cache beside it,
+    replacing the map's extension.
+
+    @param args The file paths of the text maps to convert.
+    */
+    public static void main(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            MapData data = MapData.load(args[i]);
+            if (data == null) {
+                System.err.println("Could not read map file " + args[i]);
+                continue;
+            }
+            int dot = args[i].lastIndexOf('.');
+            int separator = Math.max(args[i].lastIndexOf('/'), args[i].lastIndexOf('\\'));
+            String name = (dot > separator + 1) ? args[i].substring(0, dot) : args[i];
+            String cachePath = name + CACHE_EXTENSION;
+            try {
+                data.save(cachePath);
+                System.out.println(args[i] + " -> " + cachePath + " (" + data.getWidth() + "x" + data.getHeight() + ")");
+            } catch (IOException e) {
+                System.err.println("Could not write map cache " + cachePath + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package ghost;
 
-import processing.core.PApplet;
+import processing.core.PGraphics;
 
 /**
 An interface for all MapPieces in the game.
@@ -10,11 +10,12 @@ Outline the required methods for the game to run.
 interface MapPiece {
 
     /**
-    Draws the piece's sprite to the app window.
+    Draws the piece's sprite to the canvas provided.
     
-    @param app The app the piece belongs to.
+    @param canvas The surface to draw onto, either the app window or an offscreen layer.
+    @param sprites The atlas holding the piece's image.
     */
-    public void draw(PApplet app);
+    public void draw(PGraphics canvas, SpriteAtlas sprites);
 
     /**
     Returns the piece's coordinate. 
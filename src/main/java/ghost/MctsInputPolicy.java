@@ -0,0 +1,459 @@
+package ghost;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.*;
+
+/**
+Plays the game with a time limited Monte Carlo tree search over the headless tick.
+<p>
+A move is holding one direction until the Waka is next lined up with a tile. The game only turns the
+Waka to a held key once it is lined up, so the direction chosen on one tile is the way it leaves the next;
+a new direction is only searched for when the Waka is lined up and is held in between. The Ghosts in every simulated
+game are the game's own Ambusher, Chaser, Ignorant and Whim behaviours, so the search plays against
+exactly the opponents it will meet. Moves are scored as a WakaEnv scores them.
+<p>
+The search is root parallel: each worker thread keeps its own simulated game and tree, restores the
+real game's GameSnapshot into its game at the start of every rollout, and searches until the deadline
+or its rollout limit. The workers' visit counts for the first move are then added together and the most
+visited move is played. Every search and the number of rollouts it played are recorded in the real game's
+GameMetrics as the SEARCH phase and the ROLLOUTS counter, from which getRolloutsPerSecond is worked out.
+<p>
+With no time limit, a rollout limit and the same seed, the same game is always played the same way.
+*/
+public class MctsInputPolicy implements InputPolicy {
+
+    private static final double EXPLORATION = 1.4;
+    private static final double VALUE_SCALE = 10;
+    private static final double DISCOUNT = 0.95;
+
+    private GameConfig config;
+    private long budgetNanos;
+    private Worker[] workers;
+    private ExecutorService pool;
+    private GameSnapshot root;
+    private int key;
+    private long lastRollouts;
+
+    /**
+    Constructs a new MctsInputPolicy.
+
+    @param config The settings of the games it will play, used to build its simulated games.
+    @param threads The number of worker threads to search on.
+    @param budgetNanos The most time each search may take, or 0 to only stop at the rollout limit.
+    @param maxRollouts The most rollouts each worker plays per search, or 0 to only stop at the time limit.
+    @param rolloutMoves The number of moves played in each rollout, counting those chosen by the tree.
+    @param seed The seed for the workers' random choices.
+    */
+    public MctsInputPolicy(GameConfig config, int threads, long budgetNanos, int maxRollouts, int rolloutMoves,
+            long seed) {
+        if (budgetNanos <= 0 && maxRollouts <= 0) {
+            throw new IllegalArgumentException("A search needs a time limit, a rollout limit or both");
+        }
+        this.config = config;
+        this.budgetNanos = budgetNanos;
+        this.workers = new Worker[Math.max(1, threads)];
+        for (int i = 0; i < this.workers.length; i++) {
+            this.workers[i] = new Worker(config, maxRollouts, rolloutMoves, BatchRunner.gameSeed(seed, i));
+        }
+        this.pool = Executors.newFixedThreadPool(this.workers.length, runnable -> {
+            Thread thread = new Thread(runnable, "mcts-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.root = new GameSnapshot();
+        this.key = 37;
+        this.lastRollouts = 0;
+    }
+
+    /**
+    Constructs a new MctsInputPolicy for the App, searching on every core but one for at most half
+    of a frame, with rollouts of 8 moves.
+
+    @param config The settings of the games it will play.
+    @param seed The seed for the workers' random choices.
+    @return The policy.
+    */
+    public static MctsInputPolicy forFrames(GameConfig config, long seed) {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        long budgetNanos = 1000000000L / (2 * config.getFrameRate());
+        return new MctsInputPolicy(config, threads, budgetNanos, 0, 8, seed);
+    }
+
+    /**
+    Returns the direction to hold, searching for a new one whenever the Waka is lined up with a tile.
+
+    @param gameManager The game being played.
+    @return The key code of the direction to hold.
+    */
+    public int nextKey(GameManager gameManager) {
+        if (gameManager.isEndGame() || !gameManager.getWaka().aligned()) {
+            return this.key;
+        }
+        GameMetrics metrics = gameManager.getMetrics();
+        long start = metrics.start();
+        int direction = this.search(gameManager);
+        metrics.lap(GameMetrics.SEARCH, start);
+        metrics.add(GameMetrics.ROLLOUTS, this.lastRollouts);
+        if (direction >= 0) {
+            this.key = TileGrid.directionKey(direction);
+        }
+        return this.key;
+    }
+
+    /**
+    Returns the number of rollouts played by the last search, across every worker.
+
+    @return The rollout count.
+    */
+    public long getLastRollouts() {
+        return this.lastRollouts;
+    }
+
+    /**
+    Stops the worker threads. The policy cannot search again afterwards.
+    */
+    public void close() {
+        this.pool.shutdownNow();
+    }
+
+    /**
+    Searches from the game's current state on every worker and combines their results.
+
+    @param gameManager The game being played.
+    @return The most visited first move, as a direction from 0 to 3, or -1 if the Waka cannot move.
+    */
+    private int search(GameManager gameManager) {
+        gameManager.snapshot(this.root);
+        long deadline = (this.budgetNanos > 0) ? System.nanoTime() + this.budgetNanos : Long.MAX_VALUE;
+        ArrayList<Callable<Void>> tasks = new ArrayList<Callable<Void>>(this.workers.length);
+        for (Worker worker : this.workers) {
+            worker.prepare(gameManager.getConfig(), this.root, deadline, TileGrid.directionIndex(this.key));
+            tasks.add(worker);
+        }
+        try {
+            for (Future<Void> future : this.pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A search worker failed", e.getCause());
+        }
+        long[] visits = new long[4];
+        double[] values = new double[4];
+        this.lastRollouts = 0;
+        for (Worker worker : this.workers) {
+            worker.addRootResults(visits, values);
+            this.lastRollouts += worker.rollouts;
+        }
+        int best = -1;
+        for (int direction = 0; direction < 4; direction++) {
+            if (visits[direction] == 0) {
+                continue;
+            }
+            if (best < 0 || visits[direction] > visits[best]
+                    || (visits[direction] == visits[best]
+                        && values[direction] / visits[direction] > values[best] / visits[best])) {
+                best = direction;
+            }
+        }
+        return best;
+    }
+
+    /**
+    One thread's share of a search, with its own simulated game and tree.
+    <p>
+    The tree is kept in flat arrays indexed by node, node 0 being the root, and is cleared at the start
+    of every search so the arrays are only allocated when a search grows the tree past its largest so far.
+    */
+    private static class Worker implements Callable<Void> {
+
+        private GameManager game;
+        private GameRandom random;
+        private int maxRollouts;
+        private int rolloutMoves;
+        private GameSnapshot root;
+        private long deadline;
+        private int[] children;
+        private int[] visits;
+        private double[] values;
+        private int nodeCount;
+        private int[] path;
+        private int rollouts;
+        private int rootPending;
+        private int heading;
+
+        /**
+        Constructs a new Worker.
+
+        @param config The settings of the simulated game.
+        @param maxRollouts The most rollouts per search, or 0 for no limit.
+        @param rolloutMoves The number of moves in each rollout.
+        @param seed The seed for the worker's random choices.
+        */
+        Worker(GameConfig config, int maxRollouts, int rolloutMoves, long seed) {
+            this.game = new GameManager(config, seed);
+            this.random = new GameRandom(seed);
+            this.maxRollouts = maxRollouts;
+            this.rolloutMoves = Math.max(1, rolloutMoves);
+            this.children = new int[256 * 4];
+            this.visits = new int[256];
+            this.values = new double[256];
+            this.nodeCount = 0;
+            this.path = new int[this.rolloutMoves + 1];
+            this.rollouts = 0;
+            this.rootPending = -1;
+            this.heading = -1;
+        }
+
+        /**
+        Gets the worker ready for a new search.
+        <p>
+        If the game being played has changed its config since the last search, the simulated game is reset
+        with the new config first, reading the new map if there is one, so the root state fits it.
+
+        @param config The settings of the game being played.
+        @param root The state to search from.
+        @param deadline The time the search must stop by, from System.nanoTime().
+        @param pending The direction held when the state was taken, which the Waka will turn to at its next tile.
+        */
+        void prepare(GameConfig config, GameSnapshot root, long deadline, int pending) {
+            if (this.game.getConfig() != config) {
+                this.game.updateConfig(config);
+                this.game.resetGame();
+            }
+            this.root = root;
+            this.deadline = deadline;
+            this.rootPending = pending;
+            this.nodeCount = 0;
+            this.rollouts = 0;
+            this.newNode();
+        }
+
+        /**
+        Plays rollouts until the deadline or the rollout limit.
+
+        @return Nothing.
+        */
+        public Void call() {
+            while ((this.maxRollouts == 0 || this.rollouts < this.maxRollouts) && System.nanoTime() < this.deadline) {
+                this.rollout();
+                this.rollouts++;
+            }
+            return null;
+        }
+
+        /**
+        Adds the visits and total value of each of the root's moves to the arrays provided.
+
+        @param visits The visit counts, by direction.
+        @param values The total values, by direction.
+        */
+        void addRootResults(long[] visits, double[] values) {
+            for (int direction = 0; direction < 4; direction++) {
+                int child = this.children[direction];
+                if (child >= 0) {
+                    visits[direction] += this.visits[child];
+                    values[direction] += this.values[child];
+                }
+            }
+        }
+
+        /**
+        Plays a single rollout from the root: follows the tree by UCB1 while every move of a node has been
+        tried, adds a node for the first untried move, plays random moves for the rest of the rollout and
+        adds the discounted reward to every node on the way.
+        */
+        private void rollout() {
+            GameManager game = this.game;
+            game.restore(this.root);
+            int node = 0;
+            int depth = 0;
+            int pathLength = 1;
+            this.path[0] = 0;
+            double total = 0;
+            double weight = 1;
+            boolean inTree = true;
+            int pending = this.rootPending;
+            while (depth < this.rolloutMoves && !game.isEndGame()) {
+                int exits = this.nextExits(pending);
+                if (exits == 0) {
+                    break;
+                }
+                int direction;
+                if (inTree) {
+                    direction = this.untried(node, exits);
+                    if (direction < 0) {
+                        direction = this.bestChild(node, exits);
+                        node = this.children[(node * 4) + direction];
+                    } else {
+                        int child = this.newNode();
+                        this.children[(node * 4) + direction] = child;
+                        node = child;
+                        inTree = false;
+                    }
+                    this.path[pathLength] = node;
+                    pathLength++;
+                } else {
+                    direction = this.randomDirection(exits);
+                }
+                total += weight * Worker.move(game, direction);
+                weight *= DISCOUNT;
+                pending = direction;
+                depth++;
+            }
+            for (int i = 0; i < pathLength; i++) {
+                this.visits[this.path[i]]++;
+                this.values[this.path[i]] += total;
+            }
+        }
+
+        /**
+        Returns the directions the Waka can move in from the next tile it will reach, which is where a
+        direction held now takes effect, as the game only turns the Waka to a held key once it is lined
+        up with a tile. Also sets the heading the Waka will arrive at that tile with.
+        <p>
+        The Waka leaves its tile in the pending direction if it can, and otherwise carries on the way it
+        was going. If it can do neither it stays on its tile, which is then the next tile.
+
+        @param pending The direction held when the Waka reached its tile.
+        @return A mask with bit i set if direction i is open.
+        */
+        private int nextExits(int pending) {
+            GameManager game = this.game;
+            TileGrid tileGrid = game.getTileGrid();
+            Waka waka = game.getWaka();
+            if (!waka.aligned()) {
+                return 0;
+            }
+            int index = waka.getIndex(tileGrid);
+            int exits = tileGrid.exits(index);
+            int direction = TileGrid.directionIndex(waka.getDirection());
+            if (pending >= 0 && (exits & (1 << pending)) != 0) {
+                direction = pending;
+            } else if (direction < 0 || direction > 3 || (exits & (1 << direction)) == 0) {
+                this.heading = -1;
+                return exits;
+            }
+            this.heading = direction;
+            return tileGrid.exits(tileGrid.neighbour(index, direction));
+        }
+
+        /**
+        Returns an open direction that has no node under the node provided yet.
+
+        @param node The node.
+        @param exits The open directions.
+        @return The direction, or -1 if every open direction has a node.
+        */
+        private int untried(int node, int exits) {
+            for (int direction = 0; direction < 4; direction++) {
+                if ((exits & (1 << direction)) != 0 && this.children[(node * 4) + direction] < 0) {
+                    return direction;
+                }
+            }
+            return -1;
+        }
+
+        /**
+        Returns the open direction whose node has the highest UCB1 score.
+
+        @param node The node.
+        @param exits The open directions, all of which have nodes.
+        @return The direction.
+        */
+        private int bestChild(int node, int exits) {
+            double logVisits = Math.log(Math.max(1, this.visits[node]));
+            int best = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int direction = 0; direction < 4; direction++) {
+                if ((exits & (1 << direction)) == 0) {
+                    continue;
+                }
+                int child = this.children[(node * 4) + direction];
+                double score = (this.values[child] / (VALUE_SCALE * this.visits[child]))
+                    + (EXPLORATION * Math.sqrt(logVisits / this.visits[child]));
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = direction;
+                }
+            }
+            return best;
+        }
+
+        /**
+        Picks a random open direction, avoiding turning back unless it is the only way out.
+
+        @param exits The open directions.
+        @return The direction.
+        */
+        private int randomDirection(int exits) {
+            if (this.heading >= 0 && Integer.bitCount(exits) > 1) {
+                exits &= ~(1 << ((this.heading + 2) & 3));
+            }
+            int pick = this.random.nextInt(Integer.bitCount(exits));
+            for (int direction = 0; direction < 4; direction++) {
+                if ((exits & (1 << direction)) != 0) {
+                    if (pick == 0) {
+                        return direction;
+                    }
+                    pick--;
+                }
+            }
+            return -1;
+        }
+
+        /**
+        Adds an empty node to the tree, growing the arrays if they are full.
+
+        @return The new node.
+        */
+        private int newNode() {
+            if (this.nodeCount == this.visits.length) {
+                int capacity = this.visits.length * 2;
+                this.children = Arrays.copyOf(this.children, capacity * 4);
+                this.visits = Arrays.copyOf(this.visits, capacity);
+                this.values = Arrays.copyOf(this.values, capacity);
+            }
+            int node = this.nodeCount;
+            this.nodeCount++;
+            Arrays.fill(this.children, node * 4, (node * 4) + 4, -1);
+            this.visits[node] = 0;
+            this.values[node] = 0;
+            return node;
+        }
+
+        /**
+        Holds a direction until the Waka is next lined up with a tile, or the game ends.
+
+        @param game The simulated game.
+        @param direction The direction to hold.
+        @return The reward for the move, as WakaEnv would give it.
+        */
+        private static float move(GameManager game, int direction) {
+            int fruitCount = game.getFruitCount();
+            int deadGhosts = game.getDeadGhosts();
+            int lives = game.getLives();
+            int key = TileGrid.directionKey(direction);
+            int ticks = 2 * TileGrid.TILE_SIZE / game.getSpeed();
+            int tick = 0;
+            do {
+                game.tick(key);
+                tick++;
+            } while (tick < ticks && !game.isEndGame() && !game.getWaka().aligned());
+            float reward = WakaEnv.FRUIT_REWARD * (game.getFruitCount() - fruitCount);
+            if (game.getDeadGhosts() > deadGhosts) {
+                reward += WakaEnv.GHOST_REWARD * (game.getDeadGhosts() - deadGhosts);
+            }
+            if (game.getLives() < lives) {
+                reward += WakaEnv.DEATH_REWARD * (lives - game.getLives());
+            }
+            if (game.isEndGame() && game.hasWon()) {
+                reward += WakaEnv.WIN_REWARD;
+            }
+            return reward;
+        }
+    }
+}
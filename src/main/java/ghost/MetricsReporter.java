@@ -0,0 +1,97 @@
+package ghost;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.concurrent.*;
+
+/**
+Writes a game's GameMetrics to a file at a fixed interval, from a background thread.
+<p>
+A file whose name ends in ".json" is replaced with the latest summary each time, so it always
+holds the current state. Any other file is treated as CSV, and a row is appended each time
+below a header, so the file builds up a history that can be searched for outliers.
+*/
+public class MetricsReporter {
+
+    private GameMetrics metrics;
+    private String filePath;
+    private ScheduledExecutorService executor;
+
+    /**
+    Constructs a new MetricsReporter. Nothing is written until it is started.
+
+    @param metrics The metrics to write.
+    @param filePath The file to write them to.
+    */
+    public MetricsReporter(GameMetrics metrics, String filePath) {
+        this.metrics = metrics;
+        this.filePath = filePath;
+        this.executor = null;
+    }
+
+    /**
+    Starts writing the metrics every interval, on a daemon thread that does not keep the program running.
+
+    @param intervalSeconds The number of seconds between each write.
+    */
+    public void start(int intervalSeconds) {
+        if (this.executor != null) {
+            return;
+        }
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleAtFixedRate(this::report, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+    Stops writing the metrics, after writing them one last time.
+    */
+    public void stop() {
+        if (this.executor == null) {
+            return;
+        }
+        this.executor.shutdown();
+        this.executor = null;
+        this.report();
+    }
+
+    /**
+    Writes the metrics to the file once.
+    <p>
+    Errors are printed rather than thrown, so a full disk never stops the game.
+    */
+    public void report() {
+        try {
+            this.write(System.currentTimeMillis());
+        } catch (IOException e) {
+            System.err.println("Could not write metrics to " + this.filePath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+    Writes the metrics to the file once.
+
+    @param timestamp The time to record the metrics under, in milliseconds since the epoch.
+    @throws IOException If the file cannot be written.
+    */
+    public void write(long timestamp) throws IOException {
+        Path path = Paths.get(this.filePath);
+        if (this.filePath.endsWith(".json")) {
+            Path temporary = Paths.get(this.filePath + ".tmp");
+            Files.write(temporary, this.metrics.toJson(timestamp).getBytes(StandardCharsets.UTF_8));
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        if (!Files.exists(path) || Files.size(path) == 0) {
+            text.append(GameMetrics.csvHeader()).append('\n');
+        }
+        text.append(this.metrics.toCsvRow(timestamp)).append('\n');
+        Files.write(path, text.toString().getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,117 @@
+package ghost;
+
+import java.util.*;
+
+/**
+Steers Ghosts along the shortest walkable path to their targets.
+<p>
+Keeps one DistanceField per target space, shared by every Ghost aiming at that space.
+A field is only recomputed when a new target space is asked for, such as when the Waka
+moves into a different space, so Ghosts chasing the same target cost a single search.
+Holds at most a fixed number of fields; once full, the least recently used field is
+recomputed for the new target rather than allocating another.
+*/
+public class PathFinder {
+
+    private static final int CAPACITY = 8;
+
+    private TileGrid tileGrid;
+    private ArrayList<DistanceField> fields;
+    private int recomputes;
+
+    /**
+    Constructs a new PathFinder over the grid provided.
+
+    @param tileGrid The grid Ghosts will move through.
+    */
+    public PathFinder(TileGrid tileGrid) {
+        this.tileGrid = tileGrid;
+        this.fields = new ArrayList<DistanceField>();
+        this.recomputes = 0;
+    }
+
+    /**
+    Returns the number of times a distance field has been computed.
+
+    @return The number of breadth first searches performed.
+    */
+    public int getRecomputes() {
+        return this.recomputes;
+    }
+
+    /**
+    Returns the index of the grid space containing the point provided.
+    <p>
+    Points outside of the map are moved to the nearest space on its edge.
+
+    @param x The X axis value of the point.
+    @param y The Y axis value of the point.
+    @return The index of the grid space containing the point.
+    */
+    public int tileIndex(int x, int y) {
+        int column = Math.max(0, Math.min(this.tileGrid.getWidth() - 1, Math.floorDiv(x, TileGrid.TILE_SIZE)));
+        int row = Math.max(0, Math.min(this.tileGrid.getHeight() - 1, Math.floorDiv(y, TileGrid.TILE_SIZE)));
+        return (row * this.tileGrid.getWidth()) + column;
+    }
+
+    /**
+    Returns the distance field towards the target space provided.
+    <p>
+    Reuses an existing field for the target if there is one.
+
+    @param target The index of the target space.
+    @param tick The current tick, used to decide which field to recompute when full.
+    @return The distance field for the target.
+    */
+    public DistanceField fieldFor(int target, int tick) {
+        DistanceField leastRecent = null;
+        for (int i = 0; i < this.fields.size(); i++) {
+            DistanceField field = this.fields.get(i);
+            if (field.getTarget() == target) {
+                field.setLastUsed(tick);
+                return field;
+            }
+            if (leastRecent == null || field.getLastUsed() < leastRecent.getLastUsed()) {
+                leastRecent = field;
+            }
+        }
+        DistanceField field = leastRecent;
+        if (this.fields.size() < CAPACITY) {
+            field = new DistanceField(this.tileGrid);
+            this.fields.add(field);
+        }
+        field.compute(this.tileGrid, target);
+        field.setLastUsed(tick);
+        this.recomputes++;
+        return field;
+    }
+
+    /**
+    Returns the possible direction that leads along the shortest path to the target provided.
+    <p>
+    Ties are broken in the order Left, Up, Right, Down.
+
+    @param from The index of the space the Ghost occupies.
+    @param possibleMoves Mask of the directions the Ghost can move.
+    @param targetX The X axis value of the target.
+    @param targetY The Y axis value of the target.
+    @param tick The current tick.
+    @return The integer relating to the direction to move, or 0 if the target cannot be reached.
+    */
+    public int directionTowards(int from, int possibleMoves, int targetX, int targetY, int tick) {
+        DistanceField field = this.fieldFor(this.tileIndex(targetX, targetY), tick);
+        int distance = Integer.MAX_VALUE;
+        int directionToGo = 0;
+        for (int i = 0; i < 4; i++) {
+            if ((possibleMoves & (1 << i)) == 0) {
+                continue;
+            }
+            int nextDistance = field.distance(this.tileGrid.neighbour(from, i));
+            if (nextDistance >= 0 && nextDistance < distance) {
+                directionToGo = TileGrid.directionKey(i);
+                distance = nextDistance;
+            }
+        }
+        return directionToGo;
+    }
+}
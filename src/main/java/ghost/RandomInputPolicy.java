@@ -0,0 +1,41 @@
+package ghost;
+
+/**
+Plays the game by holding a random direction, changing to a new one at random intervals.
+<p>
+Has its own seeded generator, so a game played with the same seed is repeated exactly.
+*/
+public class RandomInputPolicy implements InputPolicy {
+
+    private GameRandom random;
+    private int key;
+    private int ticksLeft;
+
+    /**
+    Constructs a new RandomInputPolicy.
+
+    @param seed The seed for the policy's choices.
+    */
+    public RandomInputPolicy(long seed) {
+        this.random = new GameRandom(seed);
+        this.key = 37;
+        this.ticksLeft = 0;
+    }
+
+    /**
+    Returns the direction currently held, picking a new one once the last has been held long enough.
+    <p>
+    Each direction is held for between 1 and 64 ticks.
+
+    @param gameManager The game being played.
+    @return The key code of the direction to hold.
+    */
+    public int nextKey(GameManager gameManager) {
+        if (this.ticksLeft == 0) {
+            this.key = 37 + this.random.nextInt(4);
+            this.ticksLeft = 1 + this.random.nextInt(64);
+        }
+        this.ticksLeft--;
+        return this.key;
+    }
+}
@@ -0,0 +1,197 @@
+package ghost;
+
+import java.io.*;
+import org.json.simple.parser.ParseException;
+
+/**
+A recorded game, as written by a ReplayRecorder, that can be played back without a window.
+<p>
+Acts as an InputPolicy giving back the recorded keys in order, so playing it through a new
+GameManager made with the recorded config and seed rebuilds the exact game, as fast as the CPU allows.
+*/
+public class Replay implements InputPolicy {
+
+    private long seed;
+    private GameConfig config;
+    private byte[] keys;
+    private int[] lengths;
+    private int tickCount;
+    private int run;
+    private int ticksLeft;
+
+    /**
+    Constructs a new Replay from the parts of a recording.
+
+    @param seed The seed the game was made with.
+    @param config The settings the game was made with.
+    @param keys The key of each run.
+    @param lengths The number of ticks in each run.
+    */
+    public Replay(long seed, GameConfig config, byte[] keys, int[] lengths) {
+        this.seed = seed;
+        this.config = config;
+        this.keys = keys;
+        this.lengths = lengths;
+        this.tickCount = 0;
+        for (int i = 0; i < lengths.length; i++) {
+            this.tickCount += lengths[i];
+        }
+        this.rewind();
+    }
+
+    /**
+    Reads a Replay from the stream provided.
+
+    @param in The stream to read from.
+    @return The replay read from the stream.
+    @throws IOException If the stream cannot be read or does not hold a replay.
+    */
+    public static Replay read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != ReplayRecorder.MAGIC) {
+            throw new IOException("Not a replay file");
+        }
+        int version = data.readUnsignedByte();
+        if (version != ReplayRecorder.VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        long seed = data.readLong();
+        GameConfig config;
+        try {
+            config = GameConfig.parse(data.readUTF());
+        } catch (ParseException e) {
+            throw new IOException("Replay config could not be read", e);
+        }
+        int tickCount = data.readInt();
+        int runCount = data.readInt();
+        byte[] keys = new byte[runCount];
+        int[] lengths = new int[runCount];
+        for (int i = 0; i < runCount; i++) {
+            keys[i] = data.readByte();
+            int length = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = data.readUnsignedByte();
+                length |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            lengths[i] = length;
+        }
+        Replay replay = new Replay(seed, config, keys, lengths);
+        if (replay.getTickCount() != tickCount) {
+            throw new IOException("Replay is corrupt");
+        }
+        return replay;
+    }
+
+    /**
+    Reads a Replay from the file provided.
+
+    @param filePath The file path to the replay.
+    @return The replay read from the file.
+    @throws IOException If the file cannot be read or does not hold a replay.
+    */
+    public static Replay load(String filePath) throws IOException {
+        try (InputStream in = new FileInputStream(filePath)) {
+            return Replay.read(in);
+        }
+    }
+
+    /**
+    Returns the seed the recorded game was made with.
+
+    @return The seed.
+    */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+    Returns the settings the recorded game was made with.
+
+    @return The config.
+    */
+    public GameConfig getConfig() {
+        return this.config;
+    }
+
+    /**
+    Returns the number of ticks recorded.
+
+    @return The number of ticks.
+    */
+    public int getTickCount() {
+        return this.tickCount;
+    }
+
+    /**
+    Moves playback back to the first recorded tick.
+    */
+    public void rewind() {
+        this.run = 0;
+        this.ticksLeft = (this.lengths.length > 0) ? this.lengths[0] : 0;
+    }
+
+    /**
+    Returns the recorded key for the next tick.
+    <p>
+    Gives 0, no key, once every recorded tick has been played.
+
+    @param gameManager The game being played.
+    @return The key code held on the next recorded tick.
+    */
+    public int nextKey(GameManager gameManager) {
+        while (this.ticksLeft == 0) {
+            if (this.run >= this.lengths.length - 1) {
+                return 0;
+            }
+            this.run++;
+            this.ticksLeft = this.lengths[this.run];
+        }
+        this.ticksLeft--;
+        return this.keys[this.run];
+    }
+
+    /**
+    Plays every recorded tick through a new game and returns the game as it was at the end of the recording.
+
+    @return The replayed game.
+    */
+    public GameManager play() {
+        GameManager game = new GameManager(this.config, this.seed);
+        this.rewind();
+        for (int i = 0; i < this.tickCount; i++) {
+            game.tick(this.nextKey(game));
+        }
+        return game;
+    }
+
+    /**
+    The main method of the Replay program.
+    <p>
+    Replays the recording whose file path is given as the first argument and prints how the game ended.
+
+    @param args Command line arguments.
+    */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: Replay <replay file>");
+            return;
+        }
+        Replay replay;
+        try {
+            replay = Replay.load(args[0]);
+        } catch (IOException e) {
+            System.err.println("Could not read replay file " + args[0] + ": " + e.getMessage());
+            return;
+        }
+        long start = System.nanoTime();
+        GameManager game = replay.play();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("seed=%d ticks=%d won=%b fruit=%d lives=%d waka=(%d, %d)%n",
+            replay.getSeed(), replay.getTickCount(), game.hasWon(), game.getFruitCount(), game.getLives(),
+            game.getWaka().getX(), game.getWaka().getY());
+        System.out.printf("%.3f seconds, %.0f ticks per second%n", seconds, replay.getTickCount() / seconds);
+    }
+}
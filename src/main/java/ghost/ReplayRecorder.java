@@ -0,0 +1,122 @@
+package ghost;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+Records the input of a single game so it can be replayed later.
+<p>
+Since a game is fully decided by its config, its seed and the key held on each tick, only those
+are kept. The keys are run length encoded, as a held key usually stays the same for hundreds of ticks,
+so even a long game is recorded in a few hundred bytes.
+Keys other than the arrow keys have no effect on the game and are recorded as 0.
+*/
+public class ReplayRecorder {
+
+    static final int MAGIC = 0x574B5250;
+    static final int VERSION = 1;
+
+    private long seed;
+    private GameConfig config;
+    private byte[] keys;
+    private int[] lengths;
+    private int runCount;
+    private int tickCount;
+
+    /**
+    Constructs a new ReplayRecorder for a game that has not been ticked yet.
+
+    @param seed The seed the game was made with.
+    @param config The settings the game was made with.
+    */
+    public ReplayRecorder(long seed, GameConfig config) {
+        this.seed = seed;
+        this.config = config;
+        this.keys = new byte[64];
+        this.lengths = new int[64];
+        this.runCount = 0;
+        this.tickCount = 0;
+    }
+
+    /**
+    Records the key held for the next tick of the game.
+
+    @param key The key code given to the game's tick.
+    */
+    public void record(int key) {
+        if (key < 37 || key > 40) {
+            key = 0;
+        }
+        this.tickCount++;
+        if (this.runCount > 0 && this.keys[this.runCount - 1] == key) {
+            this.lengths[this.runCount - 1]++;
+            return;
+        }
+        if (this.runCount == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, this.runCount * 2);
+            this.lengths = Arrays.copyOf(this.lengths, this.runCount * 2);
+        }
+        this.keys[this.runCount] = (byte) key;
+        this.lengths[this.runCount] = 1;
+        this.runCount++;
+    }
+
+    /**
+    Returns the number of ticks recorded so far.
+
+    @return The number of ticks.
+    */
+    public int getTickCount() {
+        return this.tickCount;
+    }
+
+    /**
+    Returns the number of runs of the same key recorded so far.
+
+    @return The number of runs.
+    */
+    public int getRunCount() {
+        return this.runCount;
+    }
+
+    /**
+    Writes the recording to the stream provided.
+    <p>
+    The recording is written as a magic number, a version, the seed, the config as JSON text,
+    the number of ticks and runs, then each run as its key followed by its length in 7 bit groups.
+
+    @param out The stream to write to.
+    @throws IOException If the stream cannot be written to.
+    */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeLong(this.seed);
+        data.writeUTF(this.config.toJson());
+        data.writeInt(this.tickCount);
+        data.writeInt(this.runCount);
+        for (int i = 0; i < this.runCount; i++) {
+            data.writeByte(this.keys[i]);
+            int length = this.lengths[i];
+            while ((length & ~0x7F) != 0) {
+                data.writeByte((length & 0x7F) | 0x80);
+                length >>>= 7;
+            }
+            data.writeByte(length);
+        }
+        data.flush();
+    }
+
+    /**
+    Saves the recording to the file provided.
+
+    @param filePath The file path to save to.
+    @throws IOException If the file cannot be written.
+    */
+    public void save(String filePath) throws IOException {
+        try (OutputStream out = new FileOutputStream(filePath)) {
+            this.write(out);
+        }
+    }
+}
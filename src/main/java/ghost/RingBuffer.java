@@ -0,0 +1,123 @@
+package ghost;
+
+/**
+A fixed size buffer of the most recent values added to it.
+<p>
+The values are kept in a single array that is allocated up front and overwritten in a circle,
+so adding a value is a store and an increment and never allocates.
+Meant to be written and read from the same thread, such as the App's drawing thread.
+*/
+public class RingBuffer {
+
+    private long[] values;
+    private int next;
+    private int size;
+
+    /**
+    Constructs a new, empty RingBuffer.
+
+    @param capacity The number of values the buffer keeps.
+    */
+    public RingBuffer(int capacity) {
+        this.values = new long[capacity];
+        this.next = 0;
+        this.size = 0;
+    }
+
+    /**
+    Adds a value, replacing the oldest value if the buffer is full.
+
+    @param value The value to add.
+    */
+    public void add(long value) {
+        this.values[this.next] = value;
+        this.next++;
+        if (this.next == this.values.length) {
+            this.next = 0;
+        }
+        if (this.size < this.values.length) {
+            this.size++;
+        }
+    }
+
+    /**
+    Returns the number of values in the buffer.
+
+    @return The number of values, at most the capacity.
+    */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+    Returns the number of values the buffer keeps.
+
+    @return The capacity of the buffer.
+    */
+    public int capacity() {
+        return this.values.length;
+    }
+
+    /**
+    Returns one of the values in the buffer, counting from the oldest.
+
+    @param i The position of the value, from 0 for the oldest to size() - 1 for the newest.
+    @return The value.
+    */
+    public long get(int i) {
+        int index = this.next - this.size + i;
+        if (index < 0) {
+            index += this.values.length;
+        }
+        return this.values[index];
+    }
+
+    /**
+    Returns the value added most recently.
+
+    @return The newest value, or 0 if the buffer is empty.
+    */
+    public long latest() {
+        if (this.size == 0) {
+            return 0;
+        }
+        return this.get(this.size - 1);
+    }
+
+    /**
+    Returns the largest value in the buffer.
+
+    @return The largest value, or 0 if the buffer is empty.
+    */
+    public long max() {
+        long max = 0;
+        for (int i = 0; i < this.size; i++) {
+            max = Math.max(max, this.get(i));
+        }
+        return max;
+    }
+
+    /**
+    Returns the mean of the values in the buffer.
+
+    @return The mean value, or 0 if the buffer is empty.
+    */
+    public double mean() {
+        if (this.size == 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < this.size; i++) {
+            total += this.get(i);
+        }
+        return (double) total / this.size;
+    }
+
+    /**
+    Empties the buffer.
+    */
+    public void clear() {
+        this.next = 0;
+        this.size = 0;
+    }
+}
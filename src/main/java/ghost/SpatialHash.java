@@ -0,0 +1,199 @@
+package ghost;
+
+import java.util.Arrays;
+
+/**
+A uniform grid that tracks which tile each moving entity is in, so collisions only need to be
+tested between entities in neighbouring tiles.
+<p>
+Entities are numbered from 0 and each cell of the grid is one map tile. Every cell holds a doubly
+linked list of the entities in it, kept in plain int arrays, so moving an entity between cells
+takes constant time and nothing is allocated once the hash is built.
+Positions outside of the map are clamped into the nearest edge cell, and a query near the edge
+carries on around the far side of any row or column that wraps through a tunnel.
+*/
+public class SpatialHash {
+
+    private TileGrid tileGrid;
+    private int[] heads;
+    private int[] cells;
+    private int[] next;
+    private int[] previous;
+
+    /**
+    Constructs a new, empty SpatialHash over the grid provided.
+
+    @param tileGrid The grid whose tiles are the cells of the hash.
+    @param capacity The number of entities the hash can hold, numbered from 0.
+    */
+    public SpatialHash(TileGrid tileGrid, int capacity) {
+        this.tileGrid = tileGrid;
+        this.heads = new int[tileGrid.size()];
+        this.cells = new int[capacity];
+        this.next = new int[capacity];
+        this.previous = new int[capacity];
+        Arrays.fill(this.heads, -1);
+        Arrays.fill(this.cells, -1);
+    }
+
+    /**
+    Returns the number of entities the hash can hold.
+
+    @return The capacity of the hash.
+    */
+    public int getCapacity() {
+        return this.cells.length;
+    }
+
+    /**
+    Returns the cell holding the pixel provided, clamped to the edges of the grid.
+
+    @param x The X axis value of the pixel.
+    @param y The Y axis value of the pixel.
+    @return The index of the cell.
+    */
+    public int cellAt(int x, int y) {
+        int column = Math.min(Math.max(x / TileGrid.TILE_SIZE, 0), this.tileGrid.getWidth() - 1);
+        int row = Math.min(Math.max(y / TileGrid.TILE_SIZE, 0), this.tileGrid.getHeight() - 1);
+        return (row * this.tileGrid.getWidth()) + column;
+    }
+
+    /**
+    Returns the cell the entity provided is currently in.
+
+    @param id The number of the entity.
+    @return The index of the entity's cell, or -1 if it is not in the hash.
+    */
+    public int cellOf(int id) {
+        return this.cells[id];
+    }
+
+    /**
+    Moves the entity provided into the cell holding its new position, adding it if it is not yet in the hash.
+    <p>
+    Does nothing if the entity is still in the same cell.
+
+    @param id The number of the entity.
+    @param x The X axis value of the entity's position.
+    @param y The Y axis value of the entity's position.
+    */
+    public void update(int id, int x, int y) {
+        int cell = this.cellAt(x, y);
+        if (this.cells[id] == cell) {
+            return;
+        }
+        this.remove(id);
+        this.cells[id] = cell;
+        this.previous[id] = -1;
+        this.next[id] = this.heads[cell];
+        if (this.heads[cell] != -1) {
+            this.previous[this.heads[cell]] = id;
+        }
+        this.heads[cell] = id;
+    }
+
+    /**
+    Takes the entity provided out of the hash.
+
+    @param id The number of the entity.
+    */
+    public void remove(int id) {
+        int cell = this.cells[id];
+        if (cell == -1) {
+            return;
+        }
+        if (this.previous[id] != -1) {
+            this.next[this.previous[id]] = this.next[id];
+        } else {
+            this.heads[cell] = this.next[id];
+        }
+        if (this.next[id] != -1) {
+            this.previous[this.next[id]] = this.previous[id];
+        }
+        this.cells[id] = -1;
+    }
+
+    /**
+    Finds every entity in the cells within the radius provided of a position, in order of their numbers.
+    <p>
+    Cells past the edge of the grid are found at the opposite edge if their row or column wraps
+    around through a tunnel, and are skipped otherwise.
+
+    @param x The X axis value of the position.
+    @param y The Y axis value of the position.
+    @param radius The number of cells to search either side of the position's cell.
+    @param found An array at least as long as the capacity, to be filled with the numbers of the entities found.
+    @return The number of entities found.
+    */
+    public int query(int x, int y, int radius, int[] found) {
+        int centre = this.cellAt(x, y);
+        int width = this.tileGrid.getWidth();
+        int centreColumn = centre % width;
+        int centreRow = centre / width;
+        int count = 0;
+        for (int row = centreRow - radius; row <= centreRow + radius; row++) {
+            for (int column = centreColumn - radius; column <= centreColumn + radius; column++) {
+                int cell = this.wrappedCell(row, column, centreRow, centreColumn, radius);
+                if (cell == -1) {
+                    continue;
+                }
+                for (int id = this.heads[cell]; id != -1; id = this.next[id]) {
+                    int i = count;
+                    while (i > 0 && found[i - 1] > id) {
+                        found[i] = found[i - 1];
+                        i--;
+                    }
+                    found[i] = id;
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+    Returns the cell a query reaches at the row and column provided, following tunnels off the edge of the grid.
+
+    @param row The row reached, which may lie off the grid.
+    @param column The column reached, which may lie off the grid.
+    @param centreRow The row of the query's centre cell.
+    @param centreColumn The column of the query's centre cell.
+    @param radius The number of cells the query searches either side of its centre.
+    @return The index of the cell, or -1 if there is none or the query already covers it directly.
+    */
+    private int wrappedCell(int row, int column, int centreRow, int centreColumn, int radius) {
+        int width = this.tileGrid.getWidth();
+        int height = this.tileGrid.getHeight();
+        boolean rowInside = row >= 0 && row < height;
+        boolean columnInside = column >= 0 && column < width;
+        if (rowInside && columnInside) {
+            return (row * width) + column;
+        }
+        if (rowInside && this.tileGrid.wrapsRow(row)) {
+            int wrapped = Math.floorMod(column, width);
+            return (Math.abs(wrapped - centreColumn) > radius) ? (row * width) + wrapped : -1;
+        }
+        if (columnInside && this.tileGrid.wrapsColumn(column)) {
+            int wrapped = Math.floorMod(row, height);
+            return (Math.abs(wrapped - centreRow) > radius) ? (wrapped * width) + column : -1;
+        }
+        return -1;
+    }
+
+    /**
+    Checks if two square boxes overlap.
+    <p>
+    Boxes that only touch along an edge do not overlap.
+
+    @param ax The X axis value of the first box's left edge.
+    @param ay The Y axis value of the first box's top edge.
+    @param aSize The side length of the first box.
+    @param bx The X axis value of the second box's left edge.
+    @param by The Y axis value of the second box's top edge.
+    @param bSize The side length of the second box.
+    @return True if the boxes share any area, False otherwise.
+    */
+    public static boolean overlaps(int ax, int ay, int aSize, int bx, int by, int bSize) {
+        return ax < bx + bSize && bx < ax + aSize && ay < by + bSize && by < ay + aSize;
+    }
+}
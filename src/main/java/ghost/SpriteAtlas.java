@@ -0,0 +1,99 @@
+package ghost;
+
+import processing.core.PApplet;
+import processing.core.PImage;
+
+/**
+A registry of every image used by the game.
+<p>
+Each image is decoded once when the atlas is loaded and then shared by every element
+that refers to it. Elements store the integer ID of their sprite rather than the image
+itself, and look the image up from the atlas when they are drawn.
+*/
+public class SpriteAtlas {
+
+    public static final int HORIZONTAL = 0;
+    public static final int VERTICAL = 1;
+    public static final int UP_LEFT = 2;
+    public static final int UP_RIGHT = 3;
+    public static final int DOWN_LEFT = 4;
+    public static final int DOWN_RIGHT = 5;
+    public static final int FRUIT = 6;
+    public static final int SUPER_FRUIT = 7;
+    public static final int SODA_CAN = 8;
+    public static final int PLAYER_LEFT = 9;
+    public static final int PLAYER_RIGHT = 10;
+    public static final int PLAYER_UP = 11;
+    public static final int PLAYER_DOWN = 12;
+    public static final int PLAYER_CLOSED = 13;
+    public static final int GHOST = 14;
+    public static final int AMBUSHER = 15;
+    public static final int CHASER = 16;
+    public static final int IGNORANT = 17;
+    public static final int WHIM = 18;
+    public static final int FRIGHTENED = 19;
+    public static final int WAVY = 20;
+    public static final int YOU_WIN = 21;
+    public static final int GAME_OVER = 22;
+
+    private static final String RESOURCE_PATH = "src/main/resources/";
+    private static final String[] FILE_NAMES = {
+        "horizontal.png",
+        "vertical.png",
+        "upLeft.png",
+        "upRight.png",
+        "downLeft.png",
+        "downRight.png",
+        "fruit.png",
+        "superfruit.png",
+        "sodacan.png",
+        "playerLeft.png",
+        "playerRight.png",
+        "playerUp.png",
+        "playerDown.png",
+        "playerClosed.png",
+        "ghost.png",
+        "ambusher.png",
+        "chaser.png",
+        "ignorant.png",
+        "whim.png",
+        "frightened.png",
+        "wavy.png",
+        "youwin.png",
+        "gameover.png"
+    };
+
+    private PImage[] images;
+
+    /**
+    Constructs a new, empty SpriteAtlas.
+    <p>
+    No images are available until the atlas has been loaded.
+    */
+    public SpriteAtlas() {
+        this.images = new PImage[FILE_NAMES.length];
+    }
+
+    /**
+    Decodes every sprite used by the game.
+    <p>
+    Should be called once, from the app's setup method.
+
+    @param app The app used to load the images.
+    */
+    public void load(PApplet app) {
+        for (int i = 0; i < FILE_NAMES.length; i++) {
+            this.images[i] = app.loadImage(RESOURCE_PATH + FILE_NAMES[i]);
+        }
+    }
+
+    /**
+    Returns the shared image relating to the sprite ID provided.
+
+    @param id The ID of the sprite.
+    @return The image for that sprite.
+    */
+    public PImage get(int id) {
+        return this.images[id];
+    }
+}
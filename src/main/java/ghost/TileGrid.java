@@ -0,0 +1,416 @@
+package ghost;
+
+/**
+A compact grid of tile types for the map.
+<p>
+Stores one byte per grid space, in the same order as the Map's MapPiece list,
+so movement and pickup checks can look up what occupies a space without
+inspecting the MapPiece objects themselves.
+<p>
+Once the walls are in place, computeExits precomputes the neighbouring index and a 4 bit
+mask of legal exits for every space. Directions are indexed 0 - Left, 1 - Up, 2 - Right
+and 3 - Down, matching the order of the key codes 37 to 40, and bit i of an exit mask
+is set when direction i is open.
+<p>
+Spaces on the edge of the grid may be marked as tunnels. A tunnel's neighbour off the edge of the grid
+is the tunnel at the opposite end of its row or column, so once the table is built the Waka, the Ghosts
+and every path search pass through tunnels with the same single lookup as any other move.
+A row or column with a tunnel at both ends wraps around, and hitboxes in it are compared the shorter
+way round, so collisions are found across the seam.
+*/
+public class TileGrid {
+
+    public static final byte EMPTY = 0;
+    public static final byte WALL = 1;
+    public static final byte FRUIT = 2;
+    public static final byte SUPER_FRUIT = 3;
+    public static final byte SODA_CAN = 4;
+
+    public static final int TILE_SIZE = 16;
+
+    public static final int LEFT = 0;
+    public static final int UP = 1;
+    public static final int RIGHT = 2;
+    public static final int DOWN = 3;
+
+    private int width;
+    private int height;
+    private byte[] tiles;
+    private byte[] exits;
+    private int[] neighbours;
+    private boolean[] tunnels;
+    private boolean[] wrappingRows;
+    private boolean[] wrappingColumns;
+
+    /**
+    Constructs a new TileGrid with every space empty.
+
+    @param width The number of grid spaces in each row.
+    @param height The number of rows in the grid.
+    */
+    public TileGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.tiles = new byte[width * height];
+        this.exits = new byte[width * height];
+        this.neighbours = new int[width * height * 4];
+        this.tunnels = new boolean[width * height];
+        this.wrappingRows = new boolean[height];
+        this.wrappingColumns = new boolean[width];
+    }
+
+    /**
+    Returns the direction index relating to the key code provided.
+
+    @param keyCode The key code of the direction, from 37 to 40.
+    @return The direction index, from 0 to 3.
+    */
+    public static int directionIndex(int keyCode) {
+        return keyCode - 37;
+    }
+
+    /**
+    Returns the key code relating to the direction index provided.
+
+    @param direction The direction index, from 0 to 3.
+    @return The key code of the direction, from 37 to 40.
+    */
+    public static int directionKey(int direction) {
+        return direction + 37;
+    }
+
+    /**
+    Returns the number of grid spaces in each row.
+
+    @return The width of the grid.
+    */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+    Returns the number of rows in the grid.
+
+    @return The height of the grid.
+    */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+    Returns the width of the grid in pixels.
+
+    @return The number of pixels across the grid.
+    */
+    public int pixelWidth() {
+        return this.width * TILE_SIZE;
+    }
+
+    /**
+    Returns the height of the grid in pixels.
+
+    @return The number of pixels down the grid.
+    */
+    public int pixelHeight() {
+        return this.height * TILE_SIZE;
+    }
+
+    /**
+    Returns the index of the grid space holding the pixel provided.
+
+    @param x The X axis value of the pixel.
+    @param y The Y axis value of the pixel.
+    @return The index of the grid space.
+    */
+    public int indexAt(int x, int y) {
+        return ((y / TILE_SIZE) * this.width) + (x / TILE_SIZE);
+    }
+
+    /**
+    Returns the total number of grid spaces.
+
+    @return The number of spaces in the grid.
+    */
+    public int size() {
+        return this.tiles.length;
+    }
+
+    /**
+    Returns the type of tile at the index provided.
+
+    @param index The index of the grid space.
+    @return The tile type at that space.
+    */
+    public byte tileType(int index) {
+        return this.tiles[index];
+    }
+
+    /**
+    Returns a copy of every tile type, in index order.
+
+    @return The tile types.
+    */
+    public byte[] copyTiles() {
+        return this.tiles.clone();
+    }
+
+    /**
+    Sets the type of tile at the index provided.
+
+    @param index The index of the grid space.
+    @param type The tile type to store.
+    */
+    public void setTile(int index, byte type) {
+        this.tiles[index] = type;
+    }
+
+    /**
+    Returns if the space at the index provided blocks movement.
+    <p>
+    Spaces outside of the grid are treated as walls.
+
+    @param index The index of the grid space.
+    @return True if the space is a wall or outside the grid, False otherwise.
+    */
+    public boolean isWall(int index) {
+        if (index < 0 || index >= this.tiles.length) {
+            return true;
+        }
+        return this.tiles[index] == WALL;
+    }
+
+    /**
+    Marks the space at the index provided as a tunnel, leading to the tunnel at the opposite edge of the grid.
+    <p>
+    Takes effect the next time computeExits is called.
+
+    @param index The index of the grid space.
+    */
+    public void setTunnel(int index) {
+        this.tunnels[index] = true;
+    }
+
+    /**
+    Returns if the space at the index provided is a tunnel.
+
+    @param index The index of the grid space.
+    @return True if the space is a tunnel, False otherwise.
+    */
+    public boolean isTunnel(int index) {
+        return this.tunnels[index];
+    }
+
+    /**
+    Returns if the space at the index provided holds a fruit, super fruit or soda can.
+
+    @param index The index of the grid space.
+    @return True if the space holds a collectable, False otherwise.
+    */
+    public boolean isCollectable(int index) {
+        return this.tiles[index] >= FRUIT;
+    }
+
+    /**
+    Returns the X axis value of the top left corner of the space at the index provided.
+
+    @param index The index of the grid space.
+    @return The X axis value of the space.
+    */
+    public int tileX(int index) {
+        return (index % this.width) * TILE_SIZE;
+    }
+
+    /**
+    Returns the Y axis value of the top left corner of the space at the index provided.
+
+    @param index The index of the grid space.
+    @return The Y axis value of the space.
+    */
+    public int tileY(int index) {
+        return (index / this.width) * TILE_SIZE;
+    }
+
+    /**
+    Returns the X axis value provided, moved back onto the grid if it has passed through a tunnel.
+
+    @param x The X axis value of a point on the grid, at most one tile off its left or right edge.
+    @return The X axis value, from 0 to pixelWidth() - 1.
+    */
+    public int wrapX(int x) {
+        if (x < 0) {
+            return x + (this.width * TILE_SIZE);
+        }
+        if (x >= this.width * TILE_SIZE) {
+            return x - (this.width * TILE_SIZE);
+        }
+        return x;
+    }
+
+    /**
+    Returns the Y axis value provided, moved back onto the grid if it has passed through a tunnel.
+
+    @param y The Y axis value of a point on the grid, at most one tile off its top or bottom edge.
+    @return The Y axis value, from 0 to pixelHeight() - 1.
+    */
+    public int wrapY(int y) {
+        if (y < 0) {
+            return y + (this.height * TILE_SIZE);
+        }
+        if (y >= this.height * TILE_SIZE) {
+            return y - (this.height * TILE_SIZE);
+        }
+        return y;
+    }
+
+    /**
+    Returns if the row provided has a tunnel at both ends, so that it wraps around.
+    <p>
+    Kept up to date by computeExits.
+
+    @param row The row of the grid.
+    @return True if the row wraps around, False otherwise.
+    */
+    public boolean wrapsRow(int row) {
+        return this.wrappingRows[row];
+    }
+
+    /**
+    Returns if the column provided has a tunnel at both ends, so that it wraps around.
+    <p>
+    Kept up to date by computeExits.
+
+    @param column The column of the grid.
+    @return True if the column wraps around, False otherwise.
+    */
+    public boolean wrapsColumn(int column) {
+        return this.wrappingColumns[column];
+    }
+
+    /**
+    Checks if two square hitboxes overlap, allowing for the grid wrapping around through its tunnels.
+    <p>
+    If the first box reaches into a row that wraps around, the boxes are compared across the left and
+    right edges as well as directly, and likewise for a column across the top and bottom edges.
+    Boxes that only touch along an edge do not overlap.
+
+    @param ax The X axis value of the first box's left edge.
+    @param ay The Y axis value of the first box's top edge.
+    @param aSize The side length of the first box.
+    @param bx The X axis value of the second box's left edge.
+    @param by The Y axis value of the second box's top edge.
+    @param bSize The side length of the second box.
+    @return True if the boxes share any area, False otherwise.
+    */
+    public boolean overlaps(int ax, int ay, int aSize, int bx, int by, int bSize) {
+        int dx = bx - ax;
+        int dy = by - ay;
+        if (TileGrid.reaches(this.wrappingRows, ay, aSize)) {
+            dx = TileGrid.shortest(dx, this.pixelWidth());
+        }
+        if (TileGrid.reaches(this.wrappingColumns, ax, aSize)) {
+            dy = TileGrid.shortest(dy, this.pixelHeight());
+        }
+        return -bSize < dx && dx < aSize && -bSize < dy && dy < aSize;
+    }
+
+    /**
+    Checks if a span of pixels reaches into any of the wrapping rows or columns provided.
+
+    @param wrapping Whether each row or column wraps around.
+    @param from The first pixel of the span, which may lie off the grid.
+    @param size The number of pixels in the span.
+    @return True if any row or column the span covers wraps around, False otherwise.
+    */
+    private static boolean reaches(boolean[] wrapping, int from, int size) {
+        int last = Math.floorDiv(from + size - 1, TILE_SIZE);
+        for (int line = Math.floorDiv(from, TILE_SIZE); line <= last; line++) {
+            if (wrapping[Math.floorMod(line, wrapping.length)]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+    Returns the shorter of the two ways between two points on a loop.
+
+    @param delta The distance from one point to the other, going directly.
+    @param length The length of the loop.
+    @return The distance going whichever way round is shorter, from -length / 2 to length / 2.
+    */
+    private static int shortest(int delta, int length) {
+        int wrapped = Math.floorMod(delta, length);
+        return (wrapped > length / 2) ? wrapped - length : wrapped;
+    }
+
+    /**
+    Precomputes the neighbours and legal exits of every space in the grid.
+    <p>
+    Must be called again if any walls or tunnels are changed.
+    A tunnel on the edge of the grid has the tunnel at the opposite end of its row or column as its
+    neighbour off that edge, if there is one. Other neighbours that fall outside of the grid are
+    stored as -1 and are never legal exits.
+    */
+    public void computeExits() {
+        int last = this.tiles.length - this.width;
+        for (int row = 0; row < this.height; row++) {
+            int start = row * this.width;
+            this.wrappingRows[row] = this.tunnelAt(start, start + this.width - 1) != -1;
+        }
+        for (int column = 0; column < this.width; column++) {
+            this.wrappingColumns[column] = this.tunnelAt(column, column + last) != -1;
+        }
+        for (int i = 0; i < this.tiles.length; i++) {
+            int column = i % this.width;
+            int row = i / this.width;
+            this.neighbours[(i * 4) + LEFT] = (column > 0) ? i - 1 : this.tunnelAt(i, i + this.width - 1);
+            this.neighbours[(i * 4) + UP] = (row > 0) ? i - this.width : this.tunnelAt(i, i + last);
+            this.neighbours[(i * 4) + RIGHT] = (column < this.width - 1) ? i + 1 : this.tunnelAt(i, i - this.width + 1);
+            this.neighbours[(i * 4) + DOWN] = (row < this.height - 1) ? i + this.width : this.tunnelAt(i, i - last);
+            int mask = 0;
+            for (int direction = 0; direction < 4; direction++) {
+                if (!this.isWall(this.neighbours[(i * 4) + direction])) {
+                    mask |= 1 << direction;
+                }
+            }
+            this.exits[i] = (byte) mask;
+        }
+    }
+
+    /**
+    Returns the far end of a tunnel leaving the grid.
+
+    @param from The index of the space on the edge being left.
+    @param to The index of the space on the opposite edge.
+    @return The index of the far end if both spaces are tunnels, or -1 if they are not.
+    */
+    private int tunnelAt(int from, int to) {
+        return (this.tunnels[from] && this.tunnels[to]) ? to : -1;
+    }
+
+    /**
+    Returns the mask of legal exits from the space at the index provided.
+    <p>
+    Spaces outside of the grid have no exits.
+
+    @param index The index of the grid space.
+    @return A 4 bit mask with bit i set if direction i is open.
+    */
+    public int exits(int index) {
+        if (index < 0 || index >= this.tiles.length) {
+            return 0;
+        }
+        return this.exits[index];
+    }
+
+    /**
+    Returns the index of the space next to the one provided in the direction provided.
+
+    @param index The index of the grid space.
+    @param direction The direction index, from 0 to 3.
+    @return The index of the neighbouring space, or -1 if it lies outside of the grid.
+    */
+    public int neighbour(int index, int direction) {
+        return this.neighbours[(index * 4) + direction];
+    }
+}
@@ -1,7 +1,6 @@
 package ghost;
 
 import processing.core.PApplet;
-import processing.core.PImage;
 
 /**
 Represents the player's token in the Map.
@@ -9,28 +8,36 @@ Represents the player's token in the Map.
 The player will move around the map, collecting fruit and avoiding the Ghosts.*/
 public class Waka {
 
+    public static final int HITBOX_OFFSET_X = 7;
+    public static final int HITBOX_OFFSET_Y = 8;
+    public static final int HITBOX_SIZE = 23;
+
+    public static final int STATE_SIZE = 4;
+
     private int x;
     private int y;
-    private PImage sprite;
-    private PImage spriteClosed;
-    private Coordinate coord;
+    private int sprite;
+    private int spriteClosed;
     private int direction;
+    private SpatialHash spatialHash;
+    private int hashId;
 
     /**
     Constructs a new Waka.
     
-    @param sprite The starting sprite of the Waka.
-    @param spriteClosed The closed version of the Waka.
+    @param sprite The sprite ID of the Waka's starting image.
+    @param spriteClosed The sprite ID of the closed version of the Waka.
     @param x The X axis value of the Waka's starting position.
     @param y The Y axis value of the Waka's staring position.
     */
-    public Waka(PImage sprite, PImage spriteClosed, int x, int y) {
+    public Waka(int sprite, int spriteClosed, int x, int y) {
         this.sprite = sprite;
         this.spriteClosed = spriteClosed;
         this.x = x;
         this.y = y;
-        this.coord = new Coordinate((this.x + 4), (this.y + 5));
         this.direction = 37;
+        this.spatialHash = null;
+        this.hashId = -1;
     }
     /**
     Returns this Waka's X axis value.
@@ -52,11 +59,13 @@ public class Waka {
 
     /**
     Returns this Waka's coordinate.
+    <p>
+    Made from the Waka's position when asked for, so moving the Waka allocates nothing.
     
-    @return The Waka's Y coordinate.
+    @return The Waka's coordinate.
     */
     public Coordinate getCoord() {
-        return this.coord;
+        return Coordinate.of(this.x + 4, this.y + 5);
     }
 
     /**
@@ -76,15 +85,92 @@ public class Waka {
     public void resetPos(Coordinate coord) {
         this.x = coord.getX();
         this.y = coord.getY();
+        this.updateHash();
+    }
+
+    /**
+    Puts the Waka back at the position provided facing left, as it was at the start of the game.
+
+    @param coord The Waka's starting position.
+    */
+    public void restart(Coordinate coord) {
+        this.direction = 37;
+        this.setSprite(37);
+        this.resetPos(coord);
+    }
+
+    /**
+    Writes the Waka's position, direction and sprite into an array, for a GameSnapshot.
+
+    @param data The array to write into.
+    @param at The position to start writing at.
+    @return The position after the last value written, STATE_SIZE values on from the start.
+    */
+    public int writeState(int[] data, int at) {
+        data[at] = this.x;
+        data[at + 1] = this.y;
+        data[at + 2] = this.direction;
+        data[at + 3] = this.sprite;
+        return at + STATE_SIZE;
+    }
+
+    /**
+    Reads back a position, direction and sprite written by writeState.
+
+    @param data The array to read from.
+    @param at The position to start reading at.
+    @return The position after the last value read.
+    */
+    public int readState(int[] data, int at) {
+        this.x = data[at];
+        this.y = data[at + 1];
+        this.direction = data[at + 2];
+        this.sprite = data[at + 3];
+        this.updateHash();
+        return at + STATE_SIZE;
+    }
+
+    /**
+    Adds the Waka to the SpatialHash provided, which it keeps up to date as it moves.
+
+    @param spatialHash The hash to track the Waka's position in.
+    @param hashId The Waka's number within the hash.
+    */
+    public void track(SpatialHash spatialHash, int hashId) {
+        this.spatialHash = spatialHash;
+        this.hashId = hashId;
+        this.updateHash();
+    }
+
+    /**
+    Moves the Waka into the cell of its SpatialHash that holds its current position.
+    */
+    private void updateHash() {
+        if (this.spatialHash != null) {
+            this.spatialHash.update(this.hashId, this.x + 4, this.y + 5);
+        }
+    }
+
+    /**
+    Checks if the Waka's hitbox overlaps the Ghost's hitbox provided, including across a tunnel's seam.
+
+    @param ghost The Ghost to check against.
+    @param tileGrid The grid of the map, whose tunnels the hitboxes may reach through.
+    @return True if the hitboxes share any area, False otherwise.
+    */
+    public boolean overlaps(Ghost ghost, TileGrid tileGrid) {
+        return tileGrid.overlaps(this.x + HITBOX_OFFSET_X, this.y + HITBOX_OFFSET_Y, HITBOX_SIZE,
+            ghost.getX() + Ghost.HITBOX_OFFSET, ghost.getY() + Ghost.HITBOX_OFFSET, Ghost.HITBOX_SIZE);
     }
 
     /**
     Draws the Waka's current sprite to the app.
     
     @param app The app which the Waka will be drawn to.
+    @param sprites The atlas holding the Waka's images.
     */
-    public void draw(PApplet app) {
-        app.image(this.sprite, this.x, this.y);
+    public void draw(PApplet app, SpriteAtlas sprites) {
+        app.image(sprites.get(this.sprite), this.x, this.y);
     }
 
     /**
@@ -98,17 +184,16 @@ public class Waka {
     Sets the sprite to the sprite that relates to the direction provided.
     
     @param direction The direction relating to the sprite to be assigned.
-    @param app The app to which the sprite will be drawn to.
     */
-    public void setSprite(int direction, PApplet app) {
+    public void setSprite(int direction) {
         if (direction == 38){ // Moving Up
-            this.sprite = app.loadImage("src/main/resources/playerUp.png");
+            this.sprite = SpriteAtlas.PLAYER_UP;
         } else if (direction == 40) { // Moving Down
-            this.sprite = app.loadImage("src/main/resources/playerDown.png");
+            this.sprite = SpriteAtlas.PLAYER_DOWN;
         } else if (direction == 39) { // Moving Right
-            this.sprite = app.loadImage("src/main/resources/playerRight.png");
+            this.sprite = SpriteAtlas.PLAYER_RIGHT;
         } else if (direction == 37) { // Moving Left
-            this.sprite = app.loadImage("src/main/resources/playerLeft.png");
+            this.sprite = SpriteAtlas.PLAYER_LEFT;
         }
             
     }
@@ -136,62 +221,49 @@ public class Waka {
             this.x = this.x - speed;
         }
         this.direction = direction;   
-        this.coord = new Coordinate((this.x + 4), (this.y + 5));
+        this.updateHash();
     }
 
     /**
     Returns if the Waka can move in the direction provided.
+    <p>
+    Looks up the space being moved into in the TileGrid's neighbour table, from the space the Waka
+    is in or, part way between two spaces, the one it is moving away from. Moves off the edge of the
+    map are only allowed through a tunnel.
 
     @param direction The direction to check if the Waka can move into.
-    @param app The app the Waka belongs to.
-    @return True if the space in the direction is an EmptyPiece, 
-        FruitPiece, SuperFruit or SodaCan, False otherwise.
+    @param gameManager The GameManager the Waka belongs to.
+    @return True if the space in the direction is not a wall and lies within the map, 
+        False otherwise.
     */
-    public boolean canMove(int direction, App app) {
-        if (direction == 0) {
+    public boolean canMove(int direction, GameManager gameManager) {
+        if (direction < 37 || direction > 40) {
             return false;
         }
-        double x = (double) this.x;
-        double y = (double) this.y;
-        double currentPosY = (y + 5) / 16;
-        double currentPosX = (x + 4) / 16;
-        double modX = currentPosX % 1.0;
-        double modY = currentPosY % 1.0;
-        if (direction == 37 && modX != 0) {
-            currentPosX = Math.ceil(currentPosX);
-        } else if (direction == 38 && modY != 0) {
-            currentPosY = Math.ceil(currentPosY);
-        } else if (direction == 39 && modX != 0) {
-            currentPosX = Math.floor(currentPosX);
-        } else if (direction == 40 && modY != 0) {
-            currentPosY = Math.floor(currentPosY);
+        TileGrid tileGrid = gameManager.getTileGrid();
+        int column = (this.x + 4) / 16;
+        int row = (this.y + 5) / 16;
+        if (direction == 37 && (this.x + 4) % 16 != 0) {
+            column = (column + 1) % tileGrid.getWidth();
+        } else if (direction == 38 && (this.y + 5) % 16 != 0) {
+            row = (row + 1) % tileGrid.getHeight();
         }
-        double currentPos = (28 * currentPosY) + currentPosX;
-        double cursorD = 0;
-        int cursor = 0;
-        if (direction == 39) {
-            cursorD = currentPos + 1.0;
-            cursor = (int) cursorD;
-        } else if (direction == 37) {
-            cursorD = currentPos - 1.0;
-            cursor = (int) cursorD;
-        } else if (direction == 38) {
-            cursorD = currentPos - 28.0;
-            cursor = (int) cursorD;
-        } else if (direction == 40) {
-            cursorD = currentPos + 28.0;
-            cursor = (int) cursorD;
-        }
-        if (cursor < 0 || cursor > 1007) {
-            return false;
-        }
-        MapPiece piece = app.getMapPieces().get(cursor);
-        if (piece == null) {
-            return false;
-        } else if (piece.getClass().toString().equals("class ghost.WallPiece")) {
-            return false;
-        } else {
-            return true;
+        int from = (row * tileGrid.getWidth()) + column;
+        return !tileGrid.isWall(tileGrid.neighbour(from, TileGrid.directionIndex(direction)));
+    }
+
+    /**
+    Moves the Waka back onto the map if it has passed through a tunnel.
+
+    @param tileGrid The grid of the map the Waka is moving through.
+    */
+    public void wrap(TileGrid tileGrid) {
+        int x = tileGrid.wrapX(this.x + 4) - 4;
+        int y = tileGrid.wrapY(this.y + 5) - 5;
+        if (x != this.x || y != this.y) {
+            this.x = x;
+            this.y = y;
+            this.updateHash();
         }
     }
 
@@ -210,13 +282,13 @@ public class Waka {
     /**
     Returns the index which the Waka is currently in in the MapPiece list.
 
+    @param tileGrid The grid of the map the Waka is moving through.
     @return The integer index which space the Waka currently occupies.
     */
-    public int getIndex() {
+    public int getIndex(TileGrid tileGrid) {
         if (!this.aligned()) {
             return 0;
         }
-        int index = (((this.y + 5) / 16) * 28) + ((this.x + 4) / 16);
-        return index;
+        return tileGrid.indexAt(this.x + 4, this.y + 5);
     }
 }
\ No newline at end of file
@@ -0,0 +1,290 @@
+package ghost;
+
+/**
+A reinforcement learning environment over a single headless game, in the style of a Gym environment.
+<p>
+reset starts a new episode and step advances it by one action, returning the reward. After each call
+the observation buffer holds the game's state as whole numbers, laid out as:
+<ul>
+<li>one tile type per map tile, row by row, as in TileGrid;</li>
+<li>the Waka's X and Y, its direction from 0 to 3 as in TileGrid, the current mode, the ticks left
+until the Ghosts stop being frightened, and the lives left;</li>
+<li>for each Ghost, or each member of the swarm, its X, Y, state and type as in GhostSwarm.</li>
+</ul>
+The buffer is allocated once, or given by a WakaVecEnv so many environments share one array, and is
+overwritten in place, so stepping allocates only what the game's own tick does. Tiles are only written
+again when something is collected, as that is the only way they change.
+*/
+public class WakaEnv {
+
+    public static final int WAKA_X = 0;
+    public static final int WAKA_Y = 1;
+    public static final int WAKA_DIRECTION = 2;
+    public static final int MODE = 3;
+    public static final int FRIGHTENED_TICKS = 4;
+    public static final int LIVES = 5;
+    public static final int HEADER_SIZE = 6;
+    public static final int GHOST_X = 0;
+    public static final int GHOST_Y = 1;
+    public static final int GHOST_STATE = 2;
+    public static final int GHOST_TYPE = 3;
+    public static final int GHOST_SIZE = 4;
+
+    public static final float FRUIT_REWARD = 1;
+    public static final float GHOST_REWARD = 5;
+    public static final float DEATH_REWARD = -10;
+    public static final float WIN_REWARD = 50;
+
+    private GameConfig config;
+    private int ticksPerStep;
+    private int maxSteps;
+    private GameManager game;
+    private int[] observation;
+    private int offset;
+    private int tileCount;
+    private int ghostCount;
+    private int steps;
+    private boolean done;
+    private int fruitCount;
+    private int deadGhosts;
+    private int lives;
+
+    /**
+    Constructs a new WakaEnv with its own observation buffer. No game is played until it is reset.
+
+    @param config The settings every episode is played with.
+    @param ticksPerStep The number of ticks each action is held for.
+    @param maxSteps The most steps in an episode before it is cut short, or 0 for no limit.
+    */
+    public WakaEnv(GameConfig config, int ticksPerStep, int maxSteps) {
+        this(config, ticksPerStep, maxSteps, null, 0);
+    }
+
+    /**
+    Constructs a new WakaEnv that writes its observations into part of a shared buffer.
+
+    @param config The settings every episode is played with.
+    @param ticksPerStep The number of ticks each action is held for.
+    @param maxSteps The most steps in an episode before it is cut short, or 0 for no limit.
+    @param observation The buffer to write into, or null to allocate one of observationSize(config).
+    @param offset The position in the buffer this environment's observation starts at.
+    */
+    WakaEnv(GameConfig config, int ticksPerStep, int maxSteps, int[] observation, int offset) {
+        this.config = config;
+        this.ticksPerStep = Math.max(1, ticksPerStep);
+        this.maxSteps = maxSteps;
+        this.game = null;
+        this.observation = (observation != null) ? observation : new int[WakaEnv.observationSize(config)];
+        this.offset = offset;
+        this.steps = 0;
+        this.done = true;
+    }
+
+    /**
+    Returns the length of the observation for games played with the config provided.
+    <p>
+    Builds a game to count the map's tiles and Ghosts, so should be called once rather than per step.
+
+    @param config The settings the games are played with.
+    @return The number of values in each observation.
+    */
+    public static int observationSize(GameConfig config) {
+        GameManager game = new GameManager(config, 0);
+        return game.getTileGrid().size() + HEADER_SIZE + (WakaEnv.ghostCount(game) * GHOST_SIZE);
+    }
+
+    /**
+    Returns the number of Ghosts in a game, counting each member of a swarm.
+
+    @param game The game.
+    @return The number of Ghosts.
+    */
+    private static int ghostCount(GameManager game) {
+        if (game.getSwarm() != null) {
+            return game.getSwarm().size();
+        }
+        return game.getGhosts().size();
+    }
+
+    /**
+    Starts a new episode, restoring the last episode's game in place rather than building a new one.
+
+    @param seed The seed for the episode's random choices.
+    @return The observation buffer, holding the episode's first observation.
+    */
+    public int[] reset(long seed) {
+        if (this.game == null) {
+            this.game = new GameManager(this.config, seed);
+        } else {
+            this.game.resetGame(seed);
+        }
+        this.tileCount = this.game.getTileGrid().size();
+        this.ghostCount = WakaEnv.ghostCount(this.game);
+        this.steps = 0;
+        this.done = false;
+        this.fruitCount = this.game.getFruitCount();
+        this.deadGhosts = this.game.getDeadGhosts();
+        this.lives = this.game.getLives();
+        this.writeTiles();
+        this.writeState();
+        return this.observation;
+    }
+
+    /**
+    Holds the action provided for the number of ticks per step, stopping early if the episode ends.
+    <p>
+    The reward is FRUIT_REWARD for each collectable picked up, GHOST_REWARD for each Ghost sent to
+    Ghost jail, DEATH_REWARD for each life lost and WIN_REWARD for collecting everything.
+
+    @param action The direction to hold from 0 to 3 as in TileGrid, or any other number to keep the last one.
+    @return The reward earned by the step.
+    @throws IllegalStateException If the episode is done and has not been reset.
+    */
+    public float step(int action) {
+        if (this.done) {
+            throw new IllegalStateException("The episode is done; reset the environment before stepping");
+        }
+        GameManager game = this.game;
+        int key = (action >= 0 && action < 4) ? TileGrid.directionKey(action) : 0;
+        for (int tick = 0; tick < this.ticksPerStep && !game.isEndGame(); tick++) {
+            game.tick(key);
+        }
+        this.steps++;
+        float reward = 0;
+        int fruitCount = game.getFruitCount();
+        if (fruitCount != this.fruitCount) {
+            reward += FRUIT_REWARD * (fruitCount - this.fruitCount);
+            this.fruitCount = fruitCount;
+            this.writeTiles();
+        }
+        int deadGhosts = game.getDeadGhosts();
+        if (deadGhosts > this.deadGhosts) {
+            reward += GHOST_REWARD * (deadGhosts - this.deadGhosts);
+        }
+        this.deadGhosts = deadGhosts;
+        int lives = game.getLives();
+        if (lives < this.lives) {
+            reward += DEATH_REWARD * (this.lives - lives);
+        }
+        this.lives = lives;
+        if (game.isEndGame()) {
+            this.done = true;
+            if (game.hasWon()) {
+                reward += WIN_REWARD;
+            }
+        } else if (this.maxSteps > 0 && this.steps >= this.maxSteps) {
+            this.done = true;
+        }
+        this.writeState();
+        return reward;
+    }
+
+    /**
+    Returns whether the episode has ended, because the game was won or lost or the step limit was reached.
+
+    @return True if the environment must be reset before stepping again.
+    */
+    public boolean isDone() {
+        return this.done;
+    }
+
+    /**
+    Returns the observation buffer, which may be shared with other environments.
+
+    @return The buffer this environment writes its observation into.
+    */
+    public int[] getObservation() {
+        return this.observation;
+    }
+
+    /**
+    Returns the position in the observation buffer this environment's observation starts at.
+
+    @return The offset of the observation.
+    */
+    public int getOffset() {
+        return this.offset;
+    }
+
+    /**
+    Returns the game being played in the current episode.
+
+    @return The game, or null if the environment has never been reset.
+    */
+    public GameManager getGame() {
+        return this.game;
+    }
+
+    /**
+    Returns the number of steps taken in the current episode.
+
+    @return The step count.
+    */
+    public int getSteps() {
+        return this.steps;
+    }
+
+    /**
+    Returns a seed for the next episode that follows on from the current one, so a run of episodes
+    is repeated exactly when the first is started from the same seed.
+
+    @return The state of the current game's random number generator.
+    */
+    public long nextSeed() {
+        return this.game.getRandom().getState();
+    }
+
+    /**
+    Writes the type of every tile into the observation.
+    */
+    private void writeTiles() {
+        TileGrid tileGrid = this.game.getTileGrid();
+        int[] observation = this.observation;
+        int offset = this.offset;
+        for (int i = 0; i < this.tileCount; i++) {
+            observation[offset + i] = tileGrid.tileType(i);
+        }
+    }
+
+    /**
+    Writes the Waka, mode, frightened time, lives and every Ghost into the observation.
+    */
+    private void writeState() {
+        GameManager game = this.game;
+        int[] observation = this.observation;
+        int at = this.offset + this.tileCount;
+        Waka waka = game.getWaka();
+        observation[at + WAKA_X] = waka.getX() + 4;
+        observation[at + WAKA_Y] = waka.getY() + 5;
+        observation[at + WAKA_DIRECTION] = TileGrid.directionIndex(waka.getDirection());
+        observation[at + MODE] = game.currentMode();
+        observation[at + FRIGHTENED_TICKS] = game.getFrightenedTicksLeft();
+        observation[at + LIVES] = game.getLives();
+        at += HEADER_SIZE;
+        GhostSwarm swarm = game.getSwarm();
+        if (swarm != null) {
+            for (int i = 0; i < this.ghostCount; i++) {
+                observation[at + GHOST_X] = swarm.getX(i) + 6;
+                observation[at + GHOST_Y] = swarm.getY(i) + 6;
+                observation[at + GHOST_STATE] = swarm.getState(i);
+                observation[at + GHOST_TYPE] = swarm.getType(i);
+                at += GHOST_SIZE;
+            }
+            return;
+        }
+        int sharedState = GhostSwarm.NORMAL;
+        if (game.getFrightened()) {
+            sharedState = GhostSwarm.FRIGHTENED;
+        } else if (game.isWavy()) {
+            sharedState = GhostSwarm.WAVY;
+        }
+        for (int i = 0; i < this.ghostCount; i++) {
+            Ghost ghost = game.getGhosts().get(i);
+            observation[at + GHOST_X] = ghost.getX() + 6;
+            observation[at + GHOST_Y] = ghost.getY() + 6;
+            observation[at + GHOST_STATE] = ghost.canGhostMove() ? sharedState : GhostSwarm.JAILED;
+            observation[at + GHOST_TYPE] = GhostSwarm.typeOf(ghost);
+            at += GHOST_SIZE;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package ghost;
+
+import java.util.concurrent.*;
+
+/**
+Steps many WakaEnvs together, so a learner can act for a whole batch of environments at once.
+<p>
+Every environment writes its observation into its own slice of one shared array, environment i
+starting at i times observationSize(), so the whole batch can be handed to a learner without copying.
+An environment whose episode ends is reset straight away with a seed that follows on from its last game,
+so its slice then holds the first observation of its next episode while dones still reports the end.
+Environments are independent and share only the immutable GameConfig, so they can be stepped
+on any number of threads, split between them by a fork join pool, and give the same results on each.
+*/
+public class WakaVecEnv {
+
+    private static final int ENVS_PER_TASK = 16;
+
+    private WakaEnv[] envs;
+    private int observationSize;
+    private int[] observations;
+    private float[] rewards;
+    private boolean[] dones;
+    private int[] actions;
+    private ForkJoinPool pool;
+
+    /**
+    Constructs a new WakaVecEnv. No games are played until it is reset.
+
+    @param config The settings every episode is played with.
+    @param count The number of environments.
+    @param ticksPerStep The number of ticks each action is held for.
+    @param maxSteps The most steps in an episode before it is cut short, or 0 for no limit.
+    @param threads The number of threads to step on; 1 steps every environment on the calling thread.
+    */
+    public WakaVecEnv(GameConfig config, int count, int ticksPerStep, int maxSteps, int threads) {
+        this.observationSize = WakaEnv.observationSize(config);
+        this.observations = new int[count * this.observationSize];
+        this.rewards = new float[count];
+        this.dones = new boolean[count];
+        this.actions = null;
+        this.envs = new WakaEnv[count];
+        for (int i = 0; i < count; i++) {
+            this.envs[i] = new WakaEnv(config, ticksPerStep, maxSteps, this.observations, i * this.observationSize);
+        }
+        this.pool = (threads > 1) ? new ForkJoinPool(threads) : null;
+    }
+
+    /**
+    Starts a new episode in every environment.
+
+    @param seed The seed of the batch; environment i is reset with BatchRunner.gameSeed(seed, i).
+    @return The observations of every environment.
+    */
+    public int[] reset(long seed) {
+        for (int i = 0; i < this.envs.length; i++) {
+            this.envs[i].reset(BatchRunner.gameSeed(seed, i));
+            this.rewards[i] = 0;
+            this.dones[i] = false;
+        }
+        return this.observations;
+    }
+
+    /**
+    Steps every environment with its own action, filling in the rewards and dones.
+
+    @param actions One action for each environment, as taken by WakaEnv.step.
+    @return The observations of every environment.
+    */
+    public int[] step(int[] actions) {
+        this.actions = actions;
+        if (this.pool == null) {
+            this.stepRange(0, this.envs.length);
+        } else {
+            this.pool.invoke(new StepTask(0, this.envs.length));
+        }
+        this.actions = null;
+        return this.observations;
+    }
+
+    /**
+    Steps a range of the environments, resetting any whose episode ends.
+
+    @param from The first environment to step.
+    @param to The environment after the last one to step.
+    */
+    private void stepRange(int from, int to) {
+        for (int i = from; i < to; i++) {
+            WakaEnv env = this.envs[i];
+            this.rewards[i] = env.step(this.actions[i]);
+            this.dones[i] = env.isDone();
+            if (this.dones[i]) {
+                env.reset(env.nextSeed());
+            }
+        }
+    }
+
+    /**
+    Returns the observations of every environment, one after another.
+
+    @return The shared observation buffer.
+    */
+    public int[] getObservations() {
+        return this.observations;
+    }
+
+    /**
+    Returns the reward each environment earned on the last step.
+
+    @return The rewards, one per environment.
+    */
+    public float[] getRewards() {
+        return this.rewards;
+    }
+
+    /**
+    Returns whether each environment's episode ended on the last step.
+
+    @return The dones, one per environment.
+    */
+    public boolean[] getDones() {
+        return this.dones;
+    }
+
+    /**
+    Returns the number of values in each environment's observation.
+
+    @return The observation size.
+    */
+    public int observationSize() {
+        return this.observationSize;
+    }
+
+    /**
+    Returns the number of environments.
+
+    @return The environment count.
+    */
+    public int size() {
+        return this.envs.length;
+    }
+
+    /**
+    Returns one of the environments.
+
+    @param i The number of the environment.
+    @return The environment.
+    */
+    public WakaEnv get(int i) {
+        return this.envs[i];
+    }
+
+    /**
+    Shuts down the threads used for stepping, if there are any.
+    */
+    public void close() {
+        if (this.pool != null) {
+            this.pool.shutdown();
+            this.pool = null;
+        }
+    }
+
+    /**
+    Steps a range of environments, splitting the range in half until it is small enough to step directly.
+    */
+    private class StepTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private int from;
+        private int to;
+
+        /**
+        Constructs a new StepTask.
+
+        @param from The first environment to step.
+        @param to The environment after the last one to step.
+        */
+        StepTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+        Steps the task's environments, or splits them between two smaller tasks.
+        */
+        protected void compute() {
+            if (this.to - this.from <= ENVS_PER_TASK) {
+                WakaVecEnv.this.stepRange(this.from, this.to);
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new StepTask(this.from, middle), new StepTask(middle, this.to));
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package ghost;
 
-import processing.core.PApplet;
-import processing.core.PImage;
+import processing.core.PGraphics;
 
 /**
 Represents all of the walls in the map.
@@ -12,30 +11,31 @@ public class WallPiece implements MapPiece {
 
     private int x;
     private int y;
-    private PImage sprite;
+    private int sprite;
     private Coordinate coord;
 
     /**
     Constructs a new WallPiece instance.
     
-    @param sprite The image of the wall to be drawn.
+    @param sprite The sprite ID of the wall to be drawn.
     @param x The X axis position of the piece.
     @param y The Y axis position of the piece.
     */
-    public WallPiece(PImage sprite, int x, int y) {
+    public WallPiece(int sprite, int x, int y) {
         this.sprite = sprite;
         this.x = x;
         this.y = y;
-        this.coord = new Coordinate(this.x, this.y);
+        this.coord = Coordinate.of(this.x, this.y);
     }
 
     /**
-    Draws this pieces sprite to the app window.
+    Draws this pieces sprite to the canvas provided.
     
-    @param app The app the piece belongs to.
+    @param canvas The surface to draw onto, either the app window or an offscreen layer.
+    @param sprites The atlas holding the piece's image.
     */
-    public void draw(PApplet app) {
-        app.image(this.sprite, this.x, this.y);
+    public void draw(PGraphics canvas, SpriteAtlas sprites) {
+        canvas.image(sprites.get(this.sprite), this.x, this.y);
     }
 
     /**
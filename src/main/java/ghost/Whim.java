@@ -1,7 +1,5 @@
 package ghost;
 
-import processing.core.PApplet;
-import processing.core.PImage;
 import java.util.*;
 import java.lang.Math;
 
@@ -21,12 +19,11 @@ public class Whim extends Ghost {
     <p>
     The instance stores it's parameters as it's variables.
 
-    @param app The App instance the Whim is part of.
     @param x The starting x coordinate of the Whim.
     @param y the starting y coordinate of the Whim.
     */
-    public Whim(PApplet app, int x, int y) {
-        super(app, x, y);
+    public Whim(int x, int y) {
+        super(x, y);
     }
 
     /** 
@@ -34,26 +31,17 @@ public class Whim extends Ghost {
     <p>
     The Whim's Scatter Target is the bottom right corner of the map. 
     Will assign the Whim's target as this space. 
-    Takes in a HashMap of possible moves and a GameManager instance.
+    Takes in a mask of possible moves and a GameManager instance.
 
-    @param possibleMoves HashMap of Coordinates and the Direction integers 
-        they are in at an intersection. 
+    @param possibleMoves Mask of the directions the Whim can move at an intersection.
     @param gameManager The GameManager instance the Whim is part of.
     @return The integer relating to the direction the Whim 
         should move to get to the bottom right corner.
     */
-    public int wayToScatter(HashMap<Coordinate, Integer> possibleMoves, GameManager gameManager) {
-        Coordinate target = gameManager.getApp().getMap().getBottomRight();
-        int distance = 1000000;
-        int directionToGo = 0;
-        for (Coordinate coord : possibleMoves.keySet()) {
-            if (Coordinate.eucliDist(coord, target) < distance) {
-                directionToGo = possibleMoves.get(coord);
-                distance = Coordinate.eucliDist(coord, target);
-            } 
-        }
+    public int wayToScatter(int possibleMoves, GameManager gameManager) {
+        Coordinate target = gameManager.getMap().getBottomRight();
         this.target = target;
-        return directionToGo;
+        return this.closestDirection(possibleMoves, gameManager, target.getX(), target.getY());
     }
 
     /**
@@ -62,25 +50,24 @@ public class Whim extends Ghost {
     The Whim's chase target is the space that is double the vector from the space the 
     Chaser Ghost occupies and 2 spaces in front of the player.  
     Will assgin the Whim's target as this space. 
-    Takes in a HashMap of possible moves and a GameManager instance.
+    Takes in a mask of possible moves and a GameManager instance.
 
-    @param possibleMoves HashMap of Coordinates and the Direction integers
-        they are in at an intersection.
+    @param possibleMoves Mask of the directions the Whim can move at an intersection.
     @param gameManager The GameManager instance the Whim is part of.
     @return The integer relating to the direction the Whim should go to to get to the Chase target. 
     */
-    public int wayToChase(HashMap<Coordinate, Integer> possibleMoves, GameManager gameManager) {
+    public int wayToChase(int possibleMoves, GameManager gameManager) {
         Coordinate chaseCoord = null;
-        ArrayList<Ghost> ghostList = gameManager.getApp().getGhosts();
+        ArrayList<Ghost> ghostList = gameManager.getGhosts();
         for (int i = 0; i < ghostList.size(); i++) {
-            if (ghostList.get(i).getClass().toString().equals("class ghost.Chaser")) {
+            if (ghostList.get(i) instanceof Chaser) {
                 chaseCoord = ghostList.get(i).getCoord();
                 break;
             }
         }
-        int wakaX = gameManager.getApp().getWaka().getX() - 4;
-        int wakaY = gameManager.getApp().getWaka().getY() - 5;
-        int wakaDirection = gameManager.getApp().getWaka().getDirection();
+        int wakaX = gameManager.getWaka().getX() - 4;
+        int wakaY = gameManager.getWaka().getY() - 5;
+        int wakaDirection = gameManager.getWaka().getDirection();
         if (wakaDirection == 37) {
             wakaX = wakaX - (16 * 2);
         } else if (wakaDirection == 38) {
@@ -90,50 +77,39 @@ public class Whim extends Ghost {
         } else if (wakaDirection == 40) {
             wakaY = wakaY + (16 * 2);
         }
+        TileGrid tileGrid = gameManager.getTileGrid();
         if (wakaX < 0) {
             wakaX = 0;
-        } else if (wakaX > 448) {
-            wakaX = 448;
+        } else if (wakaX > tileGrid.pixelWidth()) {
+            wakaX = tileGrid.pixelWidth();
         } else if (wakaY < 0) {
             wakaY = 0;
-        } else if (wakaY > 576) {
-            wakaY = 576;
+        } else if (wakaY > tileGrid.pixelHeight()) {
+            wakaY = tileGrid.pixelHeight();
         }
-        Coordinate twoInFront = new Coordinate(wakaX, wakaY);
-        int xLength = twoInFront.getX() - chaseCoord.getX();
-        int yLength = twoInFront.getY() - chaseCoord.getY();
+        int xLength = wakaX - chaseCoord.getX();
+        int yLength = wakaY - chaseCoord.getY();
         int targetX = 0;
         int targetY = 0;
-        if (twoInFront.getX() > chaseCoord.getX()) {
-            targetX = twoInFront.getX() + xLength;
+        if (wakaX > chaseCoord.getX()) {
+            targetX = wakaX + xLength;
         } else {
             targetX = chaseCoord.getX() + xLength;
         }
-        if (twoInFront.getY() > chaseCoord.getY()) {
-            targetY = twoInFront.getY() + yLength;
+        if (wakaY > chaseCoord.getY()) {
+            targetY = wakaY + yLength;
         } else {
             targetY = chaseCoord.getY() + yLength;
         }
-        Coordinate target = new Coordinate(targetX, targetY);
-        int distance = 1000000;
-        int directionToGo = 0;
-        for (Coordinate coord : possibleMoves.keySet()) {
-            if (Coordinate.eucliDist(coord, target) < distance) {
-                directionToGo = possibleMoves.get(coord);
-                distance = Coordinate.eucliDist(coord, target);
-            } 
-        }
+        Coordinate target = Coordinate.of(targetX, targetY);
         this.target = target;
-        return directionToGo;
+        return this.closestDirection(possibleMoves, gameManager, target.getX(), target.getY());
     }
 
     /**
     Changes the Whim's sprite to it's original image.
-
-    @param app The App instance the Whim is part of.
-     */
-    public void beBrave(PApplet app) {
-        PImage sprite = app.loadImage("src/main/resources/whim.png");
-        this.setSprite(sprite);
+    */
+    public void beBrave() {
+        this.setSprite(SpriteAtlas.WHIM);
     }
 }
\ No newline at end of file
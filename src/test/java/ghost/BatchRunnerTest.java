@@ -0,0 +1,61 @@
+package ghost;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchRunnerTest {
+
+    @Test
+    public void gameRandomTest() {
+        GameRandom randomA = new GameRandom(42);
+        GameRandom randomB = new GameRandom(42);
+        for (int i = 0; i < 100; i++) {
+            int value = randomA.nextInt(4);
+            assertEquals(value, randomB.nextInt(4));
+            assertTrue(value >= 0 && value < 4);
+        }
+        long state = randomA.getState();
+        long next = randomA.nextLong();
+        randomA.setState(state);
+        assertEquals(randomA.nextLong(), next);
+    }
+
+    @Test
+    public void batchRunnerTest() {
+        GameConfig config = GameConfig.load("config.json");
+        assertNotNull(config);
+        BatchRunner runner = new BatchRunner(config, seed -> new RandomInputPolicy(seed), 3000);
+        BatchResult single = runner.run(20, 7, 1);
+        BatchResult parallel = runner.run(20, 7, 4);
+        assertEquals(single.getGames(), 20);
+        assertEquals(single.toString(), parallel.toString());
+        assertTrue(single.getAverageFruit() > 0);
+        assertEquals(single.getWinRate(), (double) single.getWins() / 20);
+        assertEquals(single.getConfigResults().size(), 1);
+        assertEquals(single.getConfigResult(config).toString(), single.toString());
+    }
+
+    @Test
+    public void configSweepTest() {
+        GameConfig config = GameConfig.load("config.json");
+        GameConfig[] sweep = new GameConfig[3];
+        for (int i = 0; i < sweep.length; i++) {
+            sweep[i] = new GameConfig(config.getMapFilePath(), config.getLives(), config.getSpeed(), 2 + (4 * i),
+                new int[] {5 * (i + 1), 20}, config.getPathfinding(), 60, 60, false, null, 0, null, 10);
+        }
+        BatchRunner runner = new BatchRunner(game -> sweep[game / 10], seed -> new RandomInputPolicy(seed), 3000);
+        BatchResult single = runner.run(30, 5, 1);
+        BatchResult parallel = runner.run(30, 5, 3);
+        assertEquals(single.getConfigResults().size(), 3);
+        assertEquals(single.toString(), parallel.toString());
+        for (int i = 0; i < sweep.length; i++) {
+            assertEquals(single.getConfigResult(sweep[i]).getGames(), 10);
+            assertEquals(single.getConfigResult(sweep[i]).toString(), parallel.getConfigResult(sweep[i]).toString());
+            BatchResult fresh = new BatchResult();
+            for (int game = 10 * i; game < 10 * (i + 1); game++) {
+                runner.playGame(null, sweep[i], BatchRunner.gameSeed(5, game), fresh);
+            }
+            assertEquals(single.getConfigResult(sweep[i]).toString(), fresh.toString());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package ghost;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.concurrent.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private String writeConfig(String json) throws IOException {
+        Path file = this.directory.resolve("config.json");
+        Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+        return file.toString();
+    }
+
+    private static String json(int speed, int frightenedLength) {
+        return "{\"map\": \"map.txt\", \"lives\": 3, \"speed\": " + speed
+            + ", \"frightenedLength\": " + frightenedLength + ", \"modeLengths\": [7, 20]}";
+    }
+
+    @Test
+    public void validateTest() throws IOException {
+        GameConfig config = GameConfig.read(this.writeConfig(ConfigServiceTest.json(2, 5)));
+        assertEquals(config.getSpeed(), 2);
+        assertEquals(config.getPathfinding(), "euclidean");
+
+        String badValues = this.writeConfig(ConfigServiceTest.json(3, -1));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> GameConfig.read(badValues));
+        assertTrue(e.getMessage().contains("\"speed\" must be 1, 2, 4, 8 or 16, was 3"));
+        assertTrue(e.getMessage().contains("\"frightenedLength\" must not be negative"));
+        assertNull(GameConfig.load(badValues));
+
+        String missing = this.writeConfig("{\"map\": \"map.txt\", \"lives\": 3, \"modeLengths\": []}");
+        e = assertThrows(IllegalArgumentException.class, () -> GameConfig.read(missing));
+        assertTrue(e.getMessage().contains("\"speed\" is missing"));
+
+        String wrongType = this.writeConfig(ConfigServiceTest.json(2, 5).replace("[7, 20]", "[7, \"20\"]"));
+        e = assertThrows(IllegalArgumentException.class, () -> GameConfig.read(wrongType));
+        assertTrue(e.getMessage().contains("\"modeLengths\" must be a list of whole numbers"));
+
+        String noMap = this.writeConfig(ConfigServiceTest.json(2, 5).replace("map.txt", "missing.txt"));
+        e = assertThrows(IllegalArgumentException.class, () -> GameConfig.read(noMap));
+        assertTrue(e.getMessage().contains("\"map\" file missing.txt does not exist"));
+
+        String notJson = this.writeConfig("{\"map\": ");
+        e = assertThrows(IllegalArgumentException.class, () -> GameConfig.read(notJson));
+        assertTrue(e.getMessage().contains("not valid JSON"));
+    }
+
+    @Test
+    public void reloadTest() throws IOException {
+        String file = this.writeConfig(ConfigServiceTest.json(1, 5));
+        ConfigService service = new ConfigService(file);
+        BlockingQueue<GameConfig> received = new LinkedBlockingQueue<GameConfig>();
+        service.addListener(received::add);
+        assertFalse(service.reload());
+
+        this.writeConfig(ConfigServiceTest.json(4, 5));
+        assertTrue(service.reload());
+        assertEquals(service.get().getSpeed(), 4);
+        assertEquals(received.poll().getSpeed(), 4);
+
+        this.writeConfig(ConfigServiceTest.json(5, 5));
+        assertFalse(service.reload());
+        assertEquals(service.get().getSpeed(), 4);
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    public void watchTest() throws Exception {
+        String file = this.writeConfig(ConfigServiceTest.json(1, 5));
+        ConfigService service = new ConfigService(file);
+        BlockingQueue<GameConfig> received = new LinkedBlockingQueue<GameConfig>();
+        service.addListener(received::add);
+        assertTrue(service.start());
+        try {
+            this.writeConfig(ConfigServiceTest.json(1, 9));
+            GameConfig config = received.poll(10, TimeUnit.SECONDS);
+            assertNotNull(config);
+            assertEquals(config.getFrightenedLength(), 9);
+        } finally {
+            service.stop();
+        }
+    }
+
+    @Test
+    public void liveUpdateTest() {
+        GameConfig config = GameConfig.load("config.json");
+        GameManager game = new GameManager(config, 3);
+        int lives = game.getLives();
+        for (int tick = 0; tick < 7; tick++) {
+            game.tick(37);
+        }
+        assertEquals(game.currentMode(), GameManager.SCATTER);
+        GameConfig faster = new GameConfig(config.getMapFilePath(), 1, 4, config.getFrightenedLength(),
+            new int[] {0, 1000}, config.getPathfinding(), config.getTickRate(), config.getFrameRate(),
+            false, null, 0, null, 10);
+        game.updateConfig(faster);
+        assertEquals(game.getSpeed(), 1);
+        for (int tick = 0; tick < 64 && game.getSpeed() != 4; tick++) {
+            game.tick(37);
+        }
+        assertEquals(game.getSpeed(), 4);
+        assertEquals(game.getConfig(), faster);
+        assertEquals(game.currentMode(), GameManager.CHASE);
+        assertEquals(game.getLives(), lives);
+        for (int tick = 0; tick < 200; tick++) {
+            game.tick(37);
+            assertEquals((game.getWaka().getX() + 4) % 4, 0);
+        }
+
+        game.resetGame();
+        assertEquals(game.getLives(), 1);
+        assertEquals(game.getSpeed(), 4);
+
+        GameConfig otherMap = new GameConfig("mapTest.txt", 3, 1, config.getFrightenedLength(),
+            config.getModeLengths(), config.getPathfinding(), 30, config.getFrameRate(), false, null, 0, null, 10);
+        game.updateConfig(otherMap);
+        game.tick(37);
+        assertEquals(game.getMapFilePath(), config.getMapFilePath());
+        game.resetGame();
+        assertEquals(game.getMapFilePath(), "mapTest.txt");
+        assertEquals(game.getTickRate(), 30);
+        assertEquals(game.getMap().getFruitCount(), 4);
+        assertEquals(game.getCollectibles().size(), 4);
+        assertEquals(game.getTileGrid().size(), new Map("mapTest.txt").getWidth() * 36);
+    }
+}
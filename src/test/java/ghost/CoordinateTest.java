@@ -17,6 +17,31 @@ class CoordinateTest {
         assertTrue(coordA.getX() == 16 && coordA.getY() == 16);
         assertTrue(coordA.equals(coordD));
         assertTrue(Coordinate.eucliDist(coordA, coordB) == 16);
-        assertTrue(coordC.toIndex() == 58);
+        assertTrue(coordC.toIndex(new TileGrid(28, 36)) == 58);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void valueTest() {
+        Coordinate coordA = new Coordinate(16, 16);
+        Coordinate coordB = new Coordinate(16, 16);
+        assertEquals(coordA, coordB);
+        assertEquals(coordA.hashCode(), coordB.hashCode());
+        assertNotEquals(coordA, new Coordinate(16, 17));
+        assertNotEquals(coordA, "(16, 16)");
+        HashMap<Coordinate, Integer> values = new HashMap<Coordinate, Integer>();
+        values.put(coordA, 1);
+        assertEquals(values.get(coordB), 1);
+
+        assertSame(Coordinate.of(32, 48), Coordinate.of(32, 48));
+        assertNotSame(Coordinate.of(33, 48), Coordinate.of(33, 48));
+        assertEquals(Coordinate.of(-16, 48), new Coordinate(-16, 48));
+        Coordinate negative = new Coordinate(-5, -7);
+        assertEquals(negative.getX(), -5);
+        assertEquals(negative.getY(), -7);
+        assertEquals(negative.toLong(), Coordinate.pack(-5, -7));
+
+        assertEquals(Coordinate.distSq(coordA, new Coordinate(19, 20)), 25);
+        assertEquals(Coordinate.eucliDist(0, 0, 7, 1), 7);
+        assertTrue(Coordinate.distSq(0, 0, 7, 1) > Coordinate.distSq(0, 0, 7, 0));
+    }
+}
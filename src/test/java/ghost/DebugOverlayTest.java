@@ -0,0 +1,71 @@
+package ghost;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DebugOverlayTest {
+
+    @Test
+    public void ringBufferTest() {
+        RingBuffer buffer = new RingBuffer(3);
+        assertEquals(buffer.size(), 0);
+        assertEquals(buffer.latest(), 0);
+        assertEquals(buffer.mean(), 0.0);
+        buffer.add(5);
+        buffer.add(1);
+        assertEquals(buffer.size(), 2);
+        assertEquals(buffer.get(0), 5);
+        assertEquals(buffer.latest(), 1);
+        buffer.add(2);
+        buffer.add(9);
+        assertEquals(buffer.size(), 3);
+        assertEquals(buffer.get(0), 1);
+        assertEquals(buffer.get(1), 2);
+        assertEquals(buffer.get(2), 9);
+        assertEquals(buffer.max(), 9);
+        assertEquals(buffer.mean(), 4.0);
+        buffer.clear();
+        assertEquals(buffer.size(), 0);
+    }
+
+    @Test
+    public void recordFrameTest() {
+        DebugOverlay overlay = new DebugOverlay();
+        overlay.recordFrame(1000, 1, 64);
+        overlay.recordFrame(17000, 2, 128);
+        assertEquals(overlay.getFrameNanos().size(), 1);
+        assertEquals(overlay.getFrameNanos().latest(), 16000);
+        assertEquals(overlay.getTicksPerFrame().max(), 2);
+        assertEquals(overlay.getAllocatedPerFrame().latest(), 128);
+        for (int i = 0; i < DebugOverlay.HISTORY * 2; i++) {
+            overlay.recordFrame(17000 + i, 1, 0);
+        }
+        assertEquals(overlay.getTicksPerFrame().size(), DebugOverlay.HISTORY);
+
+        DebugOverlay fromZero = new DebugOverlay();
+        fromZero.recordFrame(-16000, 1, 0);
+        fromZero.recordFrame(0, 1, 0);
+        fromZero.recordFrame(16000, 1, 0);
+        assertEquals(fromZero.getFrameNanos().size(), 2);
+        assertEquals(fromZero.getFrameNanos().get(0), 16000);
+    }
+
+    @Test
+    public void decisionTimingTest() {
+        GameManager game = new GameManager(GameConfig.load("config.json"), 4);
+        assertNull(game.getDecisionNanos());
+        game.setDecisionTiming(true);
+        long[] decisionNanos = game.getDecisionNanos();
+        assertEquals(decisionNanos.length, game.getGhosts().size());
+        for (int tick = 0; tick < 200; tick++) {
+            game.tick(37);
+        }
+        boolean timed = false;
+        for (int i = 0; i < decisionNanos.length; i++) {
+            timed = timed || decisionNanos[i] > 0;
+        }
+        assertTrue(timed);
+        game.setDecisionTiming(false);
+        assertNull(game.getDecisionNanos());
+    }
+}
@@ -0,0 +1,60 @@
+package ghost;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventSchedulerTest {
+
+    @Test
+    public void schedulerTest() {
+        EventScheduler events = new EventScheduler(3);
+        assertEquals(events.poll(100), -1);
+        events.schedule(2, 10);
+        events.schedule(0, 20);
+        events.schedule(1, 10);
+        assertEquals(events.poll(9), -1);
+        assertEquals(events.poll(10), 1);
+        assertEquals(events.poll(10), 2);
+        assertEquals(events.poll(10), -1);
+        assertEquals(events.timeOf(0), 20);
+
+        events.schedule(0, 30);
+        assertEquals(events.poll(25), -1);
+        events.schedule(1, 40);
+        events.cancel(1);
+        assertEquals(events.timeOf(1), -1);
+        for (int i = 0; i < 50; i++) {
+            events.schedule(2, 35 + i);
+        }
+        assertEquals(events.poll(100), 0);
+        assertEquals(events.poll(100), 2);
+        assertEquals(events.poll(100), -1);
+
+        events.schedule(0, 5);
+        events.clear();
+        assertEquals(events.poll(100), -1);
+    }
+
+    @Test
+    public void modeTest() {
+        GameConfig config = GameConfig.load("config.json");
+        config = new GameConfig(config.getMapFilePath(), config.getLives(), config.getSpeed(),
+            config.getFrightenedLength(), new int[] {1, 0, 2, 1, 1}, config.getPathfinding(), 2,
+            config.getFrameRate(), false, null, 0, null, 10);
+        GameManager game = new GameManager(config, 1);
+        int[] expected = {
+            GameManager.SCATTER, GameManager.SCATTER, GameManager.SCATTER, GameManager.SCATTER,
+            GameManager.SCATTER, GameManager.SCATTER, GameManager.CHASE, GameManager.CHASE,
+            GameManager.SCATTER, GameManager.SCATTER, -1, -1
+        };
+        GameMetrics metrics = new GameMetrics();
+        game.setMetrics(metrics);
+        for (int tick = 0; tick < expected.length; tick++) {
+            assertEquals(game.currentMode(), expected[tick]);
+            game.tick(0);
+        }
+        assertEquals(metrics.getModeSwitches(), 2);
+        game.resetGame();
+        assertEquals(game.currentMode(), GameManager.SCATTER);
+    }
+}
@@ -0,0 +1,26 @@
+package ghost;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedTimestepTest {
+
+    @Test
+    public void fixedTimestepTest() {
+        FixedTimestep timestep = new FixedTimestep(100, 5);
+        assertEquals(timestep.getTickNanos(), 10000000L);
+        assertEquals(timestep.advance(0), 0);
+        assertEquals(timestep.advance(5000000L), 0);
+        assertEquals(timestep.advance(10000000L), 1);
+        assertEquals(timestep.advance(35000000L), 2);
+        assertEquals(timestep.advance(40000000L), 1);
+        assertEquals(timestep.advance(1040000000L), 5);
+        assertEquals(timestep.advance(1045000000L), 0);
+        assertEquals(timestep.advance(1050000000L), 1);
+
+        FixedTimestep negative = new FixedTimestep(100, 5);
+        assertEquals(negative.advance(-30000000L), 0);
+        assertEquals(negative.advance(-20000000L), 1);
+        assertEquals(negative.advance(5000000L), 2);
+    }
+}
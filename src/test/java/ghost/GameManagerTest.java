@@ -1,5 +1,7 @@
 package ghost;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 import processing.core.PApplet;
@@ -12,13 +14,165 @@ class GameManagerTest {
         PApplet.runSketch(new String[] {"App"}, testApp);
         testApp.setup();
         GameManager testManager = testApp.getGameManager();
-        testManager.getApptributes();
         testManager.readJson("configTest.json");
         assertEquals(testManager.getMapFilePath(), "mapTest.txt");
         assertEquals(testManager.getCounter(), 0);
         testManager.moveWaka();
-        assertEquals(testManager.getWaka().canMove(37, testApp), "YES");
+        assertEquals(testManager.getWaka().canMove(37, testManager), "YES");
         testManager.fruitCheck();
         assertEquals(testManager.getFruitCount(), 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void headlessTickTest() {
+        GameManager testManager = new GameManager("configTest.json");
+        assertEquals(testManager.getMapFilePath(), "mapTest.txt");
+        assertEquals(testManager.getLives(), 6);
+        assertEquals(testManager.getTickRate(), 60);
+        assertFalse(testManager.isUncapped());
+        assertFalse(testManager.isEndGame());
+        for (int i = 0; i < 120; i++) {
+            testManager.tick(37);
+        }
+        assertEquals(testManager.getCounter(), 120);
+        assertTrue(testManager.getWaka().getX() != 202 || testManager.getWaka().getY() != 315);
+        testManager.resetGame();
+        assertEquals(testManager.getCounter(), 0);
+        assertEquals(testManager.getFruitCount(), 0);
+    }
+
+    @Test
+    public void collectibleSetTest() {
+        GameManager testManager = new GameManager(GameConfig.load("config.json"), 3);
+        CollectibleSet collectibles = testManager.getCollectibles();
+        TileGrid tileGrid = testManager.getTileGrid();
+        int start = collectibles.size();
+        assertEquals(start, testManager.getMap().getFruitCount());
+        int first = collectibles.get(0);
+        assertTrue(collectibles.contains(first));
+        assertTrue(collectibles.remove(first));
+        assertFalse(collectibles.remove(first));
+        assertFalse(collectibles.contains(first));
+        assertEquals(collectibles.size(), start - 1);
+        for (int i = 0; i < collectibles.size(); i++) {
+            assertTrue(tileGrid.isCollectable(collectibles.get(i)));
+        }
+
+        testManager = new GameManager(GameConfig.load("config.json"), 3);
+        RandomInputPolicy policy = new RandomInputPolicy(11);
+        for (int i = 0; i < 2000 && !testManager.isEndGame(); i++) {
+            testManager.tick(policy.nextKey(testManager));
+        }
+        assertEquals(testManager.getCollectibles().size(), start - testManager.getFruitCount());
+    }
+
+    @Test
+    public void collectibleQueryTest() {
+        GameManager testManager = new GameManager(GameConfig.load("config.json"), 5);
+        TileGrid tileGrid = testManager.getTileGrid();
+        CollectibleSet collectibles = testManager.getCollectibles();
+        DistanceField field = new DistanceField(tileGrid);
+        RandomInputPolicy policy = new RandomInputPolicy(6);
+        int width = tileGrid.getWidth();
+        for (int round = 0; round < 8; round++) {
+            for (int i = 0; i < 400 && !testManager.isEndGame(); i++) {
+                testManager.tick(policy.nextKey(testManager));
+            }
+            int[] regionCounts = new int[collectibles.getRegionColumns() * collectibles.getRegionRows()];
+            for (int i = 0; i < tileGrid.size(); i++) {
+                boolean bit = (collectibles.word(i >>> 6) & (1L << i)) != 0;
+                assertEquals(bit, collectibles.contains(i));
+                if (bit) {
+                    regionCounts[collectibles.regionOf(i)]++;
+                }
+            }
+            for (int region = 0; region < regionCounts.length; region++) {
+                assertEquals(collectibles.regionCount(region), regionCounts[region]);
+            }
+            for (int from = round; from < tileGrid.size(); from += 7) {
+                int bestDistance = Integer.MAX_VALUE;
+                for (int n = 0; n < collectibles.size(); n++) {
+                    int tile = collectibles.get(n);
+                    int dx = (tile % width) - (from % width);
+                    int dy = (tile / width) - (from / width);
+                    bestDistance = Math.min(bestDistance, (dx * dx) + (dy * dy));
+                }
+                int nearest = collectibles.nearest(from);
+                int dx = (nearest % width) - (from % width);
+                int dy = (nearest / width) - (from / width);
+                assertEquals((dx * dx) + (dy * dy), bestDistance);
+                if (tileGrid.isWall(from)) {
+                    continue;
+                }
+                field.compute(tileGrid, from);
+                int bestSteps = Integer.MAX_VALUE;
+                for (int n = 0; n < collectibles.size(); n++) {
+                    int steps = field.distance(collectibles.get(n));
+                    if (steps >= 0) {
+                        bestSteps = Math.min(bestSteps, steps);
+                    }
+                }
+                int walked = collectibles.nearestByWalking(tileGrid, from);
+                if (bestSteps == Integer.MAX_VALUE) {
+                    assertEquals(walked, -1);
+                } else {
+                    assertEquals(field.distance(walked), bestSteps);
+                }
+            }
+        }
+        collectibles.clear();
+        assertEquals(collectibles.nearest(0), -1);
+        assertEquals(collectibles.regionCount(0), 0);
+    }
+
+    @Test
+    public void restoreLevelTest() {
+        GameConfig config = GameConfig.load("config.json");
+        GameConfig[] configs = {
+            config,
+            new GameConfig(config.getMapFilePath(), 1, 2, 5, config.getModeLengths(), "bfs", 60, 60,
+                false, null, 0, null, 10),
+            new GameConfig(config.getMapFilePath(), 1, 2, 5, config.getModeLengths(), "euclidean", 60, 60,
+                false, null, 12, null, 10)
+        };
+        for (GameConfig gameConfig : configs) {
+            GameManager played = new GameManager(gameConfig, 8);
+            Waka waka = played.getWaka();
+            ArrayList<MapPiece> mapPieces = played.getMapPieces();
+            RandomInputPolicy policy = new RandomInputPolicy(2);
+            for (int i = 0; i < 3000; i++) {
+                played.tick(policy.nextKey(played));
+            }
+            played.resetGame();
+            assertSame(played.getWaka(), waka);
+            assertSame(played.getMapPieces(), mapPieces);
+            GameManager fresh = new GameManager(gameConfig, played.getRandom().getState());
+            assertEquals(played.getCollectibles().size(), fresh.getCollectibles().size());
+            GameSnapshot reset = played.snapshot();
+            GameSnapshot built = fresh.snapshot();
+            assertEquals(reset.getIntCount(), built.getIntCount());
+            assertArrayEquals(Arrays.copyOf(reset.getInts(), reset.getIntCount()),
+                Arrays.copyOf(built.getInts(), built.getIntCount()));
+            for (int i = 0; i < 3000; i++) {
+                int key = policy.nextKey(played);
+                played.tick(key);
+                fresh.tick(key);
+                assertEquals(played.getWaka().getCoord(), fresh.getWaka().getCoord());
+                assertEquals(played.getFruitCount(), fresh.getFruitCount());
+                assertEquals(played.getLives(), fresh.getLives());
+            }
+            for (int i = 0; i < played.getGhosts().size(); i++) {
+                assertEquals(played.getGhosts().get(i).getCoord(), fresh.getGhosts().get(i).getCoord());
+            }
+            if (played.getSwarm() != null) {
+                for (int i = 0; i < played.getSwarm().size(); i++) {
+                    assertEquals(played.getSwarm().getX(i), fresh.getSwarm().getX(i));
+                    assertEquals(played.getSwarm().getY(i), fresh.getSwarm().getY(i));
+                }
+            }
+            for (int i = 0; i < played.getTileGrid().size(); i++) {
+                assertEquals(played.getTileGrid().tileType(i), fresh.getTileGrid().tileType(i));
+            }
+        }
+    }
+}
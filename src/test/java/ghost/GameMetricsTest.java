@@ -0,0 +1,84 @@
+package ghost;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.*;
+import java.util.*;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+class GameMetricsTest {
+
+    @Test
+    public void histogramTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(histogram.getValueAtPercentile(99.0), 0);
+        for (long value = 1; value <= 10000; value++) {
+            histogram.record(value);
+        }
+        histogram.record(-5);
+        assertEquals(histogram.getCount(), 10001);
+        assertEquals(histogram.getMax(), 10000);
+        long median = histogram.getValueAtPercentile(50.0);
+        assertTrue(median >= 5000 && median <= 5000 + (5000 / 64));
+        long p99 = histogram.getValueAtPercentile(99.0);
+        assertTrue(p99 >= 9900 && p99 <= 9900 + (9900 / 64));
+        assertEquals(histogram.getValueAtPercentile(100.0), 10000);
+        for (long value : new long[] {0, 1, 127, 128, 129, 1000, 123456789L, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.highestValueIn(bucket) >= value);
+            assertTrue(bucket == 0 || LatencyHistogram.highestValueIn(bucket - 1) < value);
+        }
+        histogram.reset();
+        assertEquals(histogram.getCount(), 0);
+        assertEquals(histogram.getMax(), 0);
+    }
+
+    @Test
+    public void gameMetricsTest() {
+        GameManager game = new GameManager(GameConfig.load("config.json"), 2);
+        assertFalse(game.getMetrics().isEnabled());
+        GameMetrics metrics = new GameMetrics();
+        game.setMetrics(metrics);
+        InputPolicy input = new RandomInputPolicy(2);
+        for (int tick = 0; tick < 3000; tick++) {
+            game.tick(input.nextKey(game));
+        }
+        assertEquals(metrics.getTicks(), 3000);
+        assertEquals(metrics.getPhase(GameMetrics.TICK).getCount(), 3000);
+        assertTrue(metrics.getPhase(GameMetrics.MOVE_GHOSTS).getCount() > 0);
+        assertTrue(metrics.getPickups() > 0 && metrics.getPickups() >= game.getFruitCount());
+        assertTrue(metrics.getModeSwitches() >= 1);
+        assertEquals(metrics.getMaxNanos().size(), GameMetrics.PHASE_NAMES.length);
+        assertFalse(GameMetrics.disabled().isEnabled());
+        assertEquals(GameMetrics.disabled().getTicks(), 0);
+        metrics.reset();
+        assertEquals(metrics.getTicks(), 0);
+    }
+
+    @Test
+    public void reporterTest(@TempDir Path directory) throws Exception {
+        GameMetrics metrics = new GameMetrics();
+        metrics.count(GameMetrics.PICKUPS);
+        metrics.getPhase(GameMetrics.MOVE_WAKA).record(250);
+
+        Path csv = directory.resolve("metrics.csv");
+        MetricsReporter csvReporter = new MetricsReporter(metrics, csv.toString());
+        csvReporter.write(1000);
+        csvReporter.write(2000);
+        List<String> lines = Files.readAllLines(csv);
+        assertEquals(lines.size(), 3);
+        assertEquals(lines.get(0), GameMetrics.csvHeader());
+        assertTrue(lines.get(2).startsWith("2000,0,1,"));
+        assertEquals(lines.get(0).split(",").length, lines.get(1).split(",").length);
+
+        Path json = directory.resolve("metrics.json");
+        new MetricsReporter(metrics, json.toString()).write(3000);
+        JSONObject metricsJson = (JSONObject) new JSONParser().parse(new String(Files.readAllBytes(json), "UTF-8"));
+        assertEquals(metricsJson.get("timestamp"), 3000L);
+        assertEquals(((JSONObject) metricsJson.get("counters")).get("pickups"), 1L);
+        JSONObject moveWaka = (JSONObject) ((JSONObject) metricsJson.get("phaseNanos")).get("moveWaka");
+        assertEquals(moveWaka.get("max"), 250L);
+    }
+}
@@ -0,0 +1,76 @@
+package ghost;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSnapshotTest {
+
+    private static int[] play(GameManager game, long policySeed, int ticks) {
+        RandomInputPolicy policy = new RandomInputPolicy(policySeed);
+        int[] trace = new int[ticks];
+        for (int i = 0; i < ticks; i++) {
+            game.tick(policy.nextKey(game));
+            trace[i] = (game.getWaka().getX() * 31) + game.getWaka().getY() + (game.getFruitCount() << 16)
+                + (game.getLives() << 26) + (game.currentMode() << 29);
+        }
+        return trace;
+    }
+
+    private static void checkRestore(GameConfig config) {
+        GameManager game = new GameManager(config, 21);
+        GameSnapshotTest.play(game, 1, 700);
+        GameSnapshot snapshot = game.snapshot();
+        int fruit = game.getFruitCount();
+        int collectibles = game.getCollectibles().size();
+        int[] first = GameSnapshotTest.play(game, 2, 2500);
+        GameSnapshot after = game.snapshot();
+
+        game.restore(snapshot);
+        assertEquals(game.getFruitCount(), fruit);
+        assertEquals(game.getCollectibles().size(), collectibles);
+        assertArrayEquals(GameSnapshotTest.play(game, 2, 2500), first);
+
+        GameManager other = new GameManager(config, 99);
+        GameSnapshotTest.play(other, 3, 300);
+        other.restore(snapshot);
+        assertArrayEquals(GameSnapshotTest.play(other, 2, 2500), first);
+        GameSnapshot otherAfter = other.snapshot();
+        assertArrayEquals(otherAfter.getInts(), after.getInts());
+        assertArrayEquals(otherAfter.getLongs(), after.getLongs());
+        for (int i = 0; i < game.getTileGrid().size(); i++) {
+            assertEquals(other.getTileGrid().tileType(i), game.getTileGrid().tileType(i));
+            assertEquals(other.getMapPieces().get(i) == null, game.getMapPieces().get(i) == null);
+        }
+    }
+
+    @Test
+    public void restoreTest() {
+        GameConfig config = GameConfig.load("config.json");
+        GameSnapshotTest.checkRestore(config);
+        GameSnapshotTest.checkRestore(new GameConfig(config.getMapFilePath(), 2, 2, 5, config.getModeLengths(),
+            "bfs", 60, 60, false, null, 0, null, 10));
+        GameSnapshotTest.checkRestore(new GameConfig(config.getMapFilePath(), 2, 2, 5, config.getModeLengths(),
+            "euclidean", 60, 60, false, null, 20, null, 10));
+    }
+
+    @Test
+    public void reuseTest() {
+        GameConfig config = GameConfig.load("config.json");
+        GameManager game = new GameManager(config, 4);
+        GameSnapshot snapshot = new GameSnapshot();
+        game.snapshot(snapshot);
+        int[] ints = snapshot.getInts();
+        assertTrue(snapshot.sizeInBytes() < 1024);
+        GameSnapshotTest.play(game, 5, 100);
+        game.snapshot(snapshot);
+        assertSame(snapshot.getInts(), ints);
+        GameSnapshot copy = new GameSnapshot();
+        copy.copyFrom(snapshot);
+        assertEquals(copy.sizeInBytes(), snapshot.sizeInBytes());
+
+        GameConfig swarmConfig = new GameConfig(config.getMapFilePath(), 3, 1, 5, config.getModeLengths(),
+            "euclidean", 60, 60, false, null, 8, null, 10);
+        GameManager swarmGame = new GameManager(swarmConfig, 4);
+        assertThrows(IllegalArgumentException.class, () -> swarmGame.restore(copy));
+    }
+}
@@ -0,0 +1,72 @@
+package ghost;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+
+class GhostSwarmTest {
+
+    private static GameConfig withSwarm(GameConfig config, String pathfinding, int swarmSize) {
+        return new GameConfig(config.getMapFilePath(), config.getLives(), config.getSpeed(),
+            config.getFrightenedLength(), config.getModeLengths(), pathfinding, config.getTickRate(),
+            config.getFrameRate(), config.isUncapped(), null, swarmSize, null, 10);
+    }
+
+    private static void assertSameGame(String pathfinding, long seed) {
+        GameConfig config = GameConfig.load("config.json");
+        GameManager objects = new GameManager(GhostSwarmTest.withSwarm(config, pathfinding, 0), seed);
+        GameManager swarmed = new GameManager(GhostSwarmTest.withSwarm(config, pathfinding, 4), seed);
+        ArrayList<Ghost> ghosts = objects.getGhosts();
+        GhostSwarm swarm = swarmed.getSwarm();
+        assertEquals(swarm.size(), ghosts.size());
+        assertTrue(swarmed.getGhosts().isEmpty());
+        InputPolicy inputA = new RandomInputPolicy(seed);
+        InputPolicy inputB = new RandomInputPolicy(seed);
+        for (int tick = 0; tick < 6000; tick++) {
+            objects.tick(inputA.nextKey(objects));
+            swarmed.tick(inputB.nextKey(swarmed));
+            ghosts = objects.getGhosts();
+            swarm = swarmed.getSwarm();
+            for (int i = 0; i < ghosts.size(); i++) {
+                assertEquals(ghosts.get(i).getX(), swarm.getX(i));
+                assertEquals(ghosts.get(i).getY(), swarm.getY(i));
+            }
+            assertEquals(objects.getLives(), swarmed.getLives());
+            assertEquals(objects.getFruitCount(), swarmed.getFruitCount());
+        }
+    }
+
+    @Test
+    public void parityTest() {
+        GhostSwarmTest.assertSameGame("euclidean", 3);
+        GhostSwarmTest.assertSameGame("bfs", 11);
+    }
+
+    @Test
+    public void largeSwarmTest() {
+        GameConfig config = GhostSwarmTest.withSwarm(GameConfig.load("config.json"), "euclidean", 2000);
+        GameManager game = new GameManager(config, 5);
+        GhostSwarm swarm = game.getSwarm();
+        assertEquals(swarm.size(), 2000);
+        assertEquals(swarm.getType(0), GhostSwarm.typeOf(game.getMap().getGhosts().get(0)));
+        InputPolicy input = new RandomInputPolicy(5);
+        for (int tick = 0; tick < 600; tick++) {
+            game.tick(input.nextKey(game));
+        }
+        for (int i = 4; i < swarm.size(); i++) {
+            assertEquals(swarm.getX(i), swarm.getX(i - 4));
+            assertEquals(swarm.getY(i), swarm.getY(i - 4));
+        }
+
+        swarm.frighten();
+        swarm.destroy(1, 0, game.getTileGrid());
+        assertEquals(swarm.getState(0), GhostSwarm.FRIGHTENED);
+        assertEquals(swarm.getState(1), GhostSwarm.JAILED);
+        assertEquals(swarm.sprite(0), SpriteAtlas.FRIGHTENED);
+        swarm.beBrave();
+        assertEquals(swarm.getState(0), GhostSwarm.NORMAL);
+        assertEquals(swarm.getState(1), GhostSwarm.JAILED);
+        swarm.reset();
+        assertEquals(swarm.getState(1), GhostSwarm.NORMAL);
+    }
+}
@@ -36,10 +36,10 @@ class GhostsTest {
         assertEquals(ambusher.getX(), 410);
         assertEquals(ambusher.getY(), 74);
         assertEquals(ambusher.getCoord(), new Coordinate(410, 80));
-        HashMap<Coordinate, Integer> possibleMoves = ambusher.intersectionDirection(testApp.getGameManager());
+        int possibleMoves = ambusher.intersectionDirection(testApp.getGameManager());
         assertTrue(ambusher.wayToScatter(possibleMoves, testApp.getGameManager()) == 37);
         assertTrue(ambusher.wayToChase(possibleMoves, testApp.getGameManager()) == 40);
-        ambusher.destroy(testApp, 0);
+        ambusher.destroy(0, testApp.getGameManager().getTileGrid());
         assertTrue(ambusher.getCoord().equals(new Coordinate(418, 548)));
         ambusher.resetPos();
         assertTrue(ambusher.getCoord().equals(new Coordinate(416, 80)));
@@ -54,10 +54,10 @@ class GhostsTest {
         assertEquals(chaser.getX(), 10);
         assertEquals(chaser.getY(), 74);
         assertEquals(chaser.getCoord(), new Coordinate(16, 80));
-        HashMap<Coordinate, Integer> possibleMoves = chaser.intersectionDirection(testApp.getGameManager());
+        int possibleMoves = chaser.intersectionDirection(testApp.getGameManager());
         assertTrue(chaser.wayToScatter(possibleMoves, testApp.getGameManager()) == 38);
         assertTrue(chaser.wayToChase(possibleMoves, testApp.getGameManager()) == 37);
-        chaser.destroy(testApp, 1);
+        chaser.destroy(1, testApp.getGameManager().getTileGrid());
         assertTrue(chaser.getCoord().equals(new Coordinate(386, 548)));
         chaser.resetPos();
         assertTrue(chaser.getCoord().equals(new Coordinate(16, 80)));
@@ -72,10 +72,10 @@ class GhostsTest {
         assertEquals(ignorant.getX(), 410);
         assertEquals(ignorant.getY(), 490);
         assertEquals(ignorant.getCoord(), new Coordinate(416, 496));
-        HashMap<Coordinate, Integer> possibleMoves = ignorant.intersectionDirection(testApp.getGameManager());
+        int possibleMoves = ignorant.intersectionDirection(testApp.getGameManager());
         assertTrue(ignorant.wayToScatter(possibleMoves, testApp.getGameManager()) == 40);
         assertTrue(ignorant.wayToChase(possibleMoves, testApp.getGameManager()) == 40);
-        ignorant.destroy(testApp, 2);
+        ignorant.destroy(2, testApp.getGameManager().getTileGrid());
         assertTrue(ignorant.getCoord().equals(new Coordinate(354, 548)));
         ignorant.resetPos();
         assertTrue(ignorant.getCoord().equals(new Coordinate(416, 496)));
@@ -90,10 +90,10 @@ class GhostsTest {
         assertEquals(whim.getX(), 10);
         assertEquals(whim.getY(), 490);
         assertEquals(whim.getCoord(), new Coordinate(16, 496));
-        HashMap<Coordinate, Integer> possibleMoves = whim.intersectionDirection(testApp.getGameManager());
+        int possibleMoves = whim.intersectionDirection(testApp.getGameManager());
         assertTrue(whim.wayToScatter(possibleMoves, testApp.getGameManager()) == 37);
         assertTrue(whim.wayToChase(possibleMoves, testApp.getGameManager()) == 38);
-        whim.destroy(testApp, 3);
+        whim.destroy(3, testApp.getGameManager().getTileGrid());
         assertTrue(whim.getCoord().equals(new Coordinate(322, 548)));
         whim.resetPos();
         assertTrue(whim.getCoord().equals(new Coordinate(16, 496)));
@@ -13,10 +13,10 @@ class MapPieceTest {
         PApplet.runSketch(new String[] {"App"}, testApp);
         testApp.setup();
         MapPiece emptyPiece = new EmptyPiece(0, 16);
-        MapPiece fruitPiece = new FruitPiece(testApp.loadImage("src/main/resources/fruit.png"), 16, 16);
-        MapPiece sodaCan = new SodaCan(testApp.loadImage("src/main/resources/sodacan.png"), 32, 16);
-        MapPiece superFruit = new SuperFruit(testApp.loadImage("src/main/resources/superfruit.png"), 48, 16);
-        MapPiece wallPiece = new WallPiece(testApp.loadImage("src/main/resources/horizontal.png"), 56, 16);
+        MapPiece fruitPiece = new FruitPiece(SpriteAtlas.FRUIT, 16, 16);
+        MapPiece sodaCan = new SodaCan(SpriteAtlas.SODA_CAN, 32, 16);
+        MapPiece superFruit = new SuperFruit(SpriteAtlas.SUPER_FRUIT, 48, 16);
+        MapPiece wallPiece = new WallPiece(SpriteAtlas.HORIZONTAL, 56, 16);
         assertTrue(emptyPiece.getCoord().equals(new Coordinate(0, 16)));
         assertTrue(fruitPiece.getCoord().equals(new Coordinate(16, 16)));
         assertTrue(sodaCan.getCoord().equals(new Coordinate(32, 16)));
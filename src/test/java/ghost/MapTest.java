@@ -0,0 +1,206 @@
+package ghost;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.*;
+
+class MapTest {
+
+    @Test
+    public void tileGridTest() {
+        Map testMap = new Map("mapTest.txt");
+        ArrayList<MapPiece> mapPieces = testMap.makeMapPieces();
+        TileGrid tileGrid = testMap.getTileGrid();
+        assertEquals(tileGrid.getWidth(), 28);
+        assertEquals(tileGrid.getHeight(), 36);
+        assertEquals(tileGrid.size(), mapPieces.size());
+        assertTrue(tileGrid.isWall(84));
+        assertTrue(mapPieces.get(84) instanceof WallPiece);
+        assertEquals(tileGrid.tileType(0), TileGrid.EMPTY);
+        assertEquals(tileGrid.tileType(141), TileGrid.FRUIT);
+        assertTrue(tileGrid.isCollectable(141));
+        assertFalse(tileGrid.isWall(141));
+        assertTrue(tileGrid.isWall(-1));
+        assertTrue(tileGrid.isWall(1008));
+        assertEquals(testMap.getFruitCount(), 4);
+    }
+
+    @Test
+    public void exitMaskTest() {
+        Map testMap = new Map("mapTest.txt");
+        testMap.makeMapPieces();
+        TileGrid tileGrid = testMap.getTileGrid();
+        int up = 1 << TileGrid.UP;
+        int right = 1 << TileGrid.RIGHT;
+        int down = 1 << TileGrid.DOWN;
+        assertEquals(tileGrid.exits(141), up | right | down);
+        assertEquals(tileGrid.neighbour(141, TileGrid.UP), 113);
+        assertEquals(tileGrid.neighbour(141, TileGrid.LEFT), 140);
+        assertEquals(tileGrid.exits(0), right | down);
+        assertEquals(tileGrid.neighbour(0, TileGrid.LEFT), -1);
+        assertEquals(tileGrid.neighbour(27, TileGrid.RIGHT), -1);
+        assertEquals(tileGrid.exits(-1), 0);
+        assertEquals(TileGrid.directionKey(TileGrid.directionIndex(40)), 40);
+    }
+
+    @Test
+    public void mapSizeTest(@TempDir Path directory) throws IOException {
+        int width = 40;
+        int height = 30;
+        StringBuilder text = new StringBuilder();
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < width; column++) {
+                if (row == 0 || column == 0 || row == height - 1 || column == width - 1) {
+                    text.append('1');
+                } else if (row == 1 && column == 1) {
+                    text.append('p');
+                } else if (row == height - 2 && column == width - 2) {
+                    text.append('c');
+                } else {
+                    text.append('7');
+                }
+            }
+            text.append('\n');
+        }
+        Path mapFile = directory.resolve("mapLarge.txt");
+        Files.write(mapFile, text.toString().getBytes());
+
+        Map testMap = new Map(mapFile.toString());
+        assertEquals(testMap.getWidth(), width);
+        assertEquals(testMap.getHeight(), height);
+        assertTrue(testMap.getBottomRight().equals(new Coordinate((width - 1) * 16, (height - 1) * 16)));
+        ArrayList<MapPiece> mapPieces = testMap.makeMapPieces();
+        TileGrid tileGrid = testMap.getTileGrid();
+        assertEquals(tileGrid.getWidth(), width);
+        assertEquals(tileGrid.getHeight(), height);
+        assertEquals(mapPieces.size(), width * height);
+        assertEquals(tileGrid.indexAt(16, 16), width + 1);
+        assertEquals(new Coordinate(32, 48).toIndex(tileGrid), (3 * width) + 2);
+
+        GameConfig config = new GameConfig(mapFile.toString(), 3, 1, 10, new int[] {7, 20}, "bfs", 60, 60, false, null, 0, null, 10);
+        GameManager game = new GameManager(config, 1);
+        assertEquals(game.getWaka().getIndex(game.getTileGrid()), width + 1);
+        for (int i = 0; i < 200; i++) {
+            game.tick(39);
+        }
+        assertTrue(game.getFruitCount() > 0);
+        assertEquals(game.getCollectibles().size(), testMap.getFruitCount() - game.getFruitCount());
+    }
+
+    @Test
+    public void tunnelTest(@TempDir Path directory) throws IOException {
+        String text = "1111111111\n"
+            + "1000000001\n"
+            + "t0p000000t\n"
+            + "1000000011\n"
+            + "11111111c1\n"
+            + "1111111111\n";
+        Path mapFile = directory.resolve("mapTunnel.txt");
+        Files.write(mapFile, text.getBytes());
+        Map tunnelMap = new Map(mapFile.toString());
+        tunnelMap.makeMapPieces();
+        TileGrid tileGrid = tunnelMap.getTileGrid();
+        assertTrue(tileGrid.isTunnel(20));
+        assertFalse(tileGrid.isWall(20));
+        assertEquals(tileGrid.neighbour(20, TileGrid.LEFT), 29);
+        assertEquals(tileGrid.neighbour(29, TileGrid.RIGHT), 20);
+        assertEquals(tileGrid.exits(20) & (1 << TileGrid.LEFT), 1 << TileGrid.LEFT);
+        assertEquals(tileGrid.neighbour(10, TileGrid.LEFT), -1);
+        assertEquals(tileGrid.neighbour(19, TileGrid.RIGHT), -1);
+        assertEquals(tileGrid.wrapX(-2), tileGrid.pixelWidth() - 2);
+        assertEquals(tileGrid.wrapX(tileGrid.pixelWidth()), 0);
+        DistanceField field = new DistanceField(tileGrid);
+        field.compute(tileGrid, 21);
+        assertEquals(field.distance(28), 3);
+
+        GameConfig config = new GameConfig(mapFile.toString(), 3, 1, 10, new int[] {7, 20}, "bfs", 60, 60, false, null, 0, null, 10);
+        GameManager game = new GameManager(config, 1);
+        boolean wrapped = false;
+        for (int i = 0; i < 80; i++) {
+            game.tick(37);
+            Waka waka = game.getWaka();
+            assertTrue(waka.getX() + 4 >= 0 && waka.getX() + 4 < tileGrid.pixelWidth());
+            if (waka.aligned() && waka.getIndex(game.getTileGrid()) == 29) {
+                wrapped = true;
+            }
+        }
+        assertTrue(wrapped);
+        assertEquals(game.getWaka().getIndex(game.getTileGrid()), 27);
+        assertEquals(game.getLives(), 3);
+    }
+
+    @Test
+    public void tunnelCollisionTest(@TempDir Path directory) throws IOException {
+        String text = "1111111111\n"
+            + "1000000001\n"
+            + "t0p000000t\n"
+            + "1000000011\n"
+            + "11111111c1\n"
+            + "1111111111\n";
+        Path mapFile = directory.resolve("mapTunnel.txt");
+        Files.write(mapFile, text.getBytes());
+        Map tunnelMap = new Map(mapFile.toString());
+        tunnelMap.makeMapPieces();
+        TileGrid tileGrid = tunnelMap.getTileGrid();
+        assertTrue(tileGrid.wrapsRow(2));
+        assertFalse(tileGrid.wrapsRow(3));
+        assertFalse(tileGrid.wrapsColumn(0));
+
+        Waka waka = new Waka(SpriteAtlas.PLAYER_LEFT, SpriteAtlas.PLAYER_CLOSED, -4, 27);
+        Ghost ghost = new Chaser(138, 26);
+        assertTrue(waka.overlaps(ghost, tileGrid));
+        assertFalse(SpatialHash.overlaps(waka.getX() + Waka.HITBOX_OFFSET_X, waka.getY() + Waka.HITBOX_OFFSET_Y,
+            Waka.HITBOX_SIZE, ghost.getX() + Ghost.HITBOX_OFFSET, ghost.getY() + Ghost.HITBOX_OFFSET, Ghost.HITBOX_SIZE));
+        assertFalse(new Waka(SpriteAtlas.PLAYER_LEFT, SpriteAtlas.PLAYER_CLOSED, 60, 27).overlaps(ghost, tileGrid));
+        assertFalse(new Waka(SpriteAtlas.PLAYER_LEFT, SpriteAtlas.PLAYER_CLOSED, -4, 59)
+            .overlaps(new Chaser(138, 58), tileGrid));
+
+        SpatialHash hash = new SpatialHash(tileGrid, 2);
+        int[] found = new int[2];
+        hash.update(0, ghost.getX() + 6, ghost.getY() + 6);
+        assertEquals(hash.query(waka.getX() + 4, waka.getY() + 5, 2, found), 1);
+        assertEquals(found[0], 0);
+        hash.update(0, ghost.getX() + 6, ghost.getY() + 22);
+        assertEquals(hash.query(waka.getX() + 4, waka.getY() + 5, 1, found), 0);
+    }
+
+    @Test
+    public void mapCacheTest(@TempDir Path directory) throws IOException {
+        MapData text = MapData.load("mapTest.txt");
+        assertNotNull(text);
+        assertEquals(text.getWidth(), 28);
+        assertEquals(text.getHeight(), 36);
+        assertEquals(text.code(141), (byte) 'c');
+        String cachePath = directory.resolve("mapTest.wmap").toString();
+        text.save(cachePath);
+        MapData cache = MapData.load(cachePath);
+        assertNotNull(cache);
+        assertEquals(cache.getWidth(), text.getWidth());
+        assertEquals(cache.getHeight(), text.getHeight());
+        for (int i = 0; i < text.getWidth() * text.getHeight(); i++) {
+            assertEquals(cache.code(i), text.code(i));
+        }
+
+        Map cachedMap = new Map(cachePath);
+        cachedMap.makeMapPieces();
+        assertEquals(cachedMap.getFruitCount(), 4);
+        assertTrue(cachedMap.getPlayerStart().equals(new Map("mapTest.txt").getPlayerStart()));
+
+        MapData ragged = MapData.parse(ByteBuffer.wrap("12\r\n7\r\n".getBytes()));
+        assertEquals(ragged.getWidth(), 2);
+        assertEquals(ragged.getHeight(), 2);
+        assertEquals(ragged.code(2), (byte) '7');
+        assertEquals(ragged.code(3), 0);
+
+        Files.write(directory.resolve("bad.wmap"), new byte[] {1, 2, 3});
+        assertNull(MapData.load(directory.resolve("bad.wmap").toString()));
+        assertNull(MapData.load(directory.resolve("missing.txt").toString()));
+        String missing = directory.resolve("missing.txt").toString();
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new Map(missing));
+        assertEquals(e.getMessage(), "Could not read map file " + missing);
+    }
+}
@@ -0,0 +1,69 @@
+package ghost;
+
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MctsInputPolicyTest {
+
+    private static int[] play(MctsInputPolicy policy, GameManager game, int ticks) {
+        int[] keys = new int[ticks];
+        for (int i = 0; i < ticks && !game.isEndGame(); i++) {
+            keys[i] = policy.nextKey(game);
+            game.tick(keys[i]);
+        }
+        return keys;
+    }
+
+    @Test
+    public void deterministicTest() {
+        GameConfig config = GameConfig.load("config.json");
+        MctsInputPolicy first = new MctsInputPolicy(config, 2, 0, 20, 6, 5);
+        MctsInputPolicy second = new MctsInputPolicy(config, 2, 0, 20, 6, 5);
+        try {
+            int[] keys = MctsInputPolicyTest.play(first, new GameManager(config, 8), 400);
+            assertArrayEquals(MctsInputPolicyTest.play(second, new GameManager(config, 8), 400), keys);
+            assertEquals(first.getLastRollouts(), 40);
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    @Test
+    public void configChangeTest() throws ParseException {
+        GameConfig config = GameConfig.load("config.json");
+        GameConfig changed = GameConfig.parse(config.toJson()
+            .replace("\"map.txt\"", "\"mapTest.txt\"").replace("\"speed\":1", "\"speed\":2,\"swarmSize\":16"));
+        GameManager game = new GameManager(config, 4);
+        MctsInputPolicy policy = new MctsInputPolicy(config, 2, 0, 10, 6, 4);
+        try {
+            MctsInputPolicyTest.play(policy, game, 40);
+            game.updateConfig(changed);
+            game.resetGame();
+            MctsInputPolicyTest.play(policy, game, 40);
+        } finally {
+            policy.close();
+        }
+        assertEquals(game.getConfig(), changed);
+        assertEquals(policy.getLastRollouts(), 20);
+    }
+
+    @Test
+    public void playTest() {
+        GameConfig config = GameConfig.load("config.json");
+        GameManager game = new GameManager(config, 3);
+        GameMetrics metrics = new GameMetrics();
+        game.setMetrics(metrics);
+        MctsInputPolicy policy = new MctsInputPolicy(config, 2, 2000000, 0, 8, 1);
+        try {
+            MctsInputPolicyTest.play(policy, game, 600);
+        } finally {
+            policy.close();
+        }
+        assertTrue(game.getFruitCount() >= 20);
+        assertTrue(metrics.getRollouts() > 0);
+        assertTrue(metrics.getRolloutsPerSecond() > 0);
+        assertTrue(metrics.getPhase(GameMetrics.SEARCH).getMax() < 100000000L);
+    }
+}
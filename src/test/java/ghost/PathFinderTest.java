@@ -0,0 +1,48 @@
+package ghost;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathFinderTest {
+
+    @Test
+    public void distanceFieldTest() {
+        Map testMap = new Map("mapTest.txt");
+        testMap.makeMapPieces();
+        TileGrid tileGrid = testMap.getTileGrid();
+        DistanceField field = new DistanceField(tileGrid);
+        assertEquals(field.getTarget(), -1);
+        field.compute(tileGrid, 141);
+        assertEquals(field.getTarget(), 141);
+        assertEquals(field.distance(141), 0);
+        assertEquals(field.distance(142), 1);
+        assertEquals(field.distance(113), 1);
+        assertEquals(field.distance(170), 2);
+        assertEquals(field.distance(140), -1);
+        assertEquals(field.distance(0), -1);
+    }
+
+    @Test
+    public void pathFinderTest() {
+        Map testMap = new Map("mapTest.txt");
+        testMap.makeMapPieces();
+        PathFinder pathFinder = new PathFinder(testMap.getTileGrid());
+        assertEquals(pathFinder.tileIndex(16, 80), 141);
+        assertEquals(pathFinder.tileIndex(-40, -40), 0);
+        assertEquals(pathFinder.tileIndex(10000, 10000), 1007);
+        DistanceField field = pathFinder.fieldFor(141, 0);
+        assertSame(pathFinder.fieldFor(141, 1), field);
+        assertEquals(pathFinder.getRecomputes(), 1);
+        int left = 1 << TileGrid.LEFT;
+        int right = 1 << TileGrid.RIGHT;
+        int down = 1 << TileGrid.DOWN;
+        assertEquals(pathFinder.directionTowards(143, left | right | down, 16, 80, 2), 37);
+        assertEquals(pathFinder.directionTowards(143, right | down, 16, 80, 2), 39);
+        assertEquals(pathFinder.directionTowards(143, 0, 16, 80, 2), 0);
+        assertEquals(pathFinder.getRecomputes(), 1);
+        for (int i = 0; i < 10; i++) {
+            pathFinder.fieldFor(200 + i, 3 + i);
+        }
+        assertEquals(pathFinder.getRecomputes(), 11);
+    }
+}
@@ -0,0 +1,47 @@
+package ghost;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.*;
+
+class ReplayTest {
+
+    @Test
+    public void replayTest() throws IOException {
+        GameConfig config = GameConfig.load("config.json");
+        assertNotNull(config);
+        GameManager game = new GameManager(config, 99);
+        ReplayRecorder recorder = new ReplayRecorder(99, config);
+        RandomInputPolicy policy = new RandomInputPolicy(5);
+        for (int i = 0; i < 3000 && !game.isEndGame(); i++) {
+            int key = policy.nextKey(game);
+            if (i % 97 == 0) {
+                key = 32;
+            }
+            game.tick(key);
+            recorder.record(key);
+        }
+        assertTrue(recorder.getRunCount() < recorder.getTickCount());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recorder.write(out);
+        Replay replay = Replay.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(replay.getSeed(), 99);
+        assertEquals(replay.getTickCount(), recorder.getTickCount());
+        assertEquals(replay.getConfig().toJson(), config.toJson());
+
+        GameManager replayed = replay.play();
+        assertEquals(replayed.getCounter(), game.getCounter());
+        assertEquals(replayed.getFruitCount(), game.getFruitCount());
+        assertEquals(replayed.getLives(), game.getLives());
+        assertEquals(replayed.getWaka().getX(), game.getWaka().getX());
+        assertEquals(replayed.getWaka().getY(), game.getWaka().getY());
+        assertEquals(replayed.getRandom().getState(), game.getRandom().getState());
+    }
+
+    @Test
+    public void badReplayTest() {
+        byte[] notReplay = {1, 2, 3, 4, 5, 6, 7, 8};
+        assertThrows(IOException.class, () -> Replay.read(new ByteArrayInputStream(notReplay)));
+    }
+}
@@ -0,0 +1,65 @@
+package ghost;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+
+class SpatialHashTest {
+
+    @Test
+    public void overlapTest() {
+        assertTrue(SpatialHash.overlaps(0, 0, 10, 5, 5, 10));
+        assertFalse(SpatialHash.overlaps(0, 0, 10, 10, 0, 10));
+        assertFalse(SpatialHash.overlaps(0, 0, 10, 0, 10, 10));
+        // No corner of either box lies inside the other, but they still overlap.
+        assertTrue(SpatialHash.overlaps(0, 4, 20, 4, 0, 12));
+        assertTrue(SpatialHash.overlaps(4, 4, 2, 0, 0, 10));
+    }
+
+    @Test
+    public void hashTest() {
+        SpatialHash hash = new SpatialHash(new TileGrid(10, 10), 4);
+        int[] found = new int[4];
+        hash.update(0, 16, 16);
+        hash.update(1, 20, 20);
+        hash.update(2, 100, 100);
+        hash.update(3, -50, 500);
+        assertEquals(hash.cellOf(0), 11);
+        assertEquals(hash.cellOf(1), 11);
+        assertEquals(hash.cellOf(3), 90);
+        assertEquals(hash.query(16, 16, 0, found), 2);
+        assertEquals(found[0], 0);
+        assertEquals(found[1], 1);
+        assertEquals(hash.query(16, 16, 5, found), 3);
+        assertEquals(found[2], 2);
+
+        hash.update(0, 90, 90);
+        assertEquals(hash.query(16, 16, 0, found), 1);
+        assertEquals(found[0], 1);
+        assertEquals(hash.query(96, 96, 0, found), 1);
+        assertEquals(hash.query(96, 96, 1, found), 2);
+        hash.remove(1);
+        assertEquals(hash.cellOf(1), -1);
+        assertEquals(hash.query(16, 16, 1, found), 0);
+        hash.remove(1);
+    }
+
+    @Test
+    public void collisionTest() {
+        GameManager game = new GameManager(GameConfig.load("config.json"), 1);
+        ArrayList<Ghost> ghosts = game.getGhosts();
+        Waka waka = game.getWaka();
+        int lives = game.getLives();
+        game.checkCollision();
+        assertEquals(game.getLives(), lives);
+        for (int i = 0; i < ghosts.size(); i++) {
+            ghosts.get(i).x = waka.getX() + 2;
+            ghosts.get(i).y = waka.getY() - 20;
+            ghosts.get(i).move(40, 0);
+        }
+        game.checkCollision();
+        assertEquals(game.getLives(), lives - 1);
+        assertEquals(waka.getX(), game.getMap().getPlayerStart().getX());
+        assertEquals(waka.getY(), game.getMap().getPlayerStart().getY());
+    }
+}
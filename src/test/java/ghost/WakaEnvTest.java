@@ -0,0 +1,79 @@
+package ghost;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WakaEnvTest {
+
+    @Test
+    public void observationTest() {
+        GameConfig config = GameConfig.load("config.json");
+        WakaEnv env = new WakaEnv(config, 4, 0);
+        int[] observation = env.reset(5);
+        GameManager game = env.getGame();
+        TileGrid tileGrid = game.getTileGrid();
+        assertEquals(observation.length, WakaEnv.observationSize(config));
+        assertEquals(observation.length, tileGrid.size() + WakaEnv.HEADER_SIZE + (4 * WakaEnv.GHOST_SIZE));
+        int header = tileGrid.size();
+        assertEquals(observation[header + WakaEnv.WAKA_X], game.getWaka().getX() + 4);
+        assertEquals(observation[header + WakaEnv.LIVES], config.getLives());
+        assertEquals(observation[header + WakaEnv.MODE], GameManager.SCATTER);
+
+        float total = 0;
+        for (int step = 0; step < 100 && !env.isDone(); step++) {
+            total += env.step(step % 4);
+        }
+        assertTrue(total != 0);
+        for (int i = 0; i < tileGrid.size(); i++) {
+            assertEquals(observation[i], tileGrid.tileType(i));
+        }
+        Ghost ghost = game.getGhosts().get(2);
+        int ghostAt = header + WakaEnv.HEADER_SIZE + (2 * WakaEnv.GHOST_SIZE);
+        assertEquals(observation[ghostAt + WakaEnv.GHOST_Y], ghost.getY() + 6);
+        assertEquals(observation[ghostAt + WakaEnv.GHOST_TYPE], GhostSwarm.typeOf(ghost));
+        assertEquals(observation[header + WakaEnv.WAKA_DIRECTION],
+            TileGrid.directionIndex(game.getWaka().getDirection()));
+    }
+
+    @Test
+    public void doneTest() {
+        WakaEnv env = new WakaEnv(GameConfig.load("config.json"), 1, 50);
+        assertTrue(env.isDone());
+        env.reset(1);
+        for (int step = 0; step < 50; step++) {
+            assertFalse(env.isDone());
+            env.step(0);
+        }
+        assertTrue(env.isDone());
+        assertThrows(IllegalStateException.class, () -> env.step(0));
+    }
+
+    @Test
+    public void vecEnvTest() {
+        GameConfig config = GameConfig.load("config.json");
+        WakaVecEnv single = new WakaVecEnv(config, 40, 8, 30, 1);
+        WakaVecEnv parallel = new WakaVecEnv(config, 40, 8, 30, 4);
+        try {
+            single.reset(9);
+            parallel.reset(9);
+            int[] actions = new int[40];
+            int episodes = 0;
+            for (int step = 0; step < 100; step++) {
+                for (int i = 0; i < actions.length; i++) {
+                    actions[i] = (step / 3 + i) % 4;
+                }
+                single.step(actions);
+                parallel.step(actions);
+                assertArrayEquals(single.getObservations(), parallel.getObservations());
+                assertArrayEquals(single.getRewards(), parallel.getRewards());
+                assertTrue(Arrays.equals(single.getDones(), parallel.getDones()));
+                episodes += single.getDones()[0] ? 1 : 0;
+            }
+            assertEquals(episodes, 3);
+            assertEquals(single.get(0).getSteps(), 10);
+        } finally {
+            parallel.close();
+        }
+    }
+}
@@ -17,7 +17,7 @@ class WakaTest {
         assertEquals(waka.getDirection(), 37);
         waka.move(37, 16);
         assertTrue(waka.aligned());
-        assertEquals(waka.canMove(37, testApp), "YES");
-        assertEquals(waka.getIndex(), 544);
+        assertEquals(waka.canMove(37, testApp.getGameManager()), "YES");
+        assertEquals(waka.getIndex(testApp.getGameManager().getTileGrid()), 544);
     }
 }
\ No newline at end of file